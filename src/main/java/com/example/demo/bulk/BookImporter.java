@@ -0,0 +1,268 @@
+package com.example.demo.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.example.demo.cache.BookSearchCache;
+import com.example.demo.cache.IsbnFilter;
+import com.example.demo.dao.BookBatchRepository;
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.BookImportErrorDto;
+import com.example.demo.dto.BookImportReportDto;
+import com.example.demo.exception.OnlineBookStoreException;
+import com.example.demo.search.CatalogIndex;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports publisher catalogs of any size from CSV or NDJSON.
+ * <p>
+ * The file is read line by line and processed in batches, so memory use depends on the batch size only. The rows of a
+ * batch are parsed and their ISBN check digits validated in parallel, then their authors and already existing ISBNs
+ * are looked up with one query each and the valid rows are inserted with one JDBC batch in their own transaction.
+ * Invalid rows are reported with their line number and skipped, the rest of the file is imported regardless.
+ */
+@Slf4j
+@Service
+public class BookImporter {
+
+    public static final String CSV = "text/csv";
+    public static final String NDJSON = "application/x-ndjson";
+    private static final int MAXIMUM_TITLE_LENGTH = 255;
+
+    private final BookBatchRepository bookBatchRepository;
+    private final TransactionTemplate transaction;
+    private final IsbnFilter isbnFilter;
+    private final BookSearchCache bookSearchCache;
+    private final CatalogIndex catalogIndex;
+    private final ObjectMapper objectMapper;
+    private final BulkProperties properties;
+
+    public BookImporter(BookBatchRepository bookBatchRepository, PlatformTransactionManager transactionManager,
+            IsbnFilter isbnFilter, BookSearchCache bookSearchCache, CatalogIndex catalogIndex,
+            ObjectMapper objectMapper, BulkProperties properties) {
+        this.bookBatchRepository = bookBatchRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.isbnFilter = isbnFilter;
+        this.bookSearchCache = bookSearchCache;
+        this.catalogIndex = catalogIndex;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Imports the books of a CSV file with an {@code isbn,title,authorId} header, columns in any order, or of an
+     * NDJSON file with one book per line as accepted by {@code POST /api/books}.
+     */
+    public BookImportReportDto importBooks(InputStream input, String contentType) {
+        log.info("Entering importBooks()");
+        long start = System.nanoTime();
+        Report report = new Report(properties.getImportMaximumReportedErrors());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8),
+                1 << 16)) {
+            Function<String, BookDto> parser = parser(contentType, reader, report);
+            List<Row> batch = new ArrayList<>(properties.getImportBatchSize());
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                long lineNumber = ++report.lines;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                batch.add(new Row(lineNumber, line));
+                if (batch.size() == properties.getImportBatchSize()) {
+                    importBatch(batch, parser, report);
+                    batch = new ArrayList<>(properties.getImportBatchSize());
+                }
+            }
+            importBatch(batch, parser, report);
+        } catch (IOException ex) {
+            throw new OnlineBookStoreException("Unable to read the import file", HttpStatus.BAD_REQUEST);
+        } finally {
+            if (report.imported > 0) {
+                bookSearchCache.invalidateAll();
+            }
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long rowsPerSecond = report.read * 1000 / Math.max(1, durationMillis);
+        log.info("Imported {} of {} books in {} ms, {} rows/s", report.imported, report.read, durationMillis,
+                rowsPerSecond);
+        log.info("Leaving importBooks()");
+        return new BookImportReportDto(report.read, report.imported, report.failed, durationMillis, rowsPerSecond,
+                report.errors);
+    }
+
+    private Function<String, BookDto> parser(String contentType, BufferedReader reader, Report report)
+            throws IOException {
+        String mediaType = contentType == null ? "" : contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        if (NDJSON.equals(mediaType)) {
+            return this::parseJson;
+        }
+        if (!CSV.equals(mediaType)) {
+            throw new OnlineBookStoreException(String.format("Unsupported content type '%s', expected %s or %s",
+                    contentType, CSV, NDJSON), HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        }
+
+        String header = reader.readLine();
+        report.lines++;
+        List<String> columns = header == null ? List.of() : CsvLine.split(header.replace("\uFEFF", "")).stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT)).toList();
+        int isbn = columns.indexOf("isbn");
+        int title = columns.indexOf("title");
+        int authorId = columns.indexOf("authorid");
+        if (isbn < 0 || title < 0 || authorId < 0) {
+            throw new OnlineBookStoreException("CSV header must name the columns isbn, title and authorId",
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        return line -> {
+            List<String> fields = CsvLine.split(line);
+            if (fields.size() != columns.size()) {
+                throw new IllegalArgumentException(
+                        String.format("Expected %d fields but found %d", columns.size(), fields.size()));
+            }
+            try {
+                return new BookDto(fields.get(isbn), fields.get(title), Long.parseLong(fields.get(authorId).trim()),
+                        null);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Author ID must be a number");
+            }
+        };
+    }
+
+    private BookDto parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, BookDto.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private void importBatch(List<Row> rows, Function<String, BookDto> parser, Report report) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<ParsedRow> parsedRows = rows.parallelStream().map(row -> parse(row, parser)).toList();
+        report.read += parsedRows.size();
+
+        Set<String> batchIsbns = new HashSet<>();
+        List<ParsedRow> validRows = new ArrayList<>(parsedRows.size());
+        for (ParsedRow row : parsedRows) {
+            if (row.error() != null) {
+                report.fail(row, row.error());
+            } else if (!batchIsbns.add(row.book().getIsbn())) {
+                report.fail(row, "Duplicate ISBN in the same file");
+            } else {
+                validRows.add(row);
+            }
+        }
+
+        Map<Long, String> authorNames = bookBatchRepository
+                .findAuthorNamesByIds(validRows.stream().map(row -> row.book().getAuthorId()).distinct().toList());
+        Set<String> existingIsbns = bookBatchRepository.findExistingIsbns(batchIsbns);
+        List<ParsedRow> insertedRows = new ArrayList<>(validRows.size());
+        for (ParsedRow row : validRows) {
+            String authorName = authorNames.get(row.book().getAuthorId());
+            if (authorName == null) {
+                report.fail(row, String.format("Author not found for the given ID: %s", row.book().getAuthorId()));
+            } else if (existingIsbns.contains(row.book().getIsbn())) {
+                report.fail(row, "Book with ISBN already exists");
+            } else {
+                row.book().setAuthorName(authorName);
+                insertedRows.add(row);
+            }
+        }
+        if (insertedRows.isEmpty()) {
+            return;
+        }
+
+        List<BookDto> books = insertedRows.stream().map(ParsedRow::book).toList();
+        try {
+            transaction.executeWithoutResult(status -> bookBatchRepository.insertBooks(books));
+        } catch (DataAccessException ex) {
+            log.warn("Unable to insert a batch of {} books", books.size(), ex);
+            insertedRows.forEach(row -> report.fail(row, "Batch rejected by the database, retry the row"));
+            return;
+        }
+
+        isbnFilter.addAll(books.stream().map(BookDto::getIsbn).toList());
+        catalogIndex.indexAll(books);
+        report.imported += books.size();
+    }
+
+    private ParsedRow parse(Row row, Function<String, BookDto> parser) {
+        BookDto book;
+        try {
+            book = parser.apply(row.line());
+        } catch (IllegalArgumentException ex) {
+            return new ParsedRow(row.number(), null, ex.getMessage());
+        }
+
+        if (book.getIsbn() == null || book.getIsbn().isBlank()) {
+            return new ParsedRow(row.number(), book, "ISBN cannot be null");
+        }
+        book.setIsbn(Isbns.normalize(book.getIsbn()));
+        if (!Isbns.isValid(book.getIsbn())) {
+            return new ParsedRow(row.number(), book, "ISBN must be a valid ISBN-10 or ISBN-13");
+        }
+        if (book.getTitle() == null || book.getTitle().isBlank()) {
+            return new ParsedRow(row.number(), book, "Title cannot be null");
+        }
+        if (book.getTitle().length() > MAXIMUM_TITLE_LENGTH) {
+            return new ParsedRow(row.number(), book,
+                    String.format("Title must be at most %d characters", MAXIMUM_TITLE_LENGTH));
+        }
+        if (book.getAuthorId() <= 0) {
+            return new ParsedRow(row.number(), book, "Author ID must be positive");
+        }
+        return new ParsedRow(row.number(), book, null);
+    }
+
+    private record Row(long number, String line) {
+    }
+
+    private record ParsedRow(long line, BookDto book, String error) {
+    }
+
+    private static final class Report {
+
+        private final int maximumErrors;
+        private final List<BookImportErrorDto> errors = new ArrayList<>();
+        private long lines;
+        private long read;
+        private long imported;
+        private long failed;
+
+        Report(int maximumErrors) {
+            this.maximumErrors = maximumErrors;
+        }
+
+        void fail(ParsedRow row, String message) {
+            failed++;
+            if (errors.size() < maximumErrors) {
+                errors.add(new BookImportErrorDto(row.line(), row.book() != null ? row.book().getIsbn() : null,
+                        message));
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.bulk;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.example.demo.dao.BookBatchRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Purges soft deleted books and their reviews in the background.
+ * <p>
+ * Reviews are removed in batches of {@code store.bulk.purge-batch-size}, each statement in its own short transaction,
+ * so purging a book with many reviews neither holds its locks nor builds up one large transaction. The book row goes
+ * last. Books whose purge was interrupted or failed are found again every {@code store.bulk.purge-interval}.
+ */
+@Slf4j
+@Service
+public class BookPurger implements DisposableBean {
+
+    private static final int MAXIMUM_BOOKS_PER_CHECK = 100;
+
+    private final BookBatchRepository bookBatchRepository;
+    private final BulkProperties properties;
+    private final ExecutorService executor;
+    private final Set<String> pendingIsbns = ConcurrentHashMap.newKeySet();
+
+    public BookPurger(BookBatchRepository bookBatchRepository, BulkProperties properties) {
+        this.bookBatchRepository = bookBatchRepository;
+        this.properties = properties;
+        this.executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("book-purge-"));
+    }
+
+    /**
+     * Queues the purge of a soft deleted book, unless it is queued already.
+     */
+    public void purgeLater(String isbn) {
+        if (!pendingIsbns.add(isbn)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    purge(isbn);
+                } catch (DataAccessException ex) {
+                    log.warn("Purging book '{}' failed, retrying within {}", isbn, properties.getPurgeInterval(), ex);
+                } finally {
+                    pendingIsbns.remove(isbn);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // Shutting down, the next start picks the book up again
+            pendingIsbns.remove(isbn);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${store.bulk.purge-interval:PT1M}",
+            fixedDelayString = "${store.bulk.purge-interval:PT1M}")
+    public void purgeDeletedBooks() {
+        bookBatchRepository.findSoftDeletedIsbns(MAXIMUM_BOOKS_PER_CHECK).forEach(this::purgeLater);
+    }
+
+    void purge(String isbn) {
+        long start = System.nanoTime();
+        long reviews = 0;
+        int deleted;
+        do {
+            deleted = bookBatchRepository.deleteReviews(isbn, properties.getPurgeBatchSize());
+            reviews += deleted;
+        } while (deleted == properties.getPurgeBatchSize());
+
+        if (bookBatchRepository.deleteSoftDeletedBook(isbn)) {
+            log.info("Purged book '{}' and {} reviews in {} ms", isbn, reviews,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.bulk;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(BulkProperties.class)
+public class BulkConfig {
+
+    @Bean
+    public WebMvcConfigurer exportTimeoutConfigurer(BulkProperties bulkProperties) {
+        return new WebMvcConfigurer() {
+
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.registerCallableInterceptors(new ExportTimeoutInterceptor(bulkProperties));
+            }
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.bulk;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "store.bulk")
+public class BulkProperties {
+
+    /**
+     * Rows validated, looked up and inserted together, each batch in its own transaction.
+     */
+    private int importBatchSize = 1000;
+    /**
+     * Row errors listed in an import report, further errors are only counted.
+     */
+    private int importMaximumReportedErrors = 1000;
+    /**
+     * Rows the database sends per round trip while a catalog or review export reads through its cursor, which bounds
+     * the memory an export uses regardless of the catalog size.
+     */
+    private int exportFetchSize = 1000;
+    /**
+     * Time a catalog or review export may stream before its response is aborted. Exports stream for as long as the
+     * catalog takes to read, so they do not use {@code spring.mvc.async.request-timeout}.
+     */
+    private Duration exportTimeout = Duration.ofHours(1);
+    /**
+     * Whether deleting a book only marks it as deleted, which hides it at once, and purges the book and its reviews in
+     * the background. Otherwise the delete removes them before it returns.
+     */
+    private boolean softDelete = false;
+    /**
+     * Reviews removed per statement, each in its own short transaction, while a soft deleted book is purged.
+     */
+    private int purgeBatchSize = 10_000;
+    /**
+     * How often soft deleted books whose purge was interrupted, for example by a restart, are looked for.
+     */
+    private Duration purgeInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,125 @@
+package com.example.demo.bulk;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.example.demo.dao.CatalogExportRepository;
+import com.example.demo.exception.OnlineBookStoreException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exports all books, with their author, or all reviews as CSV or NDJSON.
+ * <p>
+ * Rows are read through a database cursor and each row is written to the response as soon as it is read, so an export
+ * holds one fetch of rows and one write buffer at a time whatever the size of the catalog. The CSV columns match the
+ * import, so an exported catalog can be imported again.
+ */
+@Slf4j
+@Service
+public class CatalogExporter {
+
+    private final CatalogExportRepository catalogExportRepository;
+    private final ObjectMapper objectMapper;
+    private final BulkProperties properties;
+
+    public CatalogExporter(CatalogExportRepository catalogExportRepository, ObjectMapper objectMapper,
+            BulkProperties properties) {
+        this.catalogExportRepository = catalogExportRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * @return the content type of the export in the given format, {@code csv} or {@code ndjson}
+     */
+    public String contentType(String format) {
+        String name = format == null ? "" : format.trim().toLowerCase(Locale.ROOT);
+        if ("csv".equals(name)) {
+            return BookImporter.CSV;
+        }
+        if ("ndjson".equals(name)) {
+            return BookImporter.NDJSON;
+        }
+        throw new OnlineBookStoreException(
+                String.format("Invalid format '%s'. Allowed formats are ndjson,csv", format), HttpStatus.BAD_REQUEST);
+    }
+
+    public void exportBooks(OutputStream output, String format) {
+        log.info("Entering exportBooks()");
+        boolean csv = BookImporter.CSV.equals(contentType(format));
+        export(output, "books", csv ? "isbn,title,authorId,authorName\n" : null, writer -> catalogExportRepository
+                .forEachBook(properties.getExportFetchSize(), book -> writer.accept(csv
+                        ? csvLine(book.getIsbn(), book.getTitle(), book.getAuthorId(), book.getAuthorName())
+                        : jsonLine(book))));
+        log.info("Leaving exportBooks()");
+    }
+
+    public void exportReviews(OutputStream output, String format) {
+        log.info("Entering exportReviews()");
+        boolean csv = BookImporter.CSV.equals(contentType(format));
+        export(output, "reviews", csv ? "id,reviewerName,content,bookIsbn\n" : null, writer -> catalogExportRepository
+                .forEachReview(properties.getExportFetchSize(), review -> writer.accept(csv
+                        ? csvLine(review.getId(), review.getReviewerName(), review.getContent(), review.getBookIsbn())
+                        : jsonLine(review))));
+        log.info("Leaving exportReviews()");
+    }
+
+    private void export(OutputStream output, String name, String header, Export export) {
+        long start = System.nanoTime();
+        long[] rows = new long[1];
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 1 << 16);
+        try {
+            if (header != null) {
+                writer.write(header);
+            }
+            export.run(line -> {
+                try {
+                    writer.write(line);
+                    rows[0]++;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            writer.flush();
+        } catch (IOException | UncheckedIOException ex) {
+            log.warn("Export of {} aborted after {} rows, the client went away", name, rows[0]);
+            return;
+        }
+        log.info("Exported {} {} in {} ms", rows[0], name,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static String csvLine(Object... fields) {
+        StringBuilder line = new StringBuilder(128);
+        CsvLine.join(line, fields);
+        return line.toString();
+    }
+
+    private String jsonLine(Object row) {
+        try {
+            return objectMapper.writeValueAsString(row) + "\n";
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Export {
+
+        void run(Consumer<String> writer);
+    }
+}
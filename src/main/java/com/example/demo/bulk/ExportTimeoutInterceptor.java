@@ -0,0 +1,49 @@
+package com.example.demo.bulk;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Gives streaming responses, the catalog and review exports, their own async timeout
+ * ({@code store.bulk.export-timeout}), as they stream for as long as the catalog takes to read. Every other async
+ * request keeps {@code spring.mvc.async.request-timeout}.
+ */
+class ExportTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    private final BulkProperties properties;
+
+    ExportTimeoutInterceptor(BulkProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        // Runs before the async processing starts, while its timeout can still be changed
+        if (request instanceof AsyncWebRequest asyncWebRequest && isStreaming(request)) {
+            asyncWebRequest.setTimeout(properties.getExportTimeout().toMillis());
+        }
+    }
+
+    private static boolean isStreaming(NativeWebRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return false;
+        }
+        MethodParameter returnType = handlerMethod.getReturnType();
+        Class<?> bodyType = ResponseEntity.class.isAssignableFrom(returnType.getParameterType())
+                ? ResolvableType.forMethodParameter(returnType).resolveGeneric(0)
+                : returnType.getParameterType();
+        return bodyType != null && StreamingResponseBody.class.isAssignableFrom(bodyType);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.bulk;
+
+/**
+ * ISBN normalization and check digit validation.
+ */
+final class Isbns {
+
+    private Isbns() {
+    }
+
+    /**
+     * Removes the hyphens and spaces publishers format ISBNs with, e.g. {@code 978-3-16-148410-0}.
+     */
+    static String normalize(String isbn) {
+        return isbn.replace("-", "").replace(" ", "").toUpperCase();
+    }
+
+    /**
+     * Whether the normalized ISBN-10 or ISBN-13 has a valid check digit.
+     */
+    static boolean isValid(String isbn) {
+        if (isbn.length() == 10) {
+            int sum = 0;
+            for (int i = 0; i < 10; i++) {
+                char digit = isbn.charAt(i);
+                int value = i == 9 && digit == 'X' ? 10 : Character.digit(digit, 10);
+                if (value < 0) {
+                    return false;
+                }
+                sum += (10 - i) * value;
+            }
+            return sum % 11 == 0;
+        }
+        if (isbn.length() == 13) {
+            int sum = 0;
+            for (int i = 0; i < 13; i++) {
+                int value = Character.digit(isbn.charAt(i), 10);
+                if (value < 0) {
+                    return false;
+                }
+                sum += i % 2 == 0 ? value : 3 * value;
+            }
+            return sum % 10 == 0;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reverse index from an author id to the ISBNs of the cached {@code book} entries that embed the author's name.
+ * <p>
+ * The index is a Redis set per author, extended whenever a book entry is cached and kept alive for as long as the
+ * entries it points to. When an author changes, exactly the affected book entries are evicted in one batch instead of
+ * waiting for their time to live or flushing the whole cache.
+ * <p>
+ * A book load that read the old name just before the change may register and write its entry after the entries were
+ * evicted. The set is therefore kept and evicted a second time after a delay
+ * ({@code store.cache.author-books.second-eviction-delay}), which removes such entries as long as their load took
+ * less than the delay.
+ */
+@Slf4j
+@Component
+public class AuthorBookIndex {
+
+    static final String BOOK_CACHE_NAME = "book";
+    static final String KEY_PREFIX = "author-books::";
+
+    private static final RedisScript<Long> ADD_SCRIPT = RedisScript.of("""
+            redis.call('SADD', KEYS[1], ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TAKE_SCRIPT = RedisScript.of("""
+            local isbns = redis.call('SMEMBERS', KEYS[1])
+            redis.call('DEL', KEYS[1])
+            return isbns
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheManager cacheManager;
+    private final CachePolicy bookPolicy;
+    private final CacheCircuitBreaker circuitBreaker;
+    private final TaskScheduler taskScheduler;
+    private final Duration secondEvictionDelay;
+
+    public AuthorBookIndex(StringRedisTemplate redisTemplate, CacheManager cacheManager,
+            CachePolicies cachePolicies, CacheCircuitBreaker circuitBreaker, TaskScheduler taskScheduler,
+            StoreCacheProperties storeCacheProperties) {
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.bookPolicy = cachePolicies.forCache(BOOK_CACHE_NAME);
+        this.circuitBreaker = circuitBreaker;
+        this.taskScheduler = taskScheduler;
+        this.secondEvictionDelay = storeCacheProperties.getAuthorBooks().getSecondEvictionDelay();
+    }
+
+    /**
+     * Records that the cached entry of the book depends on the author. Called before the entry is written, so the
+     * index never misses an entry that is in the cache.
+     */
+    public void register(long authorId, String isbn) {
+        circuitBreaker.execute(() -> redisTemplate.execute(ADD_SCRIPT, List.of(key(authorId)),
+                String.valueOf(bookPolicy.getStoreTimeToLive().toMillis()), isbn),
+                () -> log.warn("Unable to index book '{}' under author {}", isbn, authorId));
+    }
+
+    /**
+     * Evicts every cached book entry of the author from both tiers on all nodes and returns the evicted ISBNs, then
+     * schedules the second eviction. While Redis is unreachable the affected entries are unknown, so the whole
+     * {@code book} cache is cleared instead.
+     */
+    public List<String> evictBooksOf(long authorId) {
+        Set<String> members = circuitBreaker.execute(() -> redisTemplate.opsForSet().members(key(authorId)),
+                () -> null);
+        taskScheduler.schedule(() -> evictBooksAgain(authorId), Instant.now().plus(secondEvictionDelay));
+        return evict(authorId, members == null ? null : List.copyOf(members));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evictBooksAgain(long authorId) {
+        evict(authorId, circuitBreaker.execute(() -> redisTemplate.execute(TAKE_SCRIPT, List.of(key(authorId))),
+                () -> null));
+    }
+
+    private List<String> evict(long authorId, List<String> isbns) {
+        if (isbns == null) {
+            cacheManager.getCache(BOOK_CACHE_NAME).clear();
+            return List.of();
+        }
+        if (isbns.isEmpty()) {
+            return List.of();
+        }
+
+        Cache bookCache = cacheManager.getCache(BOOK_CACHE_NAME);
+        if (bookCache instanceof TwoTierCache twoTierCache) {
+            twoTierCache.evictAll(isbns);
+        } else {
+            isbns.forEach(bookCache::evict);
+        }
+        log.info("Evicted {} cached book(s) of author {}", isbns.size(), authorId);
+        return isbns;
+    }
+
+    private static String key(long authorId) {
+        return KEY_PREFIX + authorId;
+    }
+}
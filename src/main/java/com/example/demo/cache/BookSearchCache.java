@@ -0,0 +1,69 @@
+package com.example.demo.cache;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import com.example.demo.dto.BookDto;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Caches {@code GET /api/books} result pages under a normalized fingerprint of the filter parameters and the
+ * {@link Pageable}, scoped by the current {@link CatalogVersion}.
+ */
+@Component
+public class BookSearchCache {
+
+    static final String CACHE_NAME = "book-search";
+    private static final Set<String> PAGING_PARAMETERS = Set.of("page-no", "page-size", "sort");
+
+    private final Cache cache;
+    private final CatalogVersion catalogVersion;
+
+    public BookSearchCache(CacheManager cacheManager, CatalogVersion catalogVersion) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.catalogVersion = catalogVersion;
+    }
+
+    public Page<BookDto> get(MultiValueMap<String, String> searchOrFilterParameters, Pageable pageable,
+            Supplier<Page<BookDto>> loader) {
+        String key = fingerprint(searchOrFilterParameters, pageable);
+        BookSearchResult result = cache.get(key, () -> {
+            Page<BookDto> page = loader.get();
+            return new BookSearchResult(page.getContent(), page.getTotalElements());
+        });
+        return new PageImpl<>(result.content(), pageable, result.totalElements());
+    }
+
+    public void invalidateAll() {
+        catalogVersion.bump();
+    }
+
+    String fingerprint(MultiValueMap<String, String> searchOrFilterParameters, Pageable pageable) {
+        Map<String, String> filters = new TreeMap<>();
+        searchOrFilterParameters.forEach((name, values) -> {
+            if (!PAGING_PARAMETERS.contains(name) && values != null && !values.isEmpty() && values.get(0) != null
+                    && !values.get(0).isBlank()) {
+                filters.put(name, values.get(0).trim().toLowerCase());
+            }
+        });
+
+        StringJoiner key = new StringJoiner("|");
+        key.add("v" + catalogVersion.current());
+        filters.forEach((name, value) -> key.add(name + "=" + value));
+        if (pageable.isPaged()) {
+            key.add("p" + pageable.getPageNumber()).add("s" + pageable.getPageSize());
+        }
+
+        pageable.getSort().forEach(order -> key.add(order.getProperty() + "," + order.getDirection()));
+        return key.toString();
+    }
+}
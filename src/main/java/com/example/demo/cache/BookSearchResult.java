@@ -0,0 +1,16 @@
+package com.example.demo.cache;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+import com.example.demo.dto.BookDto;
+
+/**
+ * Cached form of a search page: just the content and the total, the {@code Pageable} is part of the key.
+ */
+public record BookSearchResult(List<BookDto> content, long totalElements) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+}
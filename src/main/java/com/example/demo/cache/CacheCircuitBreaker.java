@@ -0,0 +1,142 @@
+package com.example.demo.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DataAccessException;
+
+import lombok.extern.slf4j.Slf4j;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Circuit breaker around the Redis calls of the cache layer.
+ * <p>
+ * After a number of consecutive failures the breaker opens and Redis is bypassed, so requests fall back to the local
+ * tier or the database right away instead of each waiting for a timeout. Once the open duration has passed a single
+ * probe call is let through (half-open); it closes the breaker if it succeeds and reopens it otherwise. Recovery
+ * listeners run when the breaker closes, for example to replay evictions that could not reach Redis.
+ */
+@Slf4j
+public class CacheCircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder shortCircuitedCalls = new LongAdder();
+    private final List<Runnable> recoveryListeners = new CopyOnWriteArrayList<>();
+    private volatile long openedAt;
+
+    public CacheCircuitBreaker(StoreCacheProperties.CircuitBreaker properties, MeterRegistry meterRegistry) {
+        this.failureThreshold = properties.getFailureThreshold();
+        this.openMillis = properties.getOpenDuration().toMillis();
+        Gauge.builder("store.cache.circuit.state", state, current -> current.get().ordinal())
+                .description("State of the Redis circuit breaker: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+        FunctionCounter.builder("store.cache.circuit.short.circuited", shortCircuitedCalls, LongAdder::sum)
+                .description("Redis calls skipped while the circuit breaker was open").register(meterRegistry);
+    }
+
+    /**
+     * Runs the Redis call unless the breaker is open. Redis failures ({@link DataAccessException}s) are counted and
+     * answered by the fallback, other exceptions propagate. A probe that fails with any exception reopens the breaker,
+     * which would otherwise stay half-open and refuse every call.
+     */
+    public <T> T execute(Supplier<T> redisCall, Supplier<T> fallback) {
+        if (!tryAcquire()) {
+            shortCircuitedCalls.increment();
+            return fallback.get();
+        }
+
+        T result;
+        try {
+            result = redisCall.get();
+        } catch (DataAccessException ex) {
+            onFailure(ex);
+            return fallback.get();
+        } catch (RuntimeException ex) {
+            reopenAfterProbe(ex);
+            throw ex;
+        }
+        onSuccess();
+        return result;
+    }
+
+    public void execute(Runnable redisCall, Runnable fallback) {
+        execute(() -> {
+            redisCall.run();
+            return null;
+        }, () -> {
+            fallback.run();
+            return null;
+        });
+    }
+
+    public void addRecoveryListener(Runnable recoveryListener) {
+        recoveryListeners.add(recoveryListener);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    private boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+
+        return current == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN);
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            log.info("Redis is reachable again, closing the cache circuit breaker");
+            recoveryListeners.forEach(CacheCircuitBreaker::runRecoveryListener);
+        }
+    }
+
+    private void onFailure(DataAccessException ex) {
+        if (reopenAfterProbe(ex)) {
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold
+                && state.compareAndSet(State.CLOSED, State.OPEN)) {
+            openedAt = System.currentTimeMillis();
+            log.warn("Opening the cache circuit breaker after {} consecutive Redis failures", failureThreshold, ex);
+        } else {
+            log.debug("Redis call failed, serving the request without the cache", ex);
+        }
+    }
+
+    private boolean reopenAfterProbe(RuntimeException ex) {
+        if (!state.compareAndSet(State.HALF_OPEN, State.OPEN)) {
+            return false;
+        }
+
+        openedAt = System.currentTimeMillis();
+        log.warn("Redis probe failed, keeping the cache circuit breaker open: {}", ex.getMessage());
+        return true;
+    }
+
+    private static void runRecoveryListener(Runnable recoveryListener) {
+        try {
+            recoveryListener.run();
+        } catch (RuntimeException ex) {
+            log.warn("Cache recovery after the Redis outage failed", ex);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.cache;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties({ CacheProperties.class, StoreCacheProperties.class })
+public class CacheConfig implements CachingConfigurer {
+
+    /**
+     * Cache failures that get past the circuit breaker are logged and the cached method is invoked directly, so a
+     * broken cache never fails a request.
+     */
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new LoggingCacheErrorHandler();
+    }
+
+    @Bean
+    public CacheCircuitBreaker cacheCircuitBreaker(StoreCacheProperties storeCacheProperties,
+            MeterRegistry meterRegistry) {
+        return new CacheCircuitBreaker(storeCacheProperties.getCircuitBreaker(), meterRegistry);
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(RedisTemplate<Object, Object> redisTemplate,
+            StoreCacheProperties storeCacheProperties, CacheCircuitBreaker cacheCircuitBreaker) {
+        return new CacheInvalidationBus(redisTemplate, storeCacheProperties.getInvalidation().getChannel(),
+                cacheCircuitBreaker, storeCacheProperties.getCircuitBreaker().getMaximumPendingEvictions());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+            CacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(cacheInvalidationBus.getChannel()));
+        return container;
+    }
+
+    @Bean
+    public SingleFlightLoader singleFlightLoader(StringRedisTemplate stringRedisTemplate,
+            StoreCacheProperties storeCacheProperties) {
+        return new SingleFlightLoader(stringRedisTemplate, storeCacheProperties.getSingleFlight());
+    }
+
+    @Bean
+    public CacheRefresher cacheRefresher(StoreCacheProperties storeCacheProperties) {
+        return new CacheRefresher(storeCacheProperties.getRefresh());
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, StringRedisTemplate stringRedisTemplate,
+            CacheProperties cacheProperties, StoreCacheProperties storeCacheProperties,
+            CacheInvalidationBus cacheInvalidationBus, CacheSerializers cacheSerializers,
+            SingleFlightLoader singleFlightLoader, CachePolicies cachePolicies, CacheRefresher cacheRefresher,
+            HotKeyTracker hotKeyTracker, CacheCircuitBreaker cacheCircuitBreaker, MeterRegistry meterRegistry) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig();
+        if (cacheProperties.getRedis().getTimeToLive() != null) {
+            defaults = defaults.entryTtl(cacheProperties.getRedis().getTimeToLive());
+        }
+
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(defaults);
+        Set<String> cacheNames = new LinkedHashSet<>(storeCacheProperties.getSerialization().getCompactCaches());
+        cacheNames.addAll(cachePolicies.getConfiguredCacheNames());
+        for (String cacheName : cacheNames) {
+            SerializationPair<Object> valueSerialization =
+                    SerializationPair.fromSerializer(cacheSerializers.forCache(cacheName));
+            builder.withCacheConfiguration(cacheName, defaults.serializeValuesWith(valueSerialization)
+                    .entryTtl(cachePolicies.forCache(cacheName).getStoreTimeToLive()));
+        }
+
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
+        return new TwoTierCacheManager(redisCacheManager, stringRedisTemplate, cacheInvalidationBus,
+                singleFlightLoader, cachePolicies, cacheRefresher, hotKeyTracker, cacheCircuitBreaker,
+                storeCacheProperties, meterRegistry);
+    }
+}
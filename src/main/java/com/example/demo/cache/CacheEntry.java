@@ -0,0 +1,18 @@
+package com.example.demo.cache;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * A cached value together with the time it was loaded, which the {@link CachePolicy} needs to tell fresh, due for
+ * refresh and stale entries apart.
+ */
+public record CacheEntry(Object value, long writtenAt) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    static CacheEntry of(Object value) {
+        return new CacheEntry(value, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.cache;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Propagates cache changes between nodes so that their in-process tiers never outlive a write made elsewhere.
+ * <p>
+ * Messages are published through the {@link CacheCircuitBreaker}. While it is open they are kept and published once
+ * Redis is back, so a write does not wait for the Redis timeout once per message. Beyond the capacity for pending
+ * evictions they are dropped, and the local entries of other nodes are left to expire.
+ */
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RedisTemplate<Object, Object> redisTemplate;
+    private final String channel;
+    private final JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer();
+    private final Map<String, Consumer<Object>> localEvictors = new ConcurrentHashMap<>();
+    private final CacheCircuitBreaker circuitBreaker;
+    private final PendingEvictions unpublishedInvalidations;
+
+    public CacheInvalidationBus(RedisTemplate<Object, Object> redisTemplate, String channel,
+            CacheCircuitBreaker circuitBreaker, int maximumPendingInvalidations) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.circuitBreaker = circuitBreaker;
+        this.unpublishedInvalidations = new PendingEvictions(maximumPendingInvalidations);
+        circuitBreaker.addRecoveryListener(() -> unpublishedInvalidations.replay(
+                invalidation -> send((CacheInvalidationMessage) invalidation),
+                () -> log.warn("Too many invalidations were not published while Redis was unreachable, the local "
+                        + "caches of other nodes catch up as their entries expire")));
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void register(String cacheName, Consumer<Object> localEvictor) {
+        localEvictors.put(cacheName, localEvictor);
+    }
+
+    public void publish(String cacheName, Object key) {
+        CacheInvalidationMessage invalidation = new CacheInvalidationMessage(nodeId, cacheName, key);
+        try {
+            circuitBreaker.execute(() -> send(invalidation), () -> unpublishedInvalidations.add(invalidation));
+        } catch (RuntimeException ex) {
+            log.warn("Unable to publish invalidation for cache '{}' and key '{}'", cacheName, key, ex);
+        }
+    }
+
+    private void send(CacheInvalidationMessage invalidation) {
+        redisTemplate.convertAndSend(channel, invalidation);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!(serializer.deserialize(message.getBody()) instanceof CacheInvalidationMessage invalidation)
+                || nodeId.equals(invalidation.origin())) {
+            return;
+        }
+
+        Consumer<Object> localEvictor = localEvictors.get(invalidation.cacheName());
+        if (localEvictor != null) {
+            localEvictor.accept(invalidation.key());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.cache;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Broadcast over Redis pub/sub whenever a node changes a cache entry. A {@code null} key means the whole cache was
+ * cleared.
+ */
+public record CacheInvalidationMessage(String origin, String cacheName, Object key) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+}
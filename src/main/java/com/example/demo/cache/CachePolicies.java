@@ -0,0 +1,44 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the {@link CachePolicy} of each cache name from {@code store.cache.policies.*}.
+ */
+@Component
+public class CachePolicies {
+
+    private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    private final Map<String, StoreCacheProperties.Policy> configuredPolicies;
+    private final Duration defaultTimeToLive;
+    private final Map<String, CachePolicy> policies = new ConcurrentHashMap<>();
+
+    public CachePolicies(StoreCacheProperties storeCacheProperties, CacheProperties cacheProperties) {
+        this.configuredPolicies = storeCacheProperties.getPolicies();
+        Duration springTimeToLive = cacheProperties.getRedis().getTimeToLive();
+        this.defaultTimeToLive = springTimeToLive != null ? springTimeToLive : DEFAULT_TIME_TO_LIVE;
+    }
+
+    public CachePolicy forCache(String cacheName) {
+        return policies.computeIfAbsent(cacheName, name -> {
+            StoreCacheProperties.Policy policy = configuredPolicies.get(name);
+            if (policy == null) {
+                return new CachePolicy(defaultTimeToLive, 0, Duration.ZERO);
+            }
+
+            Duration timeToLive = policy.getTimeToLive() != null ? policy.getTimeToLive() : defaultTimeToLive;
+            return new CachePolicy(timeToLive, policy.getRefreshAheadRatio(), policy.getStaleGrace());
+        });
+    }
+
+    public Set<String> getConfiguredCacheNames() {
+        return configuredPolicies.keySet();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+
+/**
+ * Expiry policy of one cache: a time to live, an optional refresh-ahead point and an optional grace window during
+ * which an expired entry may still be served if reloading it fails.
+ */
+public class CachePolicy {
+
+    public enum EntryState {
+        FRESH, REFRESH_AHEAD, STALE, EXPIRED
+    }
+
+    private final long timeToLiveMillis;
+    private final long refreshAheadMillis;
+    private final long staleGraceMillis;
+
+    public CachePolicy(Duration timeToLive, double refreshAheadRatio, Duration staleGrace) {
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.refreshAheadMillis = refreshAheadRatio > 0 && refreshAheadRatio < 1
+                ? (long) (timeToLiveMillis * refreshAheadRatio)
+                : Long.MAX_VALUE;
+        this.staleGraceMillis = staleGrace != null ? staleGrace.toMillis() : 0;
+    }
+
+    public Duration getTimeToLive() {
+        return Duration.ofMillis(timeToLiveMillis);
+    }
+
+    /**
+     * @return how long Redis has to keep an entry, the time to live plus the stale grace window
+     */
+    public Duration getStoreTimeToLive() {
+        return Duration.ofMillis(timeToLiveMillis + staleGraceMillis);
+    }
+
+    public EntryState stateOf(long writtenAt) {
+        long age = System.currentTimeMillis() - writtenAt;
+        if (age >= timeToLiveMillis) {
+            return age < timeToLiveMillis + staleGraceMillis ? EntryState.STALE : EntryState.EXPIRED;
+        }
+
+        return age >= refreshAheadMillis ? EntryState.REFRESH_AHEAD : EntryState.FRESH;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.cache;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reloads cache entries in the background for refresh-ahead. At most one refresh per key is queued or running, and
+ * refreshes that do not fit into the bounded queue are dropped; the entry then simply expires as usual.
+ */
+@Slf4j
+public class CacheRefresher implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+
+    public CacheRefresher(StoreCacheProperties.Refresh properties) {
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), new CustomizableThreadFactory("cache-refresh-"));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void refresh(String refreshKey, Runnable refresh) {
+        if (!pendingKeys.add(refreshKey)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh.run();
+                } catch (RuntimeException ex) {
+                    log.warn("Background refresh of '{}' failed, the entry expires as usual", refreshKey, ex);
+                } finally {
+                    pendingKeys.remove(refreshKey);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pendingKeys.remove(refreshKey);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
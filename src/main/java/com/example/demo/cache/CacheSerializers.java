@@ -0,0 +1,59 @@
+package com.example.demo.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hands out the Redis value serializer of each cache name and reports the bytes written per entry.
+ */
+@Component
+public class CacheSerializers {
+
+    private final StoreCacheProperties.Serialization properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RedisSerializer<Object>> serializers = new ConcurrentHashMap<>();
+
+    public CacheSerializers(StoreCacheProperties storeCacheProperties, MeterRegistry meterRegistry) {
+        this.properties = storeCacheProperties.getSerialization();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public RedisSerializer<Object> forCache(String cacheName) {
+        return serializers.computeIfAbsent(cacheName, this::createSerializer);
+    }
+
+    private RedisSerializer<Object> createSerializer(String cacheName) {
+        if (!properties.getCompactCaches().contains(cacheName)) {
+            return new JdkSerializationRedisSerializer();
+        }
+
+        CompactDtoRedisSerializer serializer = new CompactDtoRedisSerializer(properties.getCompressionThreshold());
+        FunctionCounter.builder("store.cache.serialized.entries", serializer,
+                CompactDtoRedisSerializer::getEntriesWritten).tag("cache", cacheName).register(meterRegistry);
+        FunctionCounter.builder("store.cache.serialized.bytes", serializer, CompactDtoRedisSerializer::getBytesWritten)
+                .tag("cache", cacheName).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("store.cache.serialized.bytes.per.entry", serializer, CacheSerializers::bytesPerEntry)
+                .tag("cache", cacheName).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("store.cache.serialized.compression.ratio", serializer, CacheSerializers::compressionRatio)
+                .tag("cache", cacheName).register(meterRegistry);
+        return serializer;
+    }
+
+    private static double bytesPerEntry(CompactDtoRedisSerializer serializer) {
+        long entries = serializer.getEntriesWritten();
+        return entries == 0 ? 0.0 : (double) serializer.getBytesWritten() / entries;
+    }
+
+    private static double compressionRatio(CompactDtoRedisSerializer serializer) {
+        long uncompressed = serializer.getUncompressedBytesWritten();
+        return uncompressed == 0 ? 1.0 : (double) serializer.getBytesWritten() / uncompressed;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Global version of the book catalog, shared through Redis and mirrored locally.
+ * <p>
+ * Cached search pages embed the version in their key, so bumping it invalidates every cached page in O(1) without
+ * scanning keys; the orphaned entries simply expire.
+ */
+@Slf4j
+@Component
+public class CatalogVersion {
+
+    static final String VERSION_KEY = "catalog-version";
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheCircuitBreaker circuitBreaker;
+    private final AtomicLong localVersion = new AtomicLong();
+
+    public CatalogVersion(StringRedisTemplate redisTemplate, CacheInvalidationBus invalidationBus,
+            CacheCircuitBreaker circuitBreaker) {
+        this.redisTemplate = redisTemplate;
+        this.invalidationBus = invalidationBus;
+        this.circuitBreaker = circuitBreaker;
+        invalidationBus.register(VERSION_KEY, version -> advanceTo((Long) version));
+        circuitBreaker.addRecoveryListener(this::bump);
+        try {
+            String storedVersion = redisTemplate.opsForValue().get(VERSION_KEY);
+            if (storedVersion != null) {
+                advanceTo(Long.parseLong(storedVersion));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Unable to read the catalog version, starting from {}", localVersion.get(), ex);
+        }
+    }
+
+    public long current() {
+        return localVersion.get();
+    }
+
+    /**
+     * While Redis is unreachable only the local version advances; it is bumped globally once Redis is back, as other
+     * nodes have missed the change.
+     */
+    public void bump() {
+        Long version = circuitBreaker.execute(() -> redisTemplate.opsForValue().increment(VERSION_KEY), () -> null);
+        long newVersion = version != null ? version : localVersion.get() + 1;
+        advanceTo(newVersion);
+        invalidationBus.publish(VERSION_KEY, newVersion);
+    }
+
+    private void advanceTo(long version) {
+        localVersion.accumulateAndGet(version, Math::max);
+    }
+}
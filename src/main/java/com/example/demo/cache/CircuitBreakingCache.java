@@ -0,0 +1,118 @@
+package com.example.demo.cache;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+
+import org.springframework.cache.Cache;
+
+/**
+ * Routes every call to a Redis backed {@link Cache} through the {@link CacheCircuitBreaker}.
+ * <p>
+ * Failed or skipped reads are reported as misses. Failed or skipped writes are remembered and replayed as evictions
+ * once Redis is back, so that Redis never serves a value that was changed while it was unreachable.
+ */
+class CircuitBreakingCache implements VersionedCache {
+
+    private final Cache delegate;
+    private final CacheCircuitBreaker circuitBreaker;
+    private final PendingEvictions pendingEvictions;
+
+    CircuitBreakingCache(Cache delegate, CacheCircuitBreaker circuitBreaker, int maximumPendingEvictions) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.pendingEvictions = new PendingEvictions(maximumPendingEvictions);
+        circuitBreaker.addRecoveryListener(() -> pendingEvictions.replay(delegate::evict, delegate::clear));
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return circuitBreaker.execute(() -> delegate.get(key), () -> null);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return circuitBreaker.execute(() -> delegate.get(key, type), () -> null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper valueWrapper = get(key);
+        if (valueWrapper != null) {
+            return (T) valueWrapper.get();
+        }
+
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        circuitBreaker.execute(() -> delegate.put(key, value), () -> pendingEvictions.add(key));
+    }
+
+    /**
+     * Delegates to a {@link VersionedCache}, other caches take every write. While Redis is unreachable the write is
+     * remembered as usual and reported as written, the local tier then holds the only copy.
+     */
+    @Override
+    public boolean putIfNewer(Object key, Object value, long version) {
+        if (!(delegate instanceof VersionedCache versionedCache)) {
+            put(key, value);
+            return true;
+        }
+
+        return circuitBreaker.execute(() -> versionedCache.putIfNewer(key, value, version), () -> {
+            pendingEvictions.add(key);
+            return true;
+        });
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return circuitBreaker.execute(() -> delegate.putIfAbsent(key, value), () -> {
+            pendingEvictions.add(key);
+            return null;
+        });
+    }
+
+    @Override
+    public void evict(Object key) {
+        circuitBreaker.execute(() -> delegate.evict(key), () -> pendingEvictions.add(key));
+    }
+
+    /**
+     * Delegates to a {@link VersionedCache}, other caches evict key by key.
+     */
+    @Override
+    public void evictAll(Collection<?> keys) {
+        circuitBreaker.execute(() -> {
+            if (delegate instanceof VersionedCache versionedCache) {
+                versionedCache.evictAll(keys);
+            } else {
+                keys.forEach(delegate::evict);
+            }
+        }, () -> keys.forEach(pendingEvictions::add));
+    }
+
+    @Override
+    public void clear() {
+        circuitBreaker.execute(delegate::clear, pendingEvictions::addAll);
+    }
+}
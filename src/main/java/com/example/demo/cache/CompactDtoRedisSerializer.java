@@ -0,0 +1,325 @@
+package com.example.demo.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.example.demo.dto.AuthorDto;
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.ReviewDto;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Compact, schema-versioned binary encoding for the cached DTOs.
+ * <p>
+ * Layout: {@code MAGIC, FORMAT_VERSION, flags} followed by the (optionally deflated) payload. The payload is a type
+ * tag and the fields of that type, written as varints and length-prefixed UTF-8 strings. Types this serializer does
+ * not know are written with JDK serialization behind their own tag, and values that do not start with {@code MAGIC}
+ * (for example entries written before this serializer was enabled) are read with JDK serialization as well. Books and
+ * reviews carry their entity version since format version 2, values of format version 1 are read with version 0.
+ */
+public class CompactDtoRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xB5;
+    static final byte FORMAT_VERSION = 2;
+    private static final byte UNVERSIONED_FORMAT_VERSION = 1;
+
+    private static final int FLAG_DEFLATED = 1;
+
+    private static final byte TAG_NULL_VALUE = 0;
+    private static final byte TAG_BOOK = 1;
+    private static final byte TAG_AUTHOR = 2;
+    private static final byte TAG_REVIEW = 3;
+    private static final byte TAG_LIST = 4;
+    private static final byte TAG_BOOK_SEARCH_RESULT = 5;
+    private static final byte TAG_CACHE_ENTRY = 6;
+    private static final byte TAG_JDK = 127;
+
+    private final JdkSerializationRedisSerializer fallbackSerializer = new JdkSerializationRedisSerializer();
+    private final int compressionThreshold;
+
+    private final LongAdder entriesWritten = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder uncompressedBytesWritten = new LongAdder();
+
+    /**
+     * @param compressionThreshold payloads of at least this many bytes are deflated, a negative value disables
+     *        compression
+     */
+    public CompactDtoRedisSerializer(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        Output payload = new Output();
+        writeValue(payload, value);
+        byte[] body = payload.toByteArray();
+        uncompressedBytesWritten.add(body.length);
+        int flags = 0;
+        if (compressionThreshold >= 0 && body.length >= compressionThreshold) {
+            byte[] deflated = deflate(body);
+            if (deflated.length < body.length) {
+                body = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+
+        byte[] serialized = new byte[body.length + 3];
+        serialized[0] = MAGIC;
+        serialized[1] = FORMAT_VERSION;
+        serialized[2] = (byte) flags;
+        System.arraycopy(body, 0, serialized, 3, body.length);
+        entriesWritten.increment();
+        bytesWritten.add(serialized.length);
+        return serialized;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        if (bytes[0] != MAGIC) {
+            return fallbackSerializer.deserialize(bytes);
+        }
+
+        if (bytes.length < 3 || bytes[1] != FORMAT_VERSION && bytes[1] != UNVERSIONED_FORMAT_VERSION) {
+            throw new SerializationException(String.format("Unsupported cache value format version %d", bytes[1]));
+        }
+
+        byte[] body = new byte[bytes.length - 3];
+        System.arraycopy(bytes, 3, body, 0, body.length);
+        if ((bytes[2] & FLAG_DEFLATED) != 0) {
+            body = inflate(body);
+        }
+
+        return readValue(new Input(body, bytes[1] != UNVERSIONED_FORMAT_VERSION));
+    }
+
+    long getEntriesWritten() {
+        return entriesWritten.sum();
+    }
+
+    long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    long getUncompressedBytesWritten() {
+        return uncompressedBytesWritten.sum();
+    }
+
+    private void writeValue(Output out, Object value) {
+        if (value instanceof BookDto book) {
+            out.writeByte(TAG_BOOK);
+            out.writeString(book.getIsbn());
+            out.writeString(book.getTitle());
+            out.writeVarLong(book.getAuthorId());
+            out.writeString(book.getAuthorName());
+            out.writeVarLong(book.getVersion());
+        } else if (value instanceof AuthorDto author) {
+            out.writeByte(TAG_AUTHOR);
+            out.writeVarLong(author.getId());
+            out.writeString(author.getName());
+        } else if (value instanceof ReviewDto review) {
+            out.writeByte(TAG_REVIEW);
+            out.writeVarLong(review.getId());
+            out.writeString(review.getReviewerName());
+            out.writeString(review.getContent());
+            out.writeString(review.getBookIsbn());
+            out.writeVarLong(review.getVersion());
+        } else if (value instanceof List<?> list) {
+            out.writeByte(TAG_LIST);
+            out.writeVarLong(list.size());
+            list.forEach(element -> writeValue(out, element));
+        } else if (value instanceof BookSearchResult result) {
+            out.writeByte(TAG_BOOK_SEARCH_RESULT);
+            out.writeVarLong(result.totalElements());
+            writeValue(out, result.content());
+        } else if (value instanceof CacheEntry entry) {
+            out.writeByte(TAG_CACHE_ENTRY);
+            out.writeVarLong(entry.writtenAt());
+            writeValue(out, entry.value() != null ? entry.value() : NullValue.INSTANCE);
+        } else if (value instanceof NullValue) {
+            out.writeByte(TAG_NULL_VALUE);
+        } else {
+            out.writeByte(TAG_JDK);
+            out.writeLengthPrefixed(fallbackSerializer.serialize(value));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readValue(Input in) {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_BOOK:
+                return new BookDto(in.readString(), in.readString(), in.readVarLong(), in.readString(),
+                        in.readVersion());
+            case TAG_AUTHOR:
+                return new AuthorDto((int) in.readVarLong(), in.readString());
+            case TAG_REVIEW:
+                return new ReviewDto((int) in.readVarLong(), in.readString(), in.readString(), in.readString(),
+                        in.readVersion());
+            case TAG_LIST:
+                int size = (int) in.readVarLong();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            case TAG_BOOK_SEARCH_RESULT:
+                long totalElements = in.readVarLong();
+                return new BookSearchResult((List<BookDto>) readValue(in), totalElements);
+            case TAG_CACHE_ENTRY:
+                long writtenAt = in.readVarLong();
+                Object entryValue = readValue(in);
+                return new CacheEntry(entryValue instanceof NullValue ? null : entryValue, writtenAt);
+            case TAG_NULL_VALUE:
+                return NullValue.INSTANCE;
+            case TAG_JDK:
+                return fallbackSerializer.deserialize(in.readLengthPrefixed());
+            default:
+                throw new SerializationException(String.format("Unknown cache value type tag %d", tag));
+        }
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("Truncated compressed cache value");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException ex) {
+            throw new SerializationException("Corrupt compressed cache value", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+
+        Output() {
+            super(64);
+        }
+
+        void writeByte(int value) {
+            write(value);
+        }
+
+        void writeVarLong(long value) {
+            long zigZag = (value << 1) ^ (value >> 63);
+            while ((zigZag & ~0x7FL) != 0) {
+                write((int) ((zigZag & 0x7F) | 0x80));
+                zigZag >>>= 7;
+            }
+            write((int) zigZag);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            write(utf8, 0, utf8.length);
+        }
+
+        void writeLengthPrefixed(byte[] value) {
+            writeVarLong(value.length);
+            write(value, 0, value.length);
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buffer;
+        private final boolean versioned;
+        private int position;
+
+        Input(byte[] buffer, boolean versioned) {
+            this.buffer = buffer;
+            this.versioned = versioned;
+        }
+
+        byte readByte() {
+            if (position >= buffer.length) {
+                throw new SerializationException("Truncated cache value");
+            }
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long zigZag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                zigZag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigZag >>> 1) ^ -(zigZag & 1);
+                }
+            }
+            throw new SerializationException("Malformed varint in cache value");
+        }
+
+        long readVersion() {
+            return versioned ? readVarLong() : 0;
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            if (length == 0) {
+                return null;
+            }
+
+            String value = new String(buffer, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+
+        byte[] readLengthPrefixed() {
+            int length = (int) readVarLong();
+            byte[] value = new byte[length];
+            System.arraycopy(buffer, position, value, 0, length);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks the most requested keys of selected caches, shared by all nodes as one Redis sorted set per cache.
+ * <p>
+ * Requests are counted locally and flushed in one pipeline, so the hot path never waits for Redis. On every flush the
+ * shared ranking decays and is trimmed to the retained keys, which keeps it small and lets keys that are no longer
+ * requested fade out. The ranking drives the cache warm-up on startup.
+ */
+@Slf4j
+@Component
+public class HotKeyTracker {
+
+    static final String KEY_PREFIX = "hot-keys::";
+
+    private final StringRedisTemplate redisTemplate;
+    private final StoreCacheProperties.HotKeys properties;
+    private final Map<String, Map<String, LongAdder>> counts = new ConcurrentHashMap<>();
+
+    public HotKeyTracker(StringRedisTemplate redisTemplate, StoreCacheProperties storeCacheProperties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = storeCacheProperties.getHotKeys();
+    }
+
+    public void record(String cacheName, Object key) {
+        if (key == null || !properties.getCaches().contains(cacheName)) {
+            return;
+        }
+
+        Map<String, LongAdder> cacheCounts = counts.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+        String member = key.toString();
+        LongAdder count = cacheCounts.get(member);
+        if (count == null) {
+            if (cacheCounts.size() >= properties.getMaximumTrackedKeys()) {
+                return;
+            }
+            count = cacheCounts.computeIfAbsent(member, name -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    @Scheduled(initialDelayString = "${store.cache.hot-keys.flush-interval:PT1M}",
+            fixedDelayString = "${store.cache.hot-keys.flush-interval:PT1M}")
+    public void flush() {
+        for (String cacheName : Set.copyOf(counts.keySet())) {
+            Map<String, LongAdder> cacheCounts = counts.remove(cacheName);
+            if (cacheCounts == null || cacheCounts.isEmpty()) {
+                continue;
+            }
+
+            try {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    write(connection, key(cacheName).getBytes(StandardCharsets.UTF_8), cacheCounts);
+                    return null;
+                });
+            } catch (RuntimeException ex) {
+                log.warn("Unable to flush the request counts of cache '{}'", cacheName, ex);
+            }
+        }
+    }
+
+    /**
+     * @return the most requested keys of the cache, most requested first
+     */
+    public List<String> topKeys(String cacheName, int limit) {
+        Set<String> keys = redisTemplate.opsForZSet().reverseRange(key(cacheName), 0, limit - 1L);
+        return keys != null ? List.copyOf(keys) : List.of();
+    }
+
+    /**
+     * @return the most requested keys of the cache with their decayed request counts, most requested first
+     */
+    public Map<String, Double> topKeysWithScores(String cacheName, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> keys =
+                redisTemplate.opsForZSet().reverseRangeWithScores(key(cacheName), 0, limit - 1L);
+        Map<String, Double> scores = new LinkedHashMap<>();
+        if (keys != null) {
+            keys.forEach(key -> scores.put(key.getValue(), key.getScore()));
+        }
+        return scores;
+    }
+
+    private void write(RedisConnection connection, byte[] rankingKey, Map<String, LongAdder> cacheCounts) {
+        connection.zSetCommands().zUnionStore(rankingKey, Aggregate.SUM, Weights.of(properties.getDecay()),
+                rankingKey);
+        cacheCounts.forEach((member, count) -> connection.zSetCommands().zIncrBy(rankingKey, count.sum(),
+                member.getBytes(StandardCharsets.UTF_8)));
+        connection.zSetCommands().zRemRange(rankingKey, 0, -properties.getRetainedKeys() - 1L);
+    }
+
+    private static String key(String cacheName) {
+        return KEY_PREFIX + cacheName;
+    }
+}
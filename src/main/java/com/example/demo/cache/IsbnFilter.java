@@ -0,0 +1,272 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import com.example.demo.dao.BookRepository;
+import com.example.demo.datasource.ReadYourWrites;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory existence filter over all known ISBNs.
+ * <p>
+ * A negative answer is definite, so lookups for books that do not exist can be rejected without touching Postgres or
+ * Redis. Until the filter has been built every ISBN is reported as possibly present.
+ * <p>
+ * With {@code store.cache.isbn-filter.shared} other nodes learn about new ISBNs through pub/sub, which can lose
+ * messages. New ISBNs are therefore also recorded in a Redis sorted set for twice the rebuild interval, and a negative
+ * answer is checked against that set before it is trusted. The set covers everything added since the filter was
+ * built, so a missed message costs a Redis lookup rather than a false 404. While Redis is unreachable negative answers
+ * are not trusted at all. Additions that could not be recorded are replayed once Redis is back; when too many are
+ * pending, a marker makes every node distrust its negative answers until its next rebuild.
+ */
+@Slf4j
+@Component
+public class IsbnFilter {
+
+    static final String CHANNEL_NAME = "isbn-filter";
+    static final String RECENT_KEY = "isbn-filter:recent";
+    /**
+     * Member of the recent set recorded when additions were lost, scored with the time they were lost.
+     */
+    static final String LOST_ADDITIONS = "*";
+
+    private static final RedisScript<Long> RECORD_SCRIPT = RedisScript.of("""
+            for i = 3, #ARGV do
+                redis.call('ZADD', KEYS[1], ARGV[1], ARGV[i])
+            end
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[2])
+            return 1
+            """, Long.class);
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CacheInvalidationBus invalidationBus;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheCircuitBreaker circuitBreaker;
+    private final StoreCacheProperties.IsbnFilter properties;
+    private final Counter rejections;
+    private final PendingEvictions unrecordedIsbns;
+
+    private final AtomicLong indexedCount = new AtomicLong();
+    private final AtomicLong removedCount = new AtomicLong();
+    private volatile BloomFilter bloomFilter;
+    /**
+     * Start of the last rebuild, every ISBN committed before it is in the filter.
+     */
+    private volatile Instant lastBuilt = Instant.EPOCH;
+    private volatile boolean overCapacity;
+    private List<String> addedDuringRebuild;
+
+    public IsbnFilter(BookRepository bookRepository, PlatformTransactionManager transactionManager,
+            CacheInvalidationBus invalidationBus, StringRedisTemplate redisTemplate, CacheCircuitBreaker circuitBreaker,
+            StoreCacheProperties storeCacheProperties, MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.invalidationBus = invalidationBus;
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.properties = storeCacheProperties.getIsbnFilter();
+        this.rejections = Counter.builder("store.isbn-filter.rejections")
+                .description("Lookups answered as not found by the ISBN filter").register(meterRegistry);
+        if (properties.isShared()) {
+            invalidationBus.register(CHANNEL_NAME, isbns -> addLocal(isbns instanceof Collection<?> collection
+                    ? collection.stream().map(String.class::cast).toList()
+                    : List.of((String) isbns)));
+        }
+        this.unrecordedIsbns =
+                new PendingEvictions(storeCacheProperties.getCircuitBreaker().getMaximumPendingEvictions());
+        circuitBreaker.addRecoveryListener(() -> unrecordedIsbns.replay(
+                isbn -> recordRecent(List.of((String) isbn)),
+                () -> recordRecent(List.of(LOST_ADDITIONS))));
+    }
+
+    /**
+     * @return {@code false} only if no book with this ISBN exists
+     */
+    public boolean mightContain(String isbn) {
+        BloomFilter filter = bloomFilter;
+        if (filter == null || isbn == null || filter.mightContain(isbn)) {
+            return true;
+        }
+        if (properties.isShared() && mayHaveBeenAddedElsewhere(isbn)) {
+            return true;
+        }
+
+        rejections.increment();
+        return false;
+    }
+
+    public void add(String isbn) {
+        addLocal(List.of(isbn));
+        if (properties.isShared()) {
+            addShared(List.of(isbn));
+            invalidationBus.publish(CHANNEL_NAME, isbn);
+        }
+    }
+
+    /**
+     * Adds many ISBNs under one lock and with a single broadcast, used by bulk imports.
+     */
+    public void addAll(Collection<String> isbns) {
+        if (isbns.isEmpty()) {
+            return;
+        }
+
+        addLocal(isbns);
+        if (properties.isShared()) {
+            addShared(isbns);
+            invalidationBus.publish(CHANNEL_NAME, new ArrayList<>(isbns));
+        }
+    }
+
+    private void addShared(Collection<String> isbns) {
+        circuitBreaker.execute(() -> recordRecent(isbns), () -> isbns.forEach(unrecordedIsbns::add));
+    }
+
+    private void recordRecent(Collection<String> isbns) {
+        long now = System.currentTimeMillis();
+        List<String> arguments = new ArrayList<>(isbns.size() + 2);
+        arguments.add(Long.toString(now));
+        arguments.add(Long.toString(now - recentRetention().toMillis()));
+        arguments.addAll(isbns);
+        redisTemplate.execute(RECORD_SCRIPT, List.of(RECENT_KEY), arguments.toArray());
+    }
+
+    /**
+     * Checks a negative answer against the ISBNs recently added on any node. ISBNs found there are added to the local
+     * filter, so the next lookup is answered locally again.
+     */
+    private boolean mayHaveBeenAddedElsewhere(String isbn) {
+        Instant builtAt = lastBuilt;
+        if (Instant.now().isAfter(builtAt.plus(recentRetention()))) {
+            // Older additions have already left the recent set
+            return true;
+        }
+
+        List<Double> scores = circuitBreaker.execute(
+                () -> redisTemplate.opsForZSet().score(RECENT_KEY, isbn, LOST_ADDITIONS), () -> null);
+        if (scores == null || scores.size() < 2) {
+            return true;
+        }
+        if (scores.get(0) != null) {
+            addLocal(List.of(isbn));
+            return true;
+        }
+        return scores.get(1) != null && scores.get(1) >= builtAt.toEpochMilli();
+    }
+
+    private Duration recentRetention() {
+        return properties.getRebuildInterval().multipliedBy(2);
+    }
+
+    /**
+     * Bloom filters cannot forget, so removals are only counted and trigger a rebuild once they degrade the filter.
+     */
+    public void remove(String isbn) {
+        removedCount.incrementAndGet();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${store.cache.isbn-filter.check-interval:PT1M}",
+            fixedDelayString = "${store.cache.isbn-filter.check-interval:PT1M}")
+    public void rebuildIfDegraded() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        boolean tooManyRemovals = removedCount.get() > indexedCount.get() * properties.getMaximumRemovedRatio();
+        boolean outdated = Instant.now().isAfter(lastBuilt.plus(properties.getRebuildInterval()));
+        if (bloomFilter == null || overCapacity || tooManyRemovals || outdated) {
+            rebuild();
+        }
+    }
+
+    void rebuild() {
+        synchronized (this) {
+            if (addedDuringRebuild != null) {
+                return;
+            }
+            addedDuringRebuild = new ArrayList<>();
+        }
+
+        Instant started = Instant.now();
+        BloomFilter rebuiltFilter = null;
+        long count = 0;
+        try {
+            long capacity = Math.max(properties.getMinimumCapacity(),
+                    (long) (bookRepository.count() * properties.getGrowthFactor()));
+            rebuiltFilter = BloomFilter.create(capacity, properties.getFalsePositiveProbability());
+            BloomFilter filter = rebuiltFilter;
+            count = ReadYourWrites.fromPrimary(() -> readOnlyTransaction.execute(status -> {
+                long[] added = new long[1];
+                try (Stream<String> isbns = bookRepository.streamAllIsbns()) {
+                    isbns.forEach(isbn -> {
+                        filter.put(isbn);
+                        added[0]++;
+                    });
+                }
+                return added[0];
+            }));
+        } catch (RuntimeException ex) {
+            log.warn("Unable to rebuild the ISBN filter", ex);
+            rebuiltFilter = null;
+        } finally {
+            synchronized (this) {
+                if (rebuiltFilter != null) {
+                    addedDuringRebuild.forEach(rebuiltFilter::put);
+                    indexedCount.set(count + addedDuringRebuild.size());
+                    removedCount.set(0);
+                    overCapacity = false;
+                    lastBuilt = started;
+                    bloomFilter = rebuiltFilter;
+                    log.info("ISBN filter built with {} entries", indexedCount.get());
+                }
+                addedDuringRebuild = null;
+            }
+        }
+    }
+
+    /**
+     * A filter over capacity still has no false negatives, only more false positives, so it keeps answering until the
+     * next check rebuilds it for the grown catalog.
+     */
+    private synchronized void addLocal(Collection<String> isbns) {
+        BloomFilter filter = bloomFilter;
+        if (filter != null) {
+            isbns.forEach(filter::put);
+            if (indexedCount.addAndGet(isbns.size()) > filter.getExpectedInsertions() && !overCapacity) {
+                overCapacity = true;
+                log.info("ISBN filter is over capacity, rebuilding it with the next check");
+            }
+        }
+
+        if (addedDuringRebuild != null) {
+            addedDuringRebuild.addAll(isbns);
+        }
+    }
+}
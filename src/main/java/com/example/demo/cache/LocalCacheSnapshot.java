@@ -0,0 +1,136 @@
+package com.example.demo.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * On-disk snapshot of the local cache tier, written at shutdown and memory-mapped back on the next start.
+ * <p>
+ * Layout: {@code MAGIC, FORMAT_VERSION, createdAt} followed by one record per entry holding the cache name, the key
+ * and the {@link CacheEntry}, each length-prefixed and encoded with the {@link CompactDtoRedisSerializer}. Snapshots
+ * older than the configured maximum age are ignored, and restored entries keep their original load time, so the
+ * cache policies apply to them as if the node had never been down.
+ */
+@Slf4j
+@Component
+public class LocalCacheSnapshot implements DisposableBean {
+
+    private static final int MAGIC = 0x4C314353;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = 16;
+
+    private final CacheManager cacheManager;
+    private final StoreCacheProperties.Snapshot properties;
+    private final CompactDtoRedisSerializer serializer = new CompactDtoRedisSerializer(-1);
+
+    public LocalCacheSnapshot(CacheManager cacheManager, StoreCacheProperties storeCacheProperties) {
+        this.cacheManager = cacheManager;
+        this.properties = storeCacheProperties.getSnapshot();
+    }
+
+    /**
+     * @return the number of entries put into the local tier
+     */
+    public int restore() {
+        Path path = Path.of(properties.getPath());
+        if (!properties.isEnabled() || !(cacheManager instanceof TwoTierCacheManager twoTierCacheManager)
+                || !Files.isRegularFile(path)) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_LENGTH) {
+                return 0;
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.warn("Ignoring local cache snapshot '{}' of an unknown format", path);
+                return 0;
+            }
+
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - buffer.getLong());
+            if (age.compareTo(properties.getMaximumAge()) > 0) {
+                log.info("Ignoring local cache snapshot '{}' taken {} ago", path, age);
+                return 0;
+            }
+
+            int restored = 0;
+            while (buffer.hasRemaining()) {
+                String cacheName = new String(readLengthPrefixed(buffer), StandardCharsets.UTF_8);
+                Object key = serializer.deserialize(readLengthPrefixed(buffer));
+                Object entry = serializer.deserialize(readLengthPrefixed(buffer));
+                if (entry instanceof CacheEntry cacheEntry
+                        && twoTierCacheManager.getCache(cacheName) instanceof TwoTierCache cache
+                        && cache.restoreLocal(key, cacheEntry)) {
+                    restored++;
+                }
+            }
+            return restored;
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Unable to restore the local cache snapshot '{}'", path, ex);
+            return 0;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (properties.isEnabled() && cacheManager instanceof TwoTierCacheManager twoTierCacheManager) {
+            save(twoTierCacheManager);
+        }
+    }
+
+    private void save(TwoTierCacheManager twoTierCacheManager) {
+        Path path = Path.of(properties.getPath()).toAbsolutePath();
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        int saved = 0;
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                for (TwoTierCache cache : twoTierCacheManager.getCaches()) {
+                    byte[] cacheName = cache.getName().getBytes(StandardCharsets.UTF_8);
+                    for (Map.Entry<Object, CacheEntry> entry : cache.getLocalEntries().entrySet()) {
+                        writeLengthPrefixed(out, cacheName);
+                        writeLengthPrefixed(out, serializer.serialize(entry.getKey()));
+                        writeLengthPrefixed(out, serializer.serialize(entry.getValue()));
+                        saved++;
+                    }
+                }
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Saved {} local cache entries to '{}'", saved, path);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Unable to save the local cache snapshot '{}'", path, ex);
+        }
+    }
+
+    private static void writeLengthPrefixed(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static byte[] readLengthPrefixed(MappedByteBuffer buffer) {
+        byte[] value = new byte[buffer.getInt()];
+        buffer.get(value);
+        return value;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.cache;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keys whose Redis entry may be outdated because a write could not reach Redis. Replayed as evictions once Redis is
+ * back; when more keys are pending than the capacity allows, the whole cache is cleared instead.
+ */
+final class PendingEvictions {
+
+    private final int capacity;
+    private final Set<Object> keys = ConcurrentHashMap.newKeySet();
+    private volatile boolean all;
+
+    PendingEvictions(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(Object key) {
+        if (all) {
+            return;
+        }
+
+        if (keys.size() >= capacity) {
+            addAll();
+        } else {
+            keys.add(key);
+        }
+    }
+
+    void addAll() {
+        all = true;
+        keys.clear();
+    }
+
+    void replay(Consumer<Object> evict, Runnable clear) {
+        if (all) {
+            clear.run();
+            all = false;
+            return;
+        }
+
+        for (Object key : List.copyOf(keys)) {
+            evict.accept(key);
+            keys.remove(key);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.demo.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.example.demo.datasource.ReadYourWrites;
+import com.example.demo.dto.ReviewDto;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches the first page of the reviews of a book, oldest first, as one Redis hash per ISBN keyed by review id.
+ * <p>
+ * The hash holds up to one review more than the configured first page size, which tells whether a further page
+ * exists. Unlike a cached {@code List}, the hash can be patched in place when a review is submitted or modified, so a
+ * single write never forces the page to be re-queried and re-serialized. A marker field holding the load time
+ * distinguishes a cached empty page from a missing entry. Redis calls go through the {@link CacheCircuitBreaker};
+ * while it is open reviews are read from the database.
+ * <p>
+ * Each cached review is prefixed with its version and a {@code |}. The scripts compare the versions and keep a cached
+ * review that is newer than the one written, so a delayed write of an older version changes nothing.
+ * <p>
+ * Every patch and eviction increments a generation counter per ISBN, also while the page is not cached. A load reads
+ * the generation before it queries the database, and its page is only written if the generation is still the same.
+ * A review submitted while the page was loading is missing from the loaded page, so that page is dropped instead of
+ * hiding the review until it expires.
+ */
+@Slf4j
+@Component
+public class ReviewListCache {
+
+    static final String CACHE_NAME = "review";
+    static final String KEY_PREFIX = "review-list::";
+    static final String GENERATION_PREFIX = "review-list-generation::";
+    private static final byte[] LOADED_MARKER = "_loaded".getBytes(StandardCharsets.UTF_8);
+
+    private static final String VERSION_FUNCTION = """
+            local function version(value)
+                return tonumber(string.match(value, '^(%d+)|')) or -1
+            end
+            """;
+
+    static final RedisScript<Long> REPLACE_SCRIPT = RedisScript.of(VERSION_FUNCTION + """
+            if (tonumber(redis.call('GET', KEYS[2])) or 0) ~= tonumber(ARGV[2]) then
+                return 0
+            end
+            local newer = {}
+            for i = 3, #ARGV, 2 do
+                local current = redis.call('HGET', KEYS[1], ARGV[i])
+                if current and version(current) > version(ARGV[i + 1]) then
+                    newer[ARGV[i]] = current
+                end
+            end
+            redis.call('DEL', KEYS[1])
+            for i = 3, #ARGV, 2 do
+                redis.call('HSET', KEYS[1], ARGV[i], newer[ARGV[i]] or ARGV[i + 1])
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    static final RedisScript<Long> PATCH_SCRIPT = RedisScript.of(VERSION_FUNCTION + """
+            redis.call('INCR', KEYS[2])
+            redis.call('PEXPIRE', KEYS[2], ARGV[2])
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            local patched = 0
+            for i = 3, #ARGV, 2 do
+                local current = redis.call('HGET', KEYS[1], ARGV[i])
+                if current and version(current) <= version(ARGV[i + 1])
+                        or not current and redis.call('HLEN', KEYS[1]) <= tonumber(ARGV[1]) then
+                    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+                    patched = patched + 1
+                end
+            end
+            return patched
+            """, Long.class);
+
+    static final RedisScript<Long> EVICT_SCRIPT = RedisScript.of("""
+            redis.call('INCR', KEYS[2])
+            redis.call('PEXPIRE', KEYS[2], ARGV[1])
+            return redis.call('DEL', KEYS[1])
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisSerializer<Object> valueSerializer;
+    private final CachePolicy policy;
+    private final SingleFlightLoader singleFlightLoader;
+    private final CacheRefresher cacheRefresher;
+    private final HotKeyTracker hotKeyTracker;
+    private final CacheCircuitBreaker circuitBreaker;
+    private final PendingEvictions pendingEvictions;
+    private final int firstPageSize;
+
+    public ReviewListCache(StringRedisTemplate redisTemplate, CacheSerializers cacheSerializers,
+            CachePolicies cachePolicies, SingleFlightLoader singleFlightLoader, CacheRefresher cacheRefresher,
+            HotKeyTracker hotKeyTracker, CacheCircuitBreaker circuitBreaker,
+            StoreCacheProperties storeCacheProperties) {
+        this.redisTemplate = redisTemplate;
+        this.valueSerializer = cacheSerializers.forCache(CACHE_NAME);
+        this.policy = cachePolicies.forCache(CACHE_NAME);
+        this.singleFlightLoader = singleFlightLoader;
+        this.cacheRefresher = cacheRefresher;
+        this.hotKeyTracker = hotKeyTracker;
+        this.circuitBreaker = circuitBreaker;
+        this.pendingEvictions =
+                new PendingEvictions(storeCacheProperties.getCircuitBreaker().getMaximumPendingEvictions());
+        this.firstPageSize = storeCacheProperties.getReviewList().getFirstPageSize();
+        circuitBreaker.addRecoveryListener(() -> pendingEvictions.replay(
+                isbn -> evictNow((String) isbn),
+                () -> redisTemplate.delete(redisTemplate.keys(KEY_PREFIX + "*"))));
+    }
+
+    public int getFirstPageSize() {
+        return firstPageSize;
+    }
+
+    /**
+     * Returns the cached first reviews of a book, loading and caching them on a miss. The loader is expected to return
+     * the oldest {@code getFirstPageSize() + 1} reviews. Concurrent misses for the same ISBN share one load. Pages past
+     * the refresh-ahead point of the {@code review} policy are reloaded in the background, and stale pages are served
+     * while reloading fails.
+     * <p>
+     * The loader reads from the primary, as a lagging replica could miss reviews that were just written. It must
+     * therefore be the first read of its transaction, which would otherwise stay on the connection it already has.
+     */
+    public List<ReviewDto> get(String isbn, Supplier<List<ReviewDto>> loader) {
+        String flightKey = key(isbn);
+        hotKeyTracker.record(CACHE_NAME, isbn);
+        CachedReviews cachedReviews = read(isbn);
+        if (cachedReviews != null) {
+            switch (policy.stateOf(cachedReviews.writtenAt())) {
+                case FRESH:
+                    return cachedReviews.reviews();
+                case REFRESH_AHEAD:
+                    cacheRefresher.refresh(flightKey, () -> load(isbn, loader));
+                    return cachedReviews.reviews();
+                default:
+                    break;
+            }
+        }
+
+        try {
+            return singleFlightLoader.load(flightKey, () -> readUnexpired(isbn), () -> load(isbn, loader));
+        } catch (RuntimeException ex) {
+            if (cachedReviews != null && policy.stateOf(cachedReviews.writtenAt()) == CachePolicy.EntryState.STALE) {
+                log.warn("Serving stale reviews for ISBN '{}' as reloading them failed", isbn, ex);
+                return cachedReviews.reviews();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Loads the reviews of many books at once and caches the first page of each, used to warm up the cache. Books the
+     * loader leaves out are not cached.
+     *
+     * @return the loaded reviews by ISBN
+     */
+    public Map<String, List<ReviewDto>> loadAll(Collection<String> isbns,
+            Function<Collection<String>, Map<String, List<ReviewDto>>> loader) {
+        List<String> isbnList = List.copyOf(isbns);
+        List<String> generations = circuitBreaker.execute(() -> redisTemplate.opsForValue()
+                .multiGet(isbnList.stream().map(ReviewListCache::generationKey).toList()), () -> null);
+        Map<String, Long> generationsByIsbn = new HashMap<>();
+        for (int i = 0; i < isbnList.size(); i++) {
+            generationsByIsbn.put(isbnList.get(i), generations == null ? -1 : parseGeneration(generations.get(i)));
+        }
+
+        Map<String, List<ReviewDto>> reviews = ReadYourWrites.fromPrimary(() -> loader.apply(isbnList));
+        reviews.forEach((isbn, bookReviews) -> put(isbn, bookReviews, generationsByIsbn.getOrDefault(isbn, -1L)));
+        return reviews;
+    }
+
+    private List<ReviewDto> load(String isbn, Supplier<List<ReviewDto>> loader) {
+        long generation = circuitBreaker.execute(
+                () -> parseGeneration(redisTemplate.opsForValue().get(generationKey(isbn))), () -> -1L);
+        List<ReviewDto> reviews = ReadYourWrites.fromPrimary(loader);
+        put(isbn, reviews, generation);
+        return reviews;
+    }
+
+    /**
+     * Replaces the cached first page unless the reviews were patched or evicted since {@code generation} was read,
+     * reviews beyond the first page are left out. A negative generation means it could not be read, nothing is
+     * written then.
+     */
+    private void put(String isbn, List<ReviewDto> reviews, long generation) {
+        if (generation < 0) {
+            return;
+        }
+
+        reviews = reviews.stream().sorted(Comparator.comparingInt(ReviewDto::getId)).limit(firstPageSize + 1L)
+                .toList();
+        List<Object> args = new ArrayList<>(4 + reviews.size() * 2);
+        args.add(timeToLive());
+        args.add(Long.toString(generation).getBytes(StandardCharsets.UTF_8));
+        args.add(LOADED_MARKER);
+        args.add(Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        for (ReviewDto review : reviews) {
+            args.add(field(review));
+            args.add(value(review));
+        }
+
+        circuitBreaker.execute(() -> redisTemplate.execute(REPLACE_SCRIPT, RedisSerializer.byteArray(), null,
+                List.of(key(isbn), generationKey(isbn)), args.toArray()), () -> pendingEvictions.add(isbn));
+    }
+
+    /**
+     * Replaces a single cached review, or adds a new one while the cached page still holds every review of the book.
+     * A missing page is left alone so that the next read loads it completely, and a page still loading is not written.
+     */
+    public void patch(String isbn, ReviewDto review) {
+        circuitBreaker.execute(() -> redisTemplate.execute(PATCH_SCRIPT, RedisSerializer.byteArray(), null,
+                List.of(key(isbn), generationKey(isbn)), patchArguments(List.of(review))),
+                () -> pendingEvictions.add(isbn));
+    }
+
+    /**
+     * Patches the cached pages of many books as {@link #patch} does, in one pipelined round trip.
+     */
+    public void patchAll(Map<String, List<ReviewDto>> reviewsByIsbn) {
+        if (reviewsByIsbn.isEmpty()) {
+            return;
+        }
+
+        byte[] script = PATCH_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        circuitBreaker.execute(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            reviewsByIsbn.forEach((isbn, reviews) -> {
+                Object[] arguments = patchArguments(reviews);
+                byte[][] keysAndArguments = new byte[arguments.length + 2][];
+                keysAndArguments[0] = key(isbn).getBytes(StandardCharsets.UTF_8);
+                keysAndArguments[1] = generationKey(isbn).getBytes(StandardCharsets.UTF_8);
+                for (int i = 0; i < arguments.length; i++) {
+                    keysAndArguments[i + 2] = (byte[]) arguments[i];
+                }
+                connection.scriptingCommands().eval(script, ReturnType.INTEGER, 2, keysAndArguments);
+            });
+            return null;
+        }), () -> reviewsByIsbn.keySet().forEach(pendingEvictions::add));
+    }
+
+    private Object[] patchArguments(List<ReviewDto> reviews) {
+        Object[] arguments = new Object[2 + reviews.size() * 2];
+        arguments[0] = Integer.toString(firstPageSize + 1).getBytes(StandardCharsets.UTF_8);
+        arguments[1] = timeToLive();
+        for (int i = 0; i < reviews.size(); i++) {
+            arguments[2 + 2 * i] = field(reviews.get(i));
+            arguments[3 + 2 * i] = value(reviews.get(i));
+        }
+        return arguments;
+    }
+
+    /**
+     * While Redis is unreachable every list is reported as cached, as there is no point in loading it.
+     */
+    public boolean isCached(String isbn) {
+        return circuitBreaker.execute(() -> Boolean.TRUE.equals(redisTemplate.hasKey(key(isbn))), () -> true);
+    }
+
+    public void evict(String isbn) {
+        circuitBreaker.execute(() -> evictNow(isbn), () -> pendingEvictions.add(isbn));
+    }
+
+    private void evictNow(String isbn) {
+        redisTemplate.execute(EVICT_SCRIPT, RedisSerializer.byteArray(), null, List.of(key(isbn), generationKey(isbn)),
+                timeToLive());
+    }
+
+    private CachedReviews read(String isbn) {
+        Map<byte[], byte[]> entries = circuitBreaker.execute(() -> redisTemplate
+                .execute((RedisCallback<Map<byte[], byte[]>>) connection -> hashEntries(connection, isbn)), () -> null);
+        if (entries == null || entries.isEmpty()) {
+            return null;
+        }
+
+        long writtenAt = 0;
+        List<ReviewDto> reviews = new ArrayList<>(entries.size());
+        for (Map.Entry<byte[], byte[]> entry : entries.entrySet()) {
+            if (Arrays.equals(entry.getKey(), LOADED_MARKER)) {
+                writtenAt = parseWrittenAt(entry.getValue());
+            } else {
+                reviews.add(parseReview(entry.getValue()));
+            }
+        }
+
+        reviews.sort(Comparator.comparingInt(ReviewDto::getId));
+        return new CachedReviews(reviews, writtenAt);
+    }
+
+    private List<ReviewDto> readUnexpired(String isbn) {
+        CachedReviews cachedReviews = read(isbn);
+        if (cachedReviews == null) {
+            return null;
+        }
+
+        CachePolicy.EntryState state = policy.stateOf(cachedReviews.writtenAt());
+        return state == CachePolicy.EntryState.STALE || state == CachePolicy.EntryState.EXPIRED
+                ? null
+                : cachedReviews.reviews();
+    }
+
+    /**
+     * Lists cached before the marker carried the load time are treated as freshly loaded.
+     */
+    private static long parseWrittenAt(byte[] marker) {
+        try {
+            return Long.parseLong(new String(marker, StandardCharsets.UTF_8));
+        } catch (NumberFormatException ex) {
+            return System.currentTimeMillis();
+        }
+    }
+
+    private Map<byte[], byte[]> hashEntries(RedisConnection connection, String isbn) {
+        return connection.hashCommands().hGetAll(key(isbn).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String key(String isbn) {
+        return KEY_PREFIX + isbn;
+    }
+
+    private static String generationKey(String isbn) {
+        return GENERATION_PREFIX + isbn;
+    }
+
+    private static long parseGeneration(String generation) {
+        return generation == null ? 0 : Long.parseLong(generation);
+    }
+
+    /**
+     * Generations outlive any load that read them, as loads take far less than the time to live of a page.
+     */
+    private byte[] timeToLive() {
+        return Long.toString(policy.getStoreTimeToLive().toMillis()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] field(ReviewDto review) {
+        return Integer.toString(review.getId()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] value(ReviewDto review) {
+        byte[] version = (review.getVersion() + "|").getBytes(StandardCharsets.UTF_8);
+        byte[] serializedReview = valueSerializer.serialize(review);
+        byte[] value = Arrays.copyOf(version, version.length + serializedReview.length);
+        System.arraycopy(serializedReview, 0, value, version.length, serializedReview.length);
+        return value;
+    }
+
+    /**
+     * Reviews cached before they carried their version have no prefix, serialized reviews never start with a digit.
+     */
+    private ReviewDto parseReview(byte[] value) {
+        int start = 0;
+        while (start < value.length && value[start] >= '0' && value[start] <= '9') {
+            start++;
+        }
+        int offset = start > 0 && start < value.length && value[start] == '|' ? start + 1 : 0;
+        return (ReviewDto) valueSerializer.deserialize(Arrays.copyOfRange(value, offset, value.length));
+    }
+
+    private record CachedReviews(List<ReviewDto> reviews, long writtenAt) {
+    }
+}
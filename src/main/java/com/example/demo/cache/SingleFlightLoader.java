@@ -0,0 +1,134 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coalesces concurrent cache misses for the same key so that only one loader hits the database.
+ * <p>
+ * Within a node, callers that miss while a load is in flight wait for and share its result. Across nodes, the loading
+ * node optionally holds a short Redis lease; the other nodes poll the cache for the value until the lease runs out
+ * and only then load themselves.
+ */
+@Slf4j
+public class SingleFlightLoader {
+
+    private static final String LEASE_PREFIX = "lease::";
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redisTemplate;
+    private final StoreCacheProperties.SingleFlight properties;
+
+    public SingleFlightLoader(StringRedisTemplate redisTemplate, StoreCacheProperties.SingleFlight properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * @param flightKey identifies the value across nodes, usually the cache name and key
+     * @param lookup reads the value from the cache, returning {@code null} while it is missing
+     * @param loader loads the value and writes it to the cache
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String flightKey, Supplier<T> lookup, Supplier<T> loader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existingFlight = inFlight.putIfAbsent(flightKey, flight);
+        if (existingFlight != null) {
+            return (T) join(existingFlight);
+        }
+
+        try {
+            T value = lookup.get();
+            if (value == null) {
+                value = properties.isDistributed() ? loadUnderLease(flightKey, lookup, loader) : loader.get();
+            }
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private <T> T loadUnderLease(String flightKey, Supplier<T> lookup, Supplier<T> loader) {
+        String leaseKey = LEASE_PREFIX + flightKey;
+        String leaseToken = UUID.randomUUID().toString();
+        Duration leaseTime = properties.getLeaseTime();
+        if (!tryAcquire(leaseKey, leaseToken, leaseTime)) {
+            T value = awaitOtherNode(lookup, leaseTime);
+            return value != null ? value : loader.get();
+        }
+
+        try {
+            return loader.get();
+        } finally {
+            release(leaseKey, leaseToken);
+        }
+    }
+
+    private <T> T awaitOtherNode(Supplier<T> lookup, Duration leaseTime) {
+        long deadline = System.nanoTime() + leaseTime.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(properties.getPollInterval().toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+
+            T value = lookup.get();
+            if (value != null) {
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+    private boolean tryAcquire(String leaseKey, String leaseToken, Duration leaseTime) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(leaseKey, leaseToken, leaseTime));
+        } catch (RuntimeException ex) {
+            log.warn("Unable to acquire load lease '{}', loading without it", leaseKey, ex);
+            return true;
+        }
+    }
+
+    private void release(String leaseKey, String leaseToken) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey), leaseToken);
+        } catch (RuntimeException ex) {
+            log.warn("Unable to release load lease '{}', it expires on its own", leaseKey, ex);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
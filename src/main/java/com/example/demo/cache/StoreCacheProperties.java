@@ -0,0 +1,196 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "store.cache")
+public class StoreCacheProperties {
+
+    private Local local = new Local();
+    private Invalidation invalidation = new Invalidation();
+    private Serialization serialization = new Serialization();
+    private IsbnFilter isbnFilter = new IsbnFilter();
+    private SingleFlight singleFlight = new SingleFlight();
+    private Refresh refresh = new Refresh();
+    private HotKeys hotKeys = new HotKeys();
+    private WarmUp warmUp = new WarmUp();
+    private Snapshot snapshot = new Snapshot();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private ReviewList reviewList = new ReviewList();
+    private AuthorBooks authorBooks = new AuthorBooks();
+    /**
+     * Caches whose Redis entries are stamped with the version of their values, so that older versions never replace
+     * newer ones. Their keys must be strings.
+     */
+    private Set<String> versionedCaches = new LinkedHashSet<>(Set.of("book"));
+    /**
+     * Expiry policy per cache name, caches without an entry use {@code spring.cache.redis.time-to-live}.
+     */
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    @Data
+    public static class Local {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration timeToLive = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Invalidation {
+        private String channel = "online-book-store:cache-invalidation";
+    }
+
+    @Data
+    public static class Serialization {
+        /**
+         * Caches whose values use the compact binary encoding, all others keep JDK serialization.
+         */
+        private Set<String> compactCaches = new LinkedHashSet<>(Set.of("book", "author", "review", "book-search"));
+        /**
+         * Encoded values of at least this many bytes are deflated, a negative value disables compression.
+         */
+        private int compressionThreshold = 1024;
+    }
+
+    @Data
+    public static class IsbnFilter {
+        private boolean enabled = true;
+        /**
+         * Whether additions are broadcast to the other nodes, required when more than one node accepts writes.
+         */
+        private boolean shared = true;
+        private double falsePositiveProbability = 0.01;
+        /**
+         * Capacity reserved on top of the current catalog size before the filter is rebuilt.
+         */
+        private double growthFactor = 1.5;
+        private long minimumCapacity = 10_000;
+        /**
+         * Rebuild once this share of the indexed ISBNs has been removed, as Bloom filters cannot forget.
+         */
+        private double maximumRemovedRatio = 0.1;
+        /**
+         * Full rebuild interval. Shared additions are kept in Redis for twice as long to back up pub/sub.
+         */
+        private Duration rebuildInterval = Duration.ofHours(1);
+        private Duration checkInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class SingleFlight {
+        /**
+         * Whether concurrent misses are also coalesced across nodes through a Redis lease.
+         */
+        private boolean distributed = false;
+        private Duration leaseTime = Duration.ofSeconds(2);
+        private Duration pollInterval = Duration.ofMillis(50);
+    }
+
+    @Data
+    public static class Refresh {
+        /**
+         * Threads reloading entries in the background, refreshes beyond the queue capacity are skipped.
+         */
+        private int threads = 2;
+        private int queueCapacity = 1_000;
+    }
+
+    @Data
+    public static class Policy {
+        private Duration timeToLive;
+        /**
+         * Share of the time to live after which a read triggers an asynchronous reload, 0 disables refresh-ahead.
+         */
+        private double refreshAheadRatio = 0;
+        /**
+         * How long an expired entry is kept to be served when reloading it fails.
+         */
+        private Duration staleGrace = Duration.ZERO;
+    }
+
+    @Data
+    public static class HotKeys {
+        /**
+         * Caches whose most requested keys are tracked for the warm-up.
+         */
+        private Set<String> caches = new LinkedHashSet<>(Set.of("book", "author", "review"));
+        /**
+         * Distinct keys counted per cache between two flushes, further keys are ignored until the next flush.
+         */
+        private int maximumTrackedKeys = 10_000;
+        /**
+         * Keys kept per cache in the shared ranking.
+         */
+        private int retainedKeys = 1_000;
+        /**
+         * Factor applied to the shared ranking on every flush, so that keys which are no longer requested fade out.
+         */
+        private double decay = 0.9;
+        private Duration flushInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class WarmUp {
+        private boolean enabled = false;
+        /**
+         * Upper bound for the warm-up, readiness is reported once it completes or the budget is used up.
+         */
+        private Duration timeBudget = Duration.ofSeconds(10);
+        /**
+         * Most requested keys preloaded per cache.
+         */
+        private int limit = 500;
+        private int batchSize = 100;
+    }
+
+    @Data
+    public static class Snapshot {
+        private boolean enabled = false;
+        private String path = "cache-snapshot.bin";
+        /**
+         * Older snapshots are ignored, as invalidations broadcast while the node was down have been missed.
+         */
+        private Duration maximumAge = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        /**
+         * Consecutive failed Redis calls after which the cache layer stops calling Redis.
+         */
+        private int failureThreshold = 5;
+        /**
+         * How long Redis is bypassed before a single probe call is let through.
+         */
+        private Duration openDuration = Duration.ofSeconds(10);
+        /**
+         * Writes that could not reach Redis are replayed as evictions once it is back. Beyond this many keys per cache
+         * the whole cache is cleared instead. Also bounds the invalidation messages kept for other nodes.
+         */
+        private int maximumPendingEvictions = 10_000;
+    }
+
+    @Data
+    public static class ReviewList {
+        /**
+         * Reviews of the first page that are cached per book, pages larger than this are read from the database.
+         */
+        private int firstPageSize = 10;
+    }
+
+    @Data
+    public static class AuthorBooks {
+        /**
+         * Delay of the second eviction of an author's books after a change, must exceed the time a book load takes.
+         */
+        private Duration secondEvictionDelay = Duration.ofSeconds(5);
+    }
+}
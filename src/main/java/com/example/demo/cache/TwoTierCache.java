@@ -0,0 +1,310 @@
+package com.example.demo.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.example.demo.dto.Versioned;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link Cache} with a bounded in-process tier (L1) in front of the shared Redis tier (L2).
+ * <p>
+ * Reads are served from L1 when possible and fall back to L2, promoting L2 hits into L1. Writes go to both tiers and
+ * are broadcast through the {@link CacheInvalidationBus} so that other nodes drop their local copy.
+ * <p>
+ * Both tiers hold {@link CacheEntry} envelopes stamped with their load time, which lets the {@link CachePolicy} of
+ * the cache refresh entries ahead of expiry and serve stale entries while the loader fails.
+ * <p>
+ * {@link Versioned} values are written to a {@link VersionedCache} shared tier only if it holds no newer version, and
+ * never replace a newer version in the local tier. A write that lost to a newer version drops the local copy instead.
+ */
+@Slf4j
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, CacheEntry> localCache;
+    private final Cache remoteCache;
+    private final CacheInvalidationBus invalidationBus;
+    private final SingleFlightLoader singleFlightLoader;
+    private final CachePolicy policy;
+    private final CacheRefresher refresher;
+    private final HotKeyTracker hotKeyTracker;
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, CacheEntry> localCache,
+            Cache remoteCache, CacheInvalidationBus invalidationBus, SingleFlightLoader singleFlightLoader,
+            CachePolicy policy, CacheRefresher refresher, HotKeyTracker hotKeyTracker) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationBus = invalidationBus;
+        this.singleFlightLoader = singleFlightLoader;
+        this.policy = policy;
+        this.refresher = refresher;
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remoteCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CacheEntry entry = lookup(key);
+        if (entry == null || isExpired(entry)) {
+            return null;
+        }
+
+        return new SimpleValueWrapper(entry.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper valueWrapper = get(key);
+        Object value = valueWrapper != null ? valueWrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    String.format("Cached value is not of required type [%s]: %s", type.getName(), value));
+        }
+
+        return (T) value;
+    }
+
+    /**
+     * Used by {@code @Cacheable(sync = true)}: concurrent misses for the same key are coalesced by the
+     * {@link SingleFlightLoader}, so only one caller runs the value loader. Entries past their refresh-ahead point
+     * are returned right away and reloaded in the background, stale entries are returned if the reload fails.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String flightKey = name + "::" + key;
+        hotKeyTracker.record(name, key);
+        CacheEntry entry = lookup(key);
+        if (entry != null) {
+            switch (policy.stateOf(entry.writtenAt())) {
+                case FRESH:
+                    return (T) entry.value();
+                case REFRESH_AHEAD:
+                    refresher.refresh(flightKey, () -> load(key, valueLoader, true));
+                    return (T) entry.value();
+                default:
+                    break;
+            }
+        }
+
+        try {
+            CacheEntry loadedEntry = singleFlightLoader.load(flightKey, () -> lookupUnexpired(key),
+                    () -> load(key, valueLoader, false));
+            return (T) loadedEntry.value();
+        } catch (RuntimeException ex) {
+            if (entry != null && policy.stateOf(entry.writtenAt()) == CachePolicy.EntryState.STALE) {
+                log.warn("Serving stale entry of cache '{}' for key '{}' as reloading it failed", name, key, ex);
+                staleHits.increment();
+                return (T) entry.value();
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        CacheEntry entry = CacheEntry.of(value);
+        if (putBothTiers(key, entry)) {
+            invalidationBus.publish(name, key);
+        }
+    }
+
+    /**
+     * Writes the value unless the shared tier already holds one. A new entry replaces nothing other nodes could hold,
+     * so unlike {@link #put} nothing is broadcast.
+     */
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        CacheEntry entry = CacheEntry.of(value);
+        ValueWrapper existingValue = remoteCache.putIfAbsent(key, entry);
+        if (existingValue == null) {
+            localCache.put(key, entry);
+            return null;
+        }
+
+        CacheEntry existingEntry = toEntry(existingValue);
+        localCache.put(key, existingEntry);
+        return new SimpleValueWrapper(existingEntry.value());
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        localCache.invalidate(key);
+        invalidationBus.publish(name, key);
+    }
+
+    /**
+     * Evicts the keys from both tiers on all nodes, with one round trip to the shared tier if it supports it.
+     */
+    public void evictAll(Collection<?> keys) {
+        if (remoteCache instanceof VersionedCache versionedCache) {
+            versionedCache.evictAll(keys);
+        } else {
+            keys.forEach(remoteCache::evict);
+        }
+        localCache.invalidateAll(keys);
+        invalidationBus.publish(name, new ArrayList<>(keys));
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+        invalidationBus.publish(name, null);
+    }
+
+    private CacheEntry lookup(Object key) {
+        CacheEntry localEntry = localCache.getIfPresent(key);
+        if (localEntry != null) {
+            localHits.increment();
+            return localEntry;
+        }
+
+        CacheEntry remoteEntry = lookupRemote(key);
+        if (remoteEntry != null) {
+            remoteHits.increment();
+            localCache.put(key, remoteEntry);
+            return remoteEntry;
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    private CacheEntry lookupUnexpired(Object key) {
+        CacheEntry entry = localCache.getIfPresent(key);
+        if (entry == null) {
+            entry = lookupRemote(key);
+        }
+
+        return entry != null && !isExpired(entry) ? entry : null;
+    }
+
+    private CacheEntry lookupRemote(Object key) {
+        ValueWrapper remoteValue = remoteCache.get(key);
+        return remoteValue != null ? toEntry(remoteValue) : null;
+    }
+
+    /**
+     * Values written before entries were stamped with their load time are treated as freshly loaded.
+     */
+    private static CacheEntry toEntry(ValueWrapper remoteValue) {
+        return remoteValue.get() instanceof CacheEntry cacheEntry ? cacheEntry : CacheEntry.of(remoteValue.get());
+    }
+
+    private CacheEntry load(Object key, Callable<?> valueLoader, boolean broadcast) {
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+
+        CacheEntry entry = CacheEntry.of(value);
+        if (putBothTiers(key, entry) && broadcast) {
+            invalidationBus.publish(name, key);
+        }
+        return entry;
+    }
+
+    /**
+     * @return whether the entry was written, {@code false} if the shared tier holds a newer version of the value
+     */
+    private boolean putBothTiers(Object key, CacheEntry entry) {
+        if (entry.value() instanceof Versioned versioned && remoteCache instanceof VersionedCache versionedCache) {
+            if (!versionedCache.putIfNewer(key, entry, versioned.getVersion())) {
+                localCache.invalidate(key);
+                return false;
+            }
+            localCache.asMap().merge(key, entry, (current, updated) -> isNewer(current, updated) ? current : updated);
+            return true;
+        }
+
+        remoteCache.put(key, entry);
+        localCache.put(key, entry);
+        return true;
+    }
+
+    private static boolean isNewer(CacheEntry entry, CacheEntry other) {
+        return entry.value() instanceof Versioned versioned && other.value() instanceof Versioned otherVersioned
+                && versioned.getVersion() > otherVersioned.getVersion();
+    }
+
+    private boolean isExpired(CacheEntry entry) {
+        CachePolicy.EntryState state = policy.stateOf(entry.writtenAt());
+        return state == CachePolicy.EntryState.STALE || state == CachePolicy.EntryState.EXPIRED;
+    }
+
+    /**
+     * Drops the local copy only, used when another node has changed the entry.
+     */
+    void evictLocal(Object key) {
+        if (key == null) {
+            localCache.invalidateAll();
+        } else if (key instanceof Collection<?> keys) {
+            localCache.invalidateAll(keys);
+        } else {
+            localCache.invalidate(key);
+        }
+    }
+
+    Map<Object, CacheEntry> getLocalEntries() {
+        return localCache.asMap();
+    }
+
+    /**
+     * Puts an entry from a local snapshot into the local tier, unless it has expired in the meantime.
+     */
+    boolean restoreLocal(Object key, CacheEntry entry) {
+        if (isExpired(entry)) {
+            return false;
+        }
+
+        localCache.asMap().putIfAbsent(key, entry);
+        return true;
+    }
+
+    long getLocalHits() {
+        return localHits.sum();
+    }
+
+    long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    long getLocalSize() {
+        return localCache.estimatedSize();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Decorates every cache of the Redis {@link CacheManager} with a Caffeine backed local tier.
+ * <p>
+ * Caffeine's W-TinyLFU policy gives the local tier size and TTL bounds with frequency-aware admission, so one-off
+ * lookups do not push hot entries out. Calls to Redis go through the {@link CacheCircuitBreaker}, so the local tier and
+ * the database keep serving requests while Redis is unreachable. The Redis entries of the configured versioned caches
+ * are written by a {@link VersionedRedisCache}.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final SingleFlightLoader singleFlightLoader;
+    private final CachePolicies cachePolicies;
+    private final CacheRefresher cacheRefresher;
+    private final HotKeyTracker hotKeyTracker;
+    private final CacheCircuitBreaker circuitBreaker;
+    private final StoreCacheProperties storeCacheProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+            CacheInvalidationBus invalidationBus,
+            SingleFlightLoader singleFlightLoader, CachePolicies cachePolicies, CacheRefresher cacheRefresher,
+            HotKeyTracker hotKeyTracker, CacheCircuitBreaker circuitBreaker, StoreCacheProperties storeCacheProperties,
+            MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.invalidationBus = invalidationBus;
+        this.singleFlightLoader = singleFlightLoader;
+        this.cachePolicies = cachePolicies;
+        this.cacheRefresher = cacheRefresher;
+        this.hotKeyTracker = hotKeyTracker;
+        this.circuitBreaker = circuitBreaker;
+        this.storeCacheProperties = storeCacheProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    Collection<TwoTierCache> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+
+    private TwoTierCache createCache(String name) {
+        Cache redisCache = remoteCacheManager.getCache(name);
+        if (redisCache instanceof RedisCache versionedCache
+                && storeCacheProperties.getVersionedCaches().contains(name)) {
+            redisCache = new VersionedRedisCache(versionedCache, redisTemplate);
+        }
+        Cache remoteCache = new CircuitBreakingCache(redisCache, circuitBreaker,
+                storeCacheProperties.getCircuitBreaker().getMaximumPendingEvictions());
+        StoreCacheProperties.Local localProperties = storeCacheProperties.getLocal();
+        com.github.benmanes.caffeine.cache.Cache<Object, CacheEntry> localCache = Caffeine.newBuilder()
+                .maximumSize(localProperties.isEnabled() ? localProperties.getMaximumSize() : 0)
+                .expireAfterWrite(localProperties.getTimeToLive())
+                .build();
+        TwoTierCache cache = new TwoTierCache(name, localCache, remoteCache, invalidationBus, singleFlightLoader,
+                cachePolicies.forCache(name), cacheRefresher, hotKeyTracker);
+        invalidationBus.register(name, cache::evictLocal);
+        TwoTierCacheMetrics.bind(cache, meterRegistry);
+        return cache;
+    }
+}
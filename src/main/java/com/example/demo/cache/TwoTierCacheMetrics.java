@@ -0,0 +1,48 @@
+package com.example.demo.cache;
+
+import java.util.function.ToLongFunction;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes per-tier hit counts and hit ratios of a {@link TwoTierCache} under {@code store.cache.*}.
+ */
+final class TwoTierCacheMetrics {
+
+    private TwoTierCacheMetrics() {
+    }
+
+    static void bind(TwoTierCache cache, MeterRegistry registry) {
+        counter(registry, cache, "l1", "hit", TwoTierCache::getLocalHits);
+        counter(registry, cache, "l2", "hit", TwoTierCache::getRemoteHits);
+        counter(registry, cache, "l2", "miss", TwoTierCache::getMisses);
+        FunctionCounter.builder("store.cache.stale.hits", cache, TwoTierCache::getStaleHits)
+                .tag("cache", cache.getName())
+                .description("Stale entries served because reloading them failed").register(registry);
+
+        Gauge.builder("store.cache.hit.ratio", cache, c -> ratio(c.getLocalHits(), total(c)))
+                .tag("cache", cache.getName()).tag("tier", "l1")
+                .description("Share of lookups answered by the in-process tier").register(registry);
+        Gauge.builder("store.cache.hit.ratio", cache, c -> ratio(c.getRemoteHits(), c.getRemoteHits() + c.getMisses()))
+                .tag("cache", cache.getName()).tag("tier", "l2")
+                .description("Share of in-process misses answered by Redis").register(registry);
+        Gauge.builder("store.cache.local.size", cache, TwoTierCache::getLocalSize)
+                .tag("cache", cache.getName()).register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, TwoTierCache cache, String tier, String result,
+            ToLongFunction<TwoTierCache> count) {
+        FunctionCounter.builder("store.cache.gets", cache, c -> count.applyAsLong(c))
+                .tag("cache", cache.getName()).tag("tier", tier).tag("result", result).register(registry);
+    }
+
+    private static long total(TwoTierCache cache) {
+        return cache.getLocalHits() + cache.getRemoteHits() + cache.getMisses();
+    }
+
+    private static double ratio(long hits, long total) {
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.cache;
+
+import java.util.Collection;
+
+import org.springframework.cache.Cache;
+
+/**
+ * A {@link Cache} that orders writes of {@link com.example.demo.dto.Versioned} values by their version rather than by
+ * their arrival, so that a delayed write of an older version cannot replace a newer value.
+ */
+interface VersionedCache extends Cache {
+
+    /**
+     * Writes the value unless the cache holds a newer version of it.
+     *
+     * @return whether the value was written
+     */
+    boolean putIfNewer(Object key, Object value, long version);
+
+    /**
+     * Evicts the keys as {@link #evict} does, in one round trip.
+     */
+    void evictAll(Collection<?> keys);
+}
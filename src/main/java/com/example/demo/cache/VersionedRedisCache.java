@@ -0,0 +1,137 @@
+package com.example.demo.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.example.demo.dto.Versioned;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+
+/**
+ * Stamps the {@link Versioned} values of a {@link RedisCache} with their version.
+ * <p>
+ * The version is kept next to the value under the value's key suffixed with {@code ::version}, so the cache's own
+ * reads, prefix and {@code clear()} are unaffected. A script compares it and writes both keys atomically, which makes
+ * a write of an older version a no-op whichever node sends it and however late it arrives. Other values are written
+ * as they are.
+ */
+class VersionedRedisCache implements VersionedCache {
+
+    private static final String VERSION_SUFFIX = "::version";
+
+    private static final RedisScript<Long> PUT_IF_NEWER_SCRIPT = RedisScript.of("""
+            local current = redis.call('GET', KEYS[2])
+            if current and tonumber(current) > tonumber(ARGV[2]) then
+                return 0
+            end
+            if tonumber(ARGV[3]) > 0 then
+                redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3])
+                redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3])
+            else
+                redis.call('SET', KEYS[1], ARGV[1])
+                redis.call('SET', KEYS[2], ARGV[2])
+            end
+            return 1
+            """, Long.class);
+
+    private final RedisCache delegate;
+    private final StringRedisTemplate redisTemplate;
+
+    VersionedRedisCache(RedisCache delegate, StringRedisTemplate redisTemplate) {
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object cachedValue = value instanceof CacheEntry entry ? entry.value() : value;
+        if (cachedValue instanceof Versioned versioned) {
+            putIfNewer(key, value, versioned.getVersion());
+        } else {
+            delegate.put(key, value);
+        }
+    }
+
+    @Override
+    public boolean putIfNewer(Object key, Object value, long version) {
+        RedisCacheConfiguration configuration = delegate.getCacheConfiguration();
+        Duration timeToLive = configuration.getTtlFunction().getTimeToLive(key, value);
+        byte[] serializedValue = ByteUtils.getBytes(configuration.getValueSerializationPair().write(value));
+        Long written = redisTemplate.execute(PUT_IF_NEWER_SCRIPT, RedisSerializer.byteArray(), null,
+                List.of(key(key), key(key) + VERSION_SUFFIX), serializedValue, bytes(Long.toString(version)),
+                bytes(Long.toString(timeToLive != null ? timeToLive.toMillis() : 0)));
+        return written == null || written == 1;
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    /**
+     * Drops the version along with the value, as the entity may be deleted and created again from version 0.
+     */
+    @Override
+    public void evict(Object key) {
+        redisTemplate.delete(List.of(key(key), key(key) + VERSION_SUFFIX));
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        List<String> redisKeys = new ArrayList<>(keys.size() * 2);
+        for (Object key : keys) {
+            redisKeys.add(key(key));
+            redisKeys.add(key(key) + VERSION_SUFFIX);
+        }
+        redisTemplate.delete(redisKeys);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    /**
+     * Keys of versioned caches are strings, which the {@link RedisCache} stores as they are.
+     */
+    private String key(Object key) {
+        return delegate.getCacheConfiguration().getKeyPrefixFor(getName()) + key;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
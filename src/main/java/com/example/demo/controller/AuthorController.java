@@ -7,6 +7,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -82,4 +84,59 @@ public class AuthorController {
         log.info("Leaving getAuthorById()");
         return new ResponseEntity<>(authorDto, HttpStatus.OK);
     }
+
+    @PutMapping("/{author-id}")
+    @Operation(summary = "Update an author", description = "Updates the name of an existing author")
+    @Parameter(description = "ID of the author to update", example = "2", required = true, in = ParameterIn.PATH)
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                    {
+                        "name": "Author Two Updated"
+                    }
+                    """)))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Author updated successfully",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        {
+                            "id": 2,
+                            "name": "Author Two Updated"
+                        }
+                        """))),
+        @ApiResponse(responseCode = "400", description = "Invalid input",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        {
+                            "statusCode": 400,
+                            "message": "BAD_REQUEST",
+                            "details": [
+                                "Author name cannot be null or empty"
+                            ]
+                        }
+                        """))),
+        @ApiResponse(responseCode = "404", description = "Author not found",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        {
+                            "statusCode": 404,
+                            "message": "NOT_FOUND",
+                            "details": [
+                                "Author not found for ID: 2"
+                            ]
+                        }
+                        """))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized request",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(example = """
+                        {
+                            "statusCode": 401,
+                            "message": "UNAUTHORIZED",
+                            "details": [
+                                "Full authentication is required to access this resource"
+                            ]
+                        }
+                        """))) })
+    public ResponseEntity<AuthorDto> updateAuthor(@PathVariable(name = "author-id") Long authorId,
+            @RequestBody AuthorDto authorDto) {
+        log.info("Entering updateAuthor()");
+        AuthorDto updatedAuthor = authorService.modifyAuthorById(authorId, authorDto);
+        log.info("Leaving updateAuthor()");
+        return new ResponseEntity<>(updatedAuthor, HttpStatus.OK);
+    }
 }
@@ -1,11 +1,17 @@
 package com.example.demo.controller;
 
+import com.example.demo.bulk.BookImporter;
+import com.example.demo.bulk.CatalogExporter;
+import com.example.demo.dto.BookCursorPage;
 import com.example.demo.dto.BookDto;
+import com.example.demo.dto.BookImportReportDto;
+import com.example.demo.dto.CompletionDto;
 import com.example.demo.service.BookService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -17,9 +23,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -33,6 +41,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.io.InputStream;
+import java.util.List;
+
 @Tag(name = "Book Collection")
 @RestController
 @RequestMapping("/api/books")
@@ -40,9 +51,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class BookController {
 
     private final BookService bookService;
+    private final BookImporter bookImporter;
+    private final CatalogExporter catalogExporter;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookImporter bookImporter, CatalogExporter catalogExporter) {
         this.bookService = bookService;
+        this.bookImporter = bookImporter;
+        this.catalogExporter = catalogExporter;
     }
 
     @PostMapping
@@ -101,7 +116,55 @@ public class BookController {
         log.info("Entering addBook()");
         BookDto savedBook = bookService.addNewBook(bookDto);
         log.info("Leaving addBook()");
-        return new ResponseEntity<>(savedBook, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(EntityTags.of(savedBook)).body(savedBook);
+    }
+
+    @PostMapping(path = "/import", consumes = { BookImporter.CSV, BookImporter.NDJSON })
+    @Operation(summary = "Import books in bulk",
+            description = "Imports a CSV file with an isbn,title,authorId header or an NDJSON file with one book per "
+                    + "line. Invalid rows are skipped and reported, all other rows are imported")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {
+        @Content(mediaType = BookImporter.CSV, schema = @Schema(example = """
+                isbn,title,authorId
+                9783161484100,"The Dream, Revisited",2
+                """)),
+        @Content(mediaType = BookImporter.NDJSON, schema = @Schema(example = """
+                {"isbn": "9783161484100", "title": "The Dream, Revisited", "authorId": 2}
+                """)) })
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "File imported, see the report for rejected rows",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        {
+                            "rowsRead": 3,
+                            "rowsImported": 2,
+                            "rowsFailed": 1,
+                            "durationMillis": 41,
+                            "rowsPerSecond": 73,
+                            "errors": [
+                                {
+                                    "line": 3,
+                                    "isbn": "9783161484101",
+                                    "message": "ISBN must be a valid ISBN-10 or ISBN-13"
+                                }
+                            ]
+                        }
+                        """))),
+        @ApiResponse(responseCode = "400", description = "Bad Request - Missing CSV columns",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(example = """
+                        {
+                            "statusCode": 400,
+                            "message": "BAD_REQUEST",
+                            "details": [
+                                "CSV header must name the columns isbn, title and authorId"
+                            ]
+                        }
+                        """))) })
+    public ResponseEntity<BookImportReportDto> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        log.info("Entering importBooks()");
+        BookImportReportDto report = bookImporter.importBooks(body, contentType);
+        log.info("Leaving importBooks()");
+        return new ResponseEntity<>(report, HttpStatus.OK);
     }
 
     @GetMapping("/{isbn}")
@@ -152,7 +215,7 @@ public class BookController {
         log.info("Entering getBookByIsbn()");
         BookDto bookDto = bookService.fetchBookByIsbn(isbn);
         log.info("Leaving getBookByIsbn()");
-        return new ResponseEntity<>(bookDto, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(EntityTags.of(bookDto)).body(bookDto);
     }
 
     @GetMapping
@@ -233,10 +296,120 @@ public class BookController {
         return new ResponseEntity<>(bookDtos, HttpStatus.OK);
     }
 
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Retrieve books by cursor",
+            description = "Retrieves books ordered by title after the given cursor, without page numbers or totals. "
+                    + "Pass an empty cursor for the first page and the returned nextCursor for the following ones")
+    @Parameter(name = "cursor", description = "Continuation token of the previous page, empty for the first page",
+            in = ParameterIn.QUERY, required = true)
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Books retrieved successfully",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        {
+                            "content": [
+                                {
+                                    "isbn": "9783161484111",
+                                    "title": "The Dream3",
+                                    "authorId": 2,
+                                    "authorName": "Author Two"
+                                }
+                            ],
+                            "nextCursor": "OTc4MzE2MTQ4NDExMQBUaGUgRHJlYW0z"
+                        }
+                        """))),
+        @ApiResponse(responseCode = "400", description = "Bad Request - Invalid cursor",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(example = """
+                        {
+                            "statusCode": 400,
+                            "message": "BAD_REQUEST",
+                            "details": [
+                                "Invalid cursor 'abc'"
+                            ]
+                        }
+                        """))) })
+    public ResponseEntity<BookCursorPage> retrieveBooksByCursor(
+            @Parameter(hidden = true) Pageable pageable,
+            @RequestParam MultiValueMap<String, String> searchParameters) {
+        log.info("Entering retrieveBooksByCursor()");
+        BookCursorPage books = bookService.getBooksByCursor(searchParameters, pageable.getPageSize());
+        log.info("Leaving retrieveBooksByCursor()");
+        return new ResponseEntity<>(books, HttpStatus.OK);
+    }
+
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Autocomplete titles and authors",
+            description = "Completes a prefix to the most popular book titles and author names starting with it")
+    @Parameter(name = "prefix", description = "Beginning of a title or author name", example = "lord of",
+            required = true, in = ParameterIn.QUERY)
+    @Parameter(name = "limit", description = "Maximum number of completions, at most 20", example = "8",
+            in = ParameterIn.QUERY)
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Completions retrieved successfully",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        [
+                            {
+                                "text": "The Dream",
+                                "type": "title"
+                            },
+                            {
+                                "text": "The Dreamers",
+                                "type": "author"
+                            }
+                        ]
+                        """))),
+        @ApiResponse(responseCode = "400", description = "Bad Request - Missing prefix",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(example = """
+                        {
+                            "statusCode": 400,
+                            "message": "BAD_REQUEST",
+                            "details": [
+                                "Prefix cannot be null or empty"
+                            ]
+                        }
+                        """))) })
+    public ResponseEntity<List<CompletionDto>> autocomplete(@RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        log.info("Entering autocomplete()");
+        List<CompletionDto> completions = bookService.autocomplete(prefix, limit);
+        log.info("Leaving autocomplete()");
+        return new ResponseEntity<>(completions, HttpStatus.OK);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export all books",
+            description = "Streams every book with its author as NDJSON or as CSV that can be imported again")
+    @Parameter(name = "format", description = "Format of the export, ndjson or csv", example = "csv",
+            in = ParameterIn.QUERY)
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export streamed",
+                content = @Content(mediaType = BookImporter.CSV, schema = @Schema(example = """
+                        isbn,title,authorId,authorName
+                        9783161484100,"The Dream, Revisited",2,Author Two
+                        """))),
+        @ApiResponse(responseCode = "400", description = "Bad Request - Invalid format",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(example = """
+                        {
+                            "statusCode": 400,
+                            "message": "BAD_REQUEST",
+                            "details": [
+                                "Invalid format 'xml'. Allowed formats are ndjson,csv"
+                            ]
+                        }
+                        """))) })
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(defaultValue = "ndjson") String format) {
+        log.info("Entering exportBooks()");
+        String contentType = catalogExporter.contentType(format);
+        StreamingResponseBody body = output -> catalogExporter.exportBooks(output, format);
+        log.info("Leaving exportBooks()");
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(contentType)).body(body);
+    }
+
     @PutMapping("/{isbn}")
     @Operation(summary = "Update a book", description = "Updates the details of an existing book using its ISBN")
     @Parameter(description = "ISBN of the book to be updated", example = "9783161484112", required = true,
             in = ParameterIn.PATH)
+    @Parameter(description = "ETag of the book as last read, the update fails with 412 once the book has changed",
+            name = HttpHeaders.IF_MATCH, example = "\"3\"", in = ParameterIn.HEADER)
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
             content = @Content(mediaType = "application/json", schema = @Schema(example = """
                     {
@@ -276,6 +449,16 @@ public class BookController {
                             ]
                         }
                         """))),
+        @ApiResponse(responseCode = "412", description = "Book changed since the If-Match ETag was read",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        {
+                            "statusCode": 412,
+                            "message": "PRECONDITION_FAILED",
+                            "details": [
+                                "Book with the given ISBN - 9783161484112 has been modified, its version is no longer 3"
+                            ]
+                        }
+                        """))),
         @ApiResponse(responseCode = "401", description = "Unauthorized request",
                 content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(example = """
                         {
@@ -286,11 +469,12 @@ public class BookController {
                             ]
                         }
                         """))) })
-    public ResponseEntity<BookDto> updateBook(@PathVariable String isbn, @Validated @RequestBody BookDto bookDto) {
+    public ResponseEntity<BookDto> updateBook(@PathVariable String isbn, @Validated @RequestBody BookDto bookDto,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Entering updateBook()");
-        BookDto updatedBook = bookService.modifyBookByIsbn(isbn, bookDto);
+        BookDto updatedBook = bookService.modifyBookByIsbn(isbn, bookDto, EntityTags.expectedVersion(ifMatch));
         log.info("Leaving updateBook()");
-        return new ResponseEntity<>(updatedBook, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(EntityTags.of(updatedBook)).body(updatedBook);
     }
 
     @DeleteMapping("/{isbn}")
@@ -0,0 +1,48 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.Versioned;
+import com.example.demo.exception.OnlineBookStoreException;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Maps entity versions to {@code ETag} values and back, an entity tag is the quoted version.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(Versioned versioned) {
+        return "\"" + versioned.getVersion() + "\"";
+    }
+
+    /**
+     * Parses an {@code If-Match} header into the version the entity must have. Weak tags are compared like strong ones,
+     * as proxies that compress responses weaken the tags they pass on.
+     *
+     * @return the expected version, {@code null} without a header or for {@code *}
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        boolean quoted = tag.length() > 2 && tag.startsWith("\"") && tag.indexOf('"', 1) == tag.length() - 1;
+        if (!quoted) {
+            throw new OnlineBookStoreException(
+                    String.format("If-Match must be a single entity tag, found '%s'", ifMatch), HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException ex) {
+            // A tag that was not handed out by this service can never match
+            throw new OnlineBookStoreException(String.format("Entity tag %s does not match the current version", tag),
+                    HttpStatus.PRECONDITION_FAILED);
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.demo.controller;
 
+import java.util.List;
+
+import com.example.demo.bulk.BookImporter;
+import com.example.demo.bulk.CatalogExporter;
+import com.example.demo.dto.ReviewBatchResultDto;
+import com.example.demo.dto.ReviewCursorPage;
 import com.example.demo.dto.ReviewDto;
 import com.example.demo.service.ReviewService;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,22 +19,25 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import lombok.extern.slf4j.Slf4j;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
-import java.util.List;
-
 @Tag(name = "Review Collection")
 @Slf4j
 @RestController
@@ -34,9 +45,11 @@ import java.util.List;
 public class ReviewController {
 
     private final ReviewService reviewService;
+    private final CatalogExporter catalogExporter;
 
-    public ReviewController(ReviewService reviewService) {
+    public ReviewController(ReviewService reviewService, CatalogExporter catalogExporter) {
         this.reviewService = reviewService;
+        this.catalogExporter = catalogExporter;
     }
 
     @PostMapping(path = "/{isbn}")
@@ -96,16 +109,118 @@ public class ReviewController {
         log.info("Entering submitReview()");
         ReviewDto savedReview = reviewService.submitReview(isbn, reviewDto);
         log.info("Leaving submitReview()");
-        return new ResponseEntity<>(savedReview, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(EntityTags.of(savedReview)).body(savedReview);
+    }
+
+    @PostMapping(path = "/batch")
+    @Operation(summary = "Submit reviews in bulk",
+            description = "Submits up to 1000 reviews for any books at once. Each review is answered with its own "
+                    + "status, so invalid reviews or unknown books do not fail the others")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                    [
+                        {
+                            "reviewerName": "John Doe",
+                            "content": "Great book!",
+                            "bookIsbn": "9783161484112"
+                        },
+                        {
+                            "reviewerName": "Jane Doe",
+                            "content": "Nice read",
+                            "bookIsbn": "9780000000000"
+                        }
+                    ]
+                    """)))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Reviews processed, see the status of each review",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        [
+                            {
+                                "index": 0,
+                                "status": 201,
+                                "review": {
+                                    "id": 12,
+                                    "reviewerName": "John Doe",
+                                    "content": "Great book!",
+                                    "bookIsbn": "9783161484112"
+                                },
+                                "error": null
+                            },
+                            {
+                                "index": 1,
+                                "status": 404,
+                                "review": null,
+                                "error": "Book not found for the given ISBN"
+                            }
+                        ]
+                        """))),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized batch",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        {
+                            "statusCode": 400,
+                            "message": "BAD_REQUEST",
+                            "details": [
+                                "At most 1000 reviews can be submitted at once"
+                            ]
+                        }
+                        """))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized request",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(example = """
+                        {
+                            "statusCode": 401,
+                            "message": "UNAUTHORIZED",
+                            "details": [
+                                "Full authentication is required to access this resource"
+                            ]
+                        }
+                        """))) })
+    public ResponseEntity<List<ReviewBatchResultDto>> submitReviews(@RequestBody List<ReviewDto> reviewDtos) {
+        log.info("Entering submitReviews()");
+        List<ReviewBatchResultDto> results = reviewService.submitReviews(reviewDtos);
+        log.info("Leaving submitReviews()");
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export all reviews",
+            description = "Streams every review of every book as NDJSON or CSV")
+    @Parameter(name = "format", description = "Format of the export, ndjson or csv", example = "csv",
+            in = ParameterIn.QUERY)
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export streamed",
+                content = @Content(mediaType = BookImporter.CSV, schema = @Schema(example = """
+                        id,reviewerName,content,bookIsbn
+                        1,John Doe,"Great book, would read again",9783161484112
+                        """))),
+        @ApiResponse(responseCode = "400", description = "Bad Request - Invalid format",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(example = """
+                        {
+                            "statusCode": 400,
+                            "message": "BAD_REQUEST",
+                            "details": [
+                                "Invalid format 'xml'. Allowed formats are ndjson,csv"
+                            ]
+                        }
+                        """))) })
+    public ResponseEntity<StreamingResponseBody> exportReviews(@RequestParam(defaultValue = "ndjson") String format) {
+        log.info("Entering exportReviews()");
+        String contentType = catalogExporter.contentType(format);
+        StreamingResponseBody body = output -> catalogExporter.exportReviews(output, format);
+        log.info("Leaving exportReviews()");
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(contentType)).body(body);
     }
 
     @GetMapping(path = "/{isbn}")
     @Operation(summary = "Get reviews by ISBN",
-            description = "Retrieves a list of reviews for a specific book using its ISBN")
-    @Parameter(description = "ISBN of the book to get reviews for", example = "9783161484112", required = true,
-            in = ParameterIn.PATH)
+            description = "Retrieves the first page of reviews for a specific book using its ISBN, oldest first. When "
+                    + "the book has more reviews, the Link header points to the next page of the cursor pagination")
+    @Parameter(name = "isbn", description = "ISBN of the book to get reviews for", example = "9783161484112",
+            required = true, in = ParameterIn.PATH)
+    @Parameter(name = "page-size", description = "Number of reviews", example = "8", in = ParameterIn.QUERY)
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Reviews retrieved successfully",
+                headers = @Header(name = HttpHeaders.LINK, description = "Next page of reviews, if there is one",
+                        schema = @Schema(example = "</api/reviews/9783161484112?cursor=NA>; rel=\"next\"")),
                 content = @Content(mediaType = "application/json", schema = @Schema(example = """
                         [
                             {
@@ -152,10 +267,88 @@ public class ReviewController {
                             ]
                         }
                         """))) })
-    public ResponseEntity<List<ReviewDto>> getReviewsByIsbn(@PathVariable String isbn) {
+    public ResponseEntity<List<ReviewDto>> getReviewsByIsbn(@PathVariable String isbn,
+            @Parameter(hidden = true) Pageable pageable) {
         log.info("Entering getReviewsByIsbn()");
-        List<ReviewDto> reviews = reviewService.fetchReviewsByIsbn(isbn);
+        ReviewCursorPage reviews = reviewService.fetchReviewsByIsbn(isbn, null, null, pageable.getPageSize());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (reviews.getNextCursor() != null) {
+            String nextPage = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("cursor",
+                    reviews.getNextCursor()).toUriString();
+            response.header(HttpHeaders.LINK, "<" + nextPage + ">; rel=\"next\"");
+        }
         log.info("Leaving getReviewsByIsbn()");
+        return response.body(reviews.getContent());
+    }
+
+    @GetMapping(path = "/{isbn}", params = "cursor")
+    @Operation(summary = "Get reviews by ISBN and cursor",
+            description = "Retrieves a page of reviews for a specific book using its ISBN. Pass an empty cursor for "
+                    + "the first page and the returned nextCursor for the following ones")
+    @Parameter(name = "isbn", description = "ISBN of the book to get reviews for", example = "9783161484112",
+            required = true, in = ParameterIn.PATH)
+    @Parameter(name = "cursor", description = "Continuation token of the previous page, empty for the first page",
+            in = ParameterIn.QUERY, required = true)
+    @Parameter(name = "sort", description = "Order of the reviews, oldest or newest", example = "newest",
+            in = ParameterIn.QUERY)
+    @Parameter(name = "page-size", description = "Number of reviews per page", example = "8", in = ParameterIn.QUERY)
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Reviews retrieved successfully",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        {
+                            "content": [
+                                {
+                                    "id": 1,
+                                    "reviewerName": "John Doe",
+                                    "content": "Nice Book",
+                                    "bookIsbn": "9783161484112"
+                                },
+                                {
+                                    "id": 4,
+                                    "reviewerName": "Mr.X",
+                                    "content": "Nice Book",
+                                    "bookIsbn": "9783161484112"
+                                }
+                            ],
+                            "nextCursor": "NA"
+                        }
+                        """))),
+        @ApiResponse(responseCode = "400", description = "Invalid ISBN",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        {
+                            "statusCode": 400,
+                            "message": "BAD_REQUEST",
+                            "details": [
+                                "Invalid ISBN format"
+                            ]
+                        }
+                        """))),
+        @ApiResponse(responseCode = "404", description = "Book not found",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        {
+                            "statusCode": 404,
+                            "message": "NOT_FOUND",
+                            "details": [
+                                "Book not found for the given ISBN"
+                            ]
+                        }
+                        """))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized request",
+                content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(example = """
+                        {
+                            "statusCode": 401,
+                            "message": "UNAUTHORIZED",
+                            "details": [
+                                "Full authentication is required to access this resource"
+                            ]
+                        }
+                        """))) })
+    public ResponseEntity<ReviewCursorPage> getReviewsByIsbnAndCursor(@PathVariable String isbn,
+            @RequestParam String cursor, @RequestParam(required = false) String sort,
+            @Parameter(hidden = true) Pageable pageable) {
+        log.info("Entering getReviewsByIsbnAndCursor()");
+        ReviewCursorPage reviews = reviewService.fetchReviewsByIsbn(isbn, cursor, sort, pageable.getPageSize());
+        log.info("Leaving getReviewsByIsbnAndCursor()");
         return new ResponseEntity<>(reviews, HttpStatus.OK);
     }
 
@@ -165,6 +358,8 @@ public class ReviewController {
             required = true, in = ParameterIn.PATH)
     @Parameter(description = "ID of the review to be updated", name = "review-id", example = "1", required = true,
             in = ParameterIn.PATH)
+    @Parameter(description = "ETag of the review as last read, the update fails with 412 once the review has changed",
+            name = HttpHeaders.IF_MATCH, example = "\"0\"", in = ParameterIn.HEADER)
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
             content = @Content(mediaType = "application/json", schema = @Schema(example = """
                     {
@@ -216,6 +411,16 @@ public class ReviewController {
                             ]
                         }
                         """))),
+        @ApiResponse(responseCode = "412", description = "Review changed since the If-Match ETag was read",
+                content = @Content(mediaType = "application/json", schema = @Schema(example = """
+                        {
+                            "statusCode": 412,
+                            "message": "PRECONDITION_FAILED",
+                            "details": [
+                                "Review with ID: 1 has been modified, its version is no longer 0"
+                            ]
+                        }
+                        """))),
         @ApiResponse(responseCode = "401", description = "Unauthorized request",
                 content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(example = """
                         {
@@ -227,10 +432,12 @@ public class ReviewController {
                         }
                         """))) })
     public ResponseEntity<ReviewDto> updateReview(@PathVariable String isbn,
-            @PathVariable(name = "review-id") long reviewId, @Validated @RequestBody ReviewDto reviewDto) {
+            @PathVariable(name = "review-id") long reviewId, @Validated @RequestBody ReviewDto reviewDto,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Entering updateReview()");
-        ReviewDto updatedReview = reviewService.modifyReview(isbn, reviewId, reviewDto);
+        ReviewDto updatedReview =
+                reviewService.modifyReview(isbn, reviewId, reviewDto, EntityTags.expectedVersion(ifMatch));
         log.info("Leaving updateReview()");
-        return new ResponseEntity<>(updatedReview, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(EntityTags.of(updatedReview)).body(updatedReview);
     }
 }
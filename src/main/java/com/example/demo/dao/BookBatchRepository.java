@@ -0,0 +1,209 @@
+package com.example.demo.dao;
+
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.example.demo.dto.BookDto;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC statements for writes that bypass the persistence context. Each method costs one round trip, for the whole
+ * collection in case of the set-based ones, inserts of many books are sent as one JDBC batch.
+ */
+@Repository
+public class BookBatchRepository {
+
+    private static final String INSERT_BOOK = """
+            INSERT INTO online_book_store.book (isbn, title, author_id, version) VALUES (:isbn, :title, :authorId, 0)
+            """;
+    private static final String INSERT_BOOK_IF_ABSENT = """
+            WITH inserted AS (
+                INSERT INTO online_book_store.book (isbn, title, author_id, version)
+                VALUES (:isbn, :title, :authorId, 0)
+                ON CONFLICT (isbn) DO NOTHING
+                RETURNING isbn, title, author_id, version
+            )
+            SELECT i.isbn, i.title, i.author_id, a.name AS author_name, i.version
+            FROM inserted i JOIN online_book_store.author a ON a.id = i.author_id
+            """;
+    private static final String UPDATE_BOOK = """
+            WITH updated AS (
+                UPDATE online_book_store.book SET title = :title, author_id = :authorId, version = version + 1
+                WHERE isbn = :isbn AND deleted_at IS NULL
+                    AND (CAST(:expectedVersion AS BIGINT) IS NULL OR version = :expectedVersion)
+                RETURNING isbn, title, author_id, version
+            )
+            SELECT u.isbn, u.title, u.author_id, a.name AS author_name, u.version
+            FROM updated u JOIN online_book_store.author a ON a.id = u.author_id
+            """;
+    private static final String LOCK_BOOK =
+            "SELECT isbn FROM online_book_store.book WHERE isbn = :isbn AND deleted_at IS NULL FOR UPDATE";
+    private static final String LOCK_DELETED_BOOK =
+            "SELECT isbn FROM online_book_store.book WHERE isbn = :isbn AND deleted_at IS NOT NULL FOR UPDATE";
+    private static final String SOFT_DELETE_BOOK = """
+            UPDATE online_book_store.book SET deleted_at = CURRENT_TIMESTAMP, version = version + 1
+            WHERE isbn = :isbn AND deleted_at IS NULL
+            """;
+    private static final String DELETE_REVIEWS = """
+            DELETE FROM online_book_store.review WHERE id IN (
+                SELECT id FROM online_book_store.review WHERE book_isbn = :isbn LIMIT :limit
+            )
+            """;
+    private static final RowMapper<BookDto> BOOK_MAPPER = (row, rowNumber) -> new BookDto(row.getString("isbn"),
+            row.getString("title"), row.getLong("author_id"), row.getString("author_name"), row.getLong("version"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public BookBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the names of the authors that exist among the given IDs, by ID
+     */
+    public Map<Long, String> findAuthorNamesByIds(Collection<Long> authorIds) {
+        Map<Long, String> names = new HashMap<>();
+        if (!authorIds.isEmpty()) {
+            jdbcTemplate.query("SELECT id, name FROM online_book_store.author WHERE id IN (:ids)",
+                    Map.of("ids", authorIds), row -> {
+                        names.put(row.getLong("id"), row.getString("name"));
+                    });
+        }
+        return names;
+    }
+
+    /**
+     * @return the ISBNs among the given ones that already exist, including books deleted but not yet purged
+     */
+    public Set<String> findExistingIsbns(Collection<String> isbns) {
+        if (isbns.isEmpty()) {
+            return Set.of();
+        }
+
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT isbn FROM online_book_store.book WHERE isbn IN (:isbns)", Map.of("isbns", isbns),
+                String.class));
+    }
+
+    /**
+     * @return the ISBNs among the given ones whose books exist and are not deleted
+     */
+    public Set<String> findLiveIsbns(Collection<String> isbns) {
+        if (isbns.isEmpty()) {
+            return Set.of();
+        }
+
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT isbn FROM online_book_store.book WHERE isbn IN (:isbns) AND deleted_at IS NULL",
+                Map.of("isbns", isbns), String.class));
+    }
+
+    /**
+     * Inserts the book unless its ISBN exists already, with one statement that also returns the author's name. An
+     * unknown author violates the foreign key on {@code author_id}.
+     *
+     * @return the inserted book, empty if the ISBN exists already
+     */
+    public Optional<BookDto> insertBookIfAbsent(BookDto book) {
+        return jdbcTemplate.query(INSERT_BOOK_IF_ABSENT, bookParameters(book), BOOK_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Updates the title and author of the book and increments its version with one statement that also returns the
+     * author's name. An unknown author violates the foreign key on {@code author_id}.
+     *
+     * @param expectedVersion the version the book must still have, {@code null} to update any version
+     * @return the updated book, empty if there is no book with the ISBN or it has another version
+     */
+    public Optional<BookDto> updateBook(BookDto book, Long expectedVersion) {
+        MapSqlParameterSource parameters = bookParameters(book).addValue("expectedVersion", expectedVersion,
+                Types.BIGINT);
+        return jdbcTemplate.query(UPDATE_BOOK, parameters, BOOK_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Deletes the book and its reviews with one statement each, instead of the entity by entity deletes of the
+     * cascading {@code Book.reviews} mapping. The book row is locked first, so reviews submitted meanwhile wait and
+     * then fail on the foreign key rather than failing the delete.
+     *
+     * @return whether the book existed
+     */
+    @Transactional
+    public boolean deleteBookWithReviews(String isbn) {
+        Map<String, String> parameters = Map.of("isbn", isbn);
+        if (jdbcTemplate.queryForList(LOCK_BOOK, parameters, String.class).isEmpty()) {
+            return false;
+        }
+
+        jdbcTemplate.update("DELETE FROM online_book_store.review WHERE book_isbn = :isbn", parameters);
+        jdbcTemplate.update("DELETE FROM online_book_store.book WHERE isbn = :isbn", parameters);
+        return true;
+    }
+
+    /**
+     * Marks the book as deleted, which hides it from every query, and increments its version.
+     *
+     * @return whether the book existed and was not deleted yet
+     */
+    public boolean softDeleteBook(String isbn) {
+        return jdbcTemplate.update(SOFT_DELETE_BOOK, Map.of("isbn", isbn)) > 0;
+    }
+
+    /**
+     * @return the ISBNs of soft deleted books, the longest deleted first
+     */
+    public List<String> findSoftDeletedIsbns(int limit) {
+        return jdbcTemplate.queryForList("""
+                SELECT isbn FROM online_book_store.book WHERE deleted_at IS NOT NULL
+                ORDER BY deleted_at LIMIT :limit
+                """, Map.of("limit", limit), String.class);
+    }
+
+    /**
+     * Deletes up to {@code limit} reviews of the book.
+     *
+     * @return the number of deleted reviews
+     */
+    public int deleteReviews(String isbn, int limit) {
+        return jdbcTemplate.update(DELETE_REVIEWS, Map.of("isbn", isbn, "limit", limit));
+    }
+
+    /**
+     * Deletes the book if it is soft deleted, along with the reviews it still has. The book row is locked first, so
+     * reviews submitted while its reviews were purged in batches are removed too rather than failing the delete.
+     *
+     * @return whether the book was deleted
+     */
+    @Transactional
+    public boolean deleteSoftDeletedBook(String isbn) {
+        Map<String, String> parameters = Map.of("isbn", isbn);
+        if (jdbcTemplate.queryForList(LOCK_DELETED_BOOK, parameters, String.class).isEmpty()) {
+            return false;
+        }
+
+        jdbcTemplate.update("DELETE FROM online_book_store.review WHERE book_isbn = :isbn", parameters);
+        return jdbcTemplate.update("DELETE FROM online_book_store.book WHERE isbn = :isbn", parameters) > 0;
+    }
+
+    public void insertBooks(List<BookDto> books) {
+        SqlParameterSource[] rows =
+                books.stream().map(BookBatchRepository::bookParameters).toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_BOOK, rows);
+    }
+
+    private static MapSqlParameterSource bookParameters(BookDto book) {
+        return new MapSqlParameterSource().addValue("isbn", book.getIsbn()).addValue("title", book.getTitle())
+                .addValue("authorId", book.getAuthorId());
+    }
+}
@@ -1,10 +1,23 @@
 package com.example.demo.dao;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 import com.example.demo.entity.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, String>, QuerydslPredicateExecutor<Book> {
-}
\ No newline at end of file
+public interface BookRepository
+        extends JpaRepository<Book, String>, QuerydslPredicateExecutor<Book>, BookRepositoryCustom {
+
+    @Query("select b.isbn from Book b")
+    Stream<String> streamAllIsbns();
+
+    @Query("select b from Book b join fetch b.author where b.isbn in :isbns")
+    List<Book> findAllWithAuthorByIsbnIn(@Param("isbns") Collection<String> isbns);
+}
@@ -0,0 +1,53 @@
+package com.example.demo.dao;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.FacetCountDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.querydsl.core.types.Predicate;
+
+/**
+ * Read paths that project books straight into {@link BookDto}s with the author joined in the same query, so no
+ * entities are loaded into the persistence context and authors are not fetched row by row.
+ */
+public interface BookRepositoryCustom {
+
+    Page<BookDto> findAllAsDto(Predicate predicate, Pageable pageable);
+
+    /**
+     * Seeks to the books ordered after {@code (afterTitle, afterIsbn)} by title and ISBN, served by the
+     * {@code (title, isbn)} index without an offset or a count query. A {@code null} title starts at the beginning.
+     */
+    List<BookDto> findAllAsDtoAfter(Predicate predicate, String afterTitle, String afterIsbn, int limit);
+
+    /**
+     * Full-text and trigram search over titles and author names, most relevant first. Titles are matched by stemmed
+     * words and author names by exact words, both also by trigram similarity to tolerate typos. The optional
+     * {@code isbn}, {@code author} and {@code title} filters narrow the result by case-insensitive substring.
+     * Postgres only, relies on the indexes of {@code V4__book-search-indexes.sql}.
+     */
+    Page<BookDto> searchAsDto(String terms, String isbn, String author, String title, Pageable pageable);
+
+    Optional<BookDto> findDtoByIsbn(String isbn);
+
+    /**
+     * Counts the matching books per author, the {@code limit} authors with the most books first.
+     */
+    List<FacetCountDto> countByAuthor(Predicate predicate, int limit);
+
+    /**
+     * Counts the books found by {@link #searchAsDto} per author, the {@code limit} authors with the most books first.
+     * Postgres only.
+     */
+    List<FacetCountDto> countSearchByAuthor(String terms, String isbn, String author, String title, int limit);
+
+    /**
+     * Streams the whole catalog, must be consumed within a transaction and closed.
+     */
+    Stream<BookDto> streamAllAsDto();
+}
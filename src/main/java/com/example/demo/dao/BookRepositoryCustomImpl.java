@@ -0,0 +1,192 @@
+package com.example.demo.dao;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.FacetCountDto;
+import com.example.demo.entity.Book;
+import com.example.demo.entity.QBook;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.support.Querydsl;
+import org.springframework.data.querydsl.SimpleEntityPathResolver;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final QBook BOOK = QBook.book;
+
+    /**
+     * Candidate books, each branch served by the full-text or trigram GIN indexes of a single table.
+     */
+    private static final String SEARCH_MATCHES = """
+            WITH matches AS (
+                SELECT b.isbn FROM online_book_store.book b
+                WHERE to_tsvector('english', b.title) @@ websearch_to_tsquery('english', :terms)
+                    OR lower(b.title) % lower(:terms)
+                UNION
+                SELECT b.isbn FROM online_book_store.book b
+                JOIN online_book_store.author a ON a.id = b.author_id
+                WHERE to_tsvector('simple', a.name) @@ websearch_to_tsquery('simple', :terms)
+                    OR lower(a.name) % lower(:terms)
+            )
+            """;
+
+    private static final String SEARCH_RANK = """
+            ts_rank(to_tsvector('english', b.title), websearch_to_tsquery('english', :terms)) * 2
+                + ts_rank(to_tsvector('simple', a.name), websearch_to_tsquery('simple', :terms))
+                + similarity(lower(b.title), lower(:terms))
+            """;
+
+    private final EntityManager entityManager;
+    private final JPAQueryFactory queryFactory;
+    private final Querydsl querydsl;
+
+    public BookRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.queryFactory = new JPAQueryFactory(entityManager);
+        this.querydsl = new Querydsl(entityManager,
+                new PathBuilder<>(Book.class, SimpleEntityPathResolver.INSTANCE.createPath(Book.class).getMetadata()));
+    }
+
+    @Override
+    public Page<BookDto> findAllAsDto(Predicate predicate, Pageable pageable) {
+        JPAQuery<Tuple> query = selectBookDto().where(predicate);
+        List<BookDto> content = querydsl.applyPagination(pageable, query).fetch().stream()
+                .map(BookRepositoryCustomImpl::toDto).toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countBooks(predicate));
+    }
+
+    @Override
+    public List<BookDto> findAllAsDtoAfter(Predicate predicate, String afterTitle, String afterIsbn, int limit) {
+        BooleanBuilder where = new BooleanBuilder(predicate);
+        if (afterTitle != null) {
+            where.and(Expressions.booleanTemplate("({0}, {1}) > ({2}, {3})", BOOK.title, BOOK.isbn, afterTitle,
+                    afterIsbn));
+        }
+        return selectBookDto().where(where).orderBy(BOOK.title.asc(), BOOK.isbn.asc()).limit(limit).fetch().stream()
+                .map(BookRepositoryCustomImpl::toDto).toList();
+    }
+
+    @Override
+    public Page<BookDto> searchAsDto(String terms, String isbn, String author, String title, Pageable pageable) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String from = searchFrom(parameters, terms, isbn, author, title);
+
+        Query query = entityManager.createNativeQuery(SEARCH_MATCHES
+                + "SELECT b.isbn, b.title, a.id, a.name, b.version " + from
+                + "ORDER BY " + SEARCH_RANK + " DESC, b.title, b.isbn");
+        parameters.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        List<BookDto> content = rows.stream()
+                .map(row -> new BookDto((String) row[0], (String) row[1], ((Number) row[2]).longValue(),
+                        (String) row[3], ((Number) row[4]).longValue()))
+                .toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            Query countQuery = entityManager.createNativeQuery(SEARCH_MATCHES + "SELECT count(*) " + from);
+            parameters.forEach(countQuery::setParameter);
+            return ((Number) countQuery.getSingleResult()).longValue();
+        });
+    }
+
+    @Override
+    public List<FacetCountDto> countSearchByAuthor(String terms, String isbn, String author, String title,
+            int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String from = searchFrom(parameters, terms, isbn, author, title);
+        Query query = entityManager.createNativeQuery(SEARCH_MATCHES + "SELECT a.id, a.name, count(*) " + from
+                + "GROUP BY a.id, a.name ORDER BY count(*) DESC, a.name LIMIT :limit");
+        parameters.forEach(query::setParameter);
+        query.setParameter("limit", limit);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(row -> new FacetCountDto(String.valueOf(row[0]), (String) row[1], ((Number) row[2]).longValue()))
+                .toList();
+    }
+
+    /**
+     * Joins the search matches to their books and authors and applies the substring filters, adding the query
+     * parameters to {@code parameters}.
+     */
+    private static String searchFrom(Map<String, Object> parameters, String terms, String isbn, String author,
+            String title) {
+        parameters.put("terms", terms);
+        StringBuilder from = new StringBuilder("""
+                FROM matches m
+                JOIN online_book_store.book b ON b.isbn = m.isbn
+                JOIN online_book_store.author a ON a.id = b.author_id
+                WHERE b.deleted_at IS NULL
+                """);
+        appendContains(from, parameters, "lower(b.isbn)", "isbn", isbn);
+        appendContains(from, parameters, "lower(a.name)", "author", author);
+        appendContains(from, parameters, "lower(b.title)", "title", title);
+        return from.toString();
+    }
+
+    private static void appendContains(StringBuilder sql, Map<String, Object> parameters, String column,
+            String name, String value) {
+        if (value != null && !value.isBlank()) {
+            sql.append("AND ").append(column).append(" LIKE :").append(name).append(" ESCAPE '!'\n");
+            parameters.put(name, "%" + value.toLowerCase().replaceAll("([!%_])", "!$1") + "%");
+        }
+    }
+
+    @Override
+    public Optional<BookDto> findDtoByIsbn(String isbn) {
+        return Optional.ofNullable(selectBookDto().where(BOOK.isbn.eq(isbn)).fetchOne())
+                .map(BookRepositoryCustomImpl::toDto);
+    }
+
+    @Override
+    public List<FacetCountDto> countByAuthor(Predicate predicate, int limit) {
+        return queryFactory.select(BOOK.author.id, BOOK.author.name, BOOK.count()).from(BOOK).where(predicate)
+                .groupBy(BOOK.author.id, BOOK.author.name).orderBy(BOOK.count().desc(), BOOK.author.name.asc())
+                .limit(limit).fetch().stream()
+                .map(row -> new FacetCountDto(String.valueOf(row.get(BOOK.author.id)), row.get(BOOK.author.name),
+                        row.get(BOOK.count())))
+                .toList();
+    }
+
+    @Override
+    public Stream<BookDto> streamAllAsDto() {
+        return selectBookDto().stream().map(BookRepositoryCustomImpl::toDto);
+    }
+
+    private JPAQuery<Tuple> selectBookDto() {
+        return queryFactory.select(BOOK.isbn, BOOK.title, BOOK.author.id, BOOK.author.name, BOOK.version)
+                .from(BOOK);
+    }
+
+    private long countBooks(Predicate predicate) {
+        Long count = queryFactory.select(BOOK.count()).from(BOOK).where(predicate).fetchOne();
+        return count != null ? count : 0;
+    }
+
+    private static BookDto toDto(Tuple row) {
+        return new BookDto(row.get(BOOK.isbn), row.get(BOOK.title), row.get(BOOK.author.id),
+                row.get(BOOK.author.name), row.get(BOOK.version));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.ReviewDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads whole tables through a server-side cursor for exports. Rows are fetched {@code fetchSize} at a time and handed
+ * to the consumer one by one, nothing is kept, so memory use does not grow with the table. The PostgreSQL driver only
+ * uses a cursor with auto-commit off, hence the read-only transactions. Entities and caches are not involved.
+ */
+@Repository
+public class CatalogExportRepository {
+
+    private static final String SELECT_BOOKS = """
+            SELECT b.isbn, b.title, b.author_id, a.name AS author_name, b.version
+            FROM online_book_store.book b JOIN online_book_store.author a ON a.id = b.author_id
+            WHERE b.deleted_at IS NULL
+            ORDER BY b.isbn
+            """;
+    private static final String SELECT_REVIEWS = """
+            SELECT id, reviewer_name, content, book_isbn, version FROM online_book_store.review r
+            WHERE NOT EXISTS (
+                SELECT 1 FROM online_book_store.book b WHERE b.isbn = r.book_isbn AND b.deleted_at IS NOT NULL
+            )
+            ORDER BY id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogExportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachBook(int fetchSize, Consumer<BookDto> consumer) {
+        jdbcTemplate.query(connection -> cursor(connection.prepareStatement(SELECT_BOOKS), fetchSize),
+                row -> {
+                    consumer.accept(new BookDto(row.getString("isbn"), row.getString("title"),
+                            row.getLong("author_id"), row.getString("author_name"), row.getLong("version")));
+                });
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachReview(int fetchSize, Consumer<ReviewDto> consumer) {
+        jdbcTemplate.query(connection -> cursor(connection.prepareStatement(SELECT_REVIEWS), fetchSize),
+                row -> {
+                    consumer.accept(new ReviewDto(row.getInt("id"), row.getString("reviewer_name"),
+                            row.getString("content"), row.getString("book_isbn"), row.getLong("version")));
+                });
+    }
+
+    private static PreparedStatement cursor(PreparedStatement statement, int fetchSize) throws SQLException {
+        statement.setFetchSize(fetchSize);
+        return statement;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.dao;
+
+import java.util.List;
+
+import com.example.demo.dto.ReviewDto;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Set-based JDBC statements for bulk review writes, bypassing the persistence context.
+ */
+@Repository
+public class ReviewBatchRepository {
+
+    private static final String INSERT_REVIEW = """
+            INSERT INTO online_book_store.review (book_isbn, reviewer_name, content, version)
+            VALUES (:bookIsbn, :reviewerName, :content, 0)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ReviewBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the reviews with one JDBC batch in one transaction.
+     *
+     * @return the generated review ids, in the order of the reviews
+     */
+    @Transactional
+    public List<Integer> insertReviews(List<ReviewDto> reviews) {
+        SqlParameterSource[] rows = reviews.stream()
+                .map(review -> new MapSqlParameterSource().addValue("bookIsbn", review.getBookIsbn())
+                        .addValue("reviewerName", review.getReviewerName()).addValue("content", review.getContent()))
+                .toArray(SqlParameterSource[]::new);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_REVIEW, rows, keyHolder, new String[] { "id" });
+        return keyHolder.getKeyList().stream().map(keys -> ((Number) keys.values().iterator().next()).intValue())
+                .toList();
+    }
+}
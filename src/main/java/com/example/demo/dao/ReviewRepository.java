@@ -1,13 +1,36 @@
 package com.example.demo.dao;
 
+import java.util.Collection;
 import java.util.List;
 
+import com.example.demo.dto.ReviewDto;
 import com.example.demo.entity.Book;
 import com.example.demo.entity.Review;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByBook(Book book);
+
+    /**
+     * Reviews of soft deleted books are left out, which the join to the book checks against its primary key.
+     */
+    @Query("select new com.example.demo.dto.ReviewDto(r.id, r.reviewerName, r.content, b.isbn, r.version) "
+            + "from Review r join r.book b where b.isbn = :isbn and b.deletedAt is null and r.id > :afterId "
+            + "order by r.id asc")
+    List<ReviewDto> findDtosByBookIsbnAfter(@Param("isbn") String isbn, @Param("afterId") int afterId, Limit limit);
+
+    @Query("select new com.example.demo.dto.ReviewDto(r.id, r.reviewerName, r.content, b.isbn, r.version) "
+            + "from Review r join r.book b where b.isbn = :isbn and b.deletedAt is null and r.id < :beforeId "
+            + "order by r.id desc")
+    List<ReviewDto> findDtosByBookIsbnBefore(@Param("isbn") String isbn, @Param("beforeId") int beforeId,
+            Limit limit);
+
+    @Query("select r from Review r join fetch r.book b join fetch b.author where b.isbn in :isbns "
+            + "and b.deletedAt is null")
+    List<Review> findAllWithBookByBookIsbnIn(@Param("isbns") Collection<String> isbns);
 }
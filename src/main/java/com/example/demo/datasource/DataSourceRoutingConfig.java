@@ -0,0 +1,89 @@
+package com.example.demo.datasource;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Routes read-only transactions to the replicas in {@code store.datasource.replicas} and everything else to
+ * {@code spring.datasource}.
+ * <p>
+ * The application's data source defers fetching a physical connection until the first statement, when the read-only
+ * flag of the transaction is known, and then takes it from the {@link ReplicaRoutingDataSource} for read-only
+ * transactions. As a side effect, read-only transactions that are answered from the caches never borrow a connection.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    private static final String REPLICAS_CONFIGURED = "replicas[0].url";
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource =
+                dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "store.datasource", name = REPLICAS_CONFIGURED)
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+            DataSourceProperties dataSourceProperties, DataSourceRoutingProperties properties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            DataSourceRoutingProperties.Replica replica = properties.getReplicas().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername() != null ? replica.getUsername()
+                            : dataSourceProperties.determineUsername())
+                    .password(replica.getPassword() != null ? replica.getPassword()
+                            : dataSourceProperties.determinePassword())
+                    .build();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.put(dataSource.getPoolName(), dataSource);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.getLagQuery(),
+                properties.getMaximumLag());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+            ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        replicaRoutingDataSource.ifAvailable(dataSource::setReadOnlyDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "store.datasource", name = REPLICAS_CONFIGURED)
+    public ReadYourWritesFilter readYourWritesFilter(DataSourceRoutingProperties properties) {
+        Duration shortestWindow = properties.getMaximumLag().plus(properties.getLagCheckInterval());
+        if (properties.getReadYourWritesWindow().compareTo(shortestWindow) < 0) {
+            throw new IllegalStateException(String.format(
+                    "store.datasource.read-your-writes-window must be at least maximum-lag plus lag-check-interval "
+                            + "(%s), clients could otherwise read a replica that has not applied their writes yet",
+                    shortestWindow));
+        }
+        return new ReadYourWritesFilter(properties.getReadYourWritesWindow());
+    }
+}
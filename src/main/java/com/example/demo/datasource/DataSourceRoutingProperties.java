@@ -0,0 +1,55 @@
+package com.example.demo.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "store.datasource")
+public class DataSourceRoutingProperties {
+
+    /**
+     * Read replicas of {@code spring.datasource.url}. Without any, every transaction uses the primary.
+     */
+    private List<Replica> replicas = new ArrayList<>();
+    /**
+     * Replication lag above which a replica receives no reads until it has caught up.
+     */
+    private Duration maximumLag = Duration.ofSeconds(10);
+    /**
+     * How often the replication lag of the replicas is measured.
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+    /**
+     * Returns the replication lag of a replica in seconds. The default suits PostgreSQL streaming replication and
+     * reports no lag while the replica has replayed everything it received, e.g. while the primary is idle.
+     */
+    private String lagQuery = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+            ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END
+            """;
+    /**
+     * How long the reads of a client go to the primary after it made a write, so that it sees its own writes while
+     * the replicas catch up. A replica may be up to {@code maximum-lag} behind plus the lag it gained since it was
+     * last measured, so the window must be at least {@code maximum-lag} plus {@code lag-check-interval}.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(15);
+
+    @Data
+    public static class Replica {
+        private String url;
+        /**
+         * Defaults to {@code spring.datasource.username}.
+         */
+        private String username;
+        /**
+         * Defaults to {@code spring.datasource.password}.
+         */
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
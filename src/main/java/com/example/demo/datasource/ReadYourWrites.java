@@ -0,0 +1,44 @@
+package com.example.demo.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the requests whose reads must see the latest writes, because they write themselves or their client wrote
+ * within the read-your-writes window. Read-only transactions of marked requests use the primary.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isRequired() {
+        return Boolean.TRUE.equals(PRIMARY_READS.get());
+    }
+
+    /**
+     * Runs {@code reads} against the primary, for reads that must not miss a committed write, such as rebuilding an
+     * index of all books.
+     */
+    public static <T> T fromPrimary(Supplier<T> reads) {
+        if (isRequired()) {
+            return reads.get();
+        }
+
+        require();
+        try {
+            return reads.get();
+        } finally {
+            clear();
+        }
+    }
+
+    static void require() {
+        PRIMARY_READS.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PRIMARY_READS.remove();
+    }
+}
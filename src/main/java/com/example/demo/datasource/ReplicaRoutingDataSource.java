@@ -0,0 +1,122 @@
+package com.example.demo.datasource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands out connections for read-only transactions, round robin over the replicas that are reachable and within the
+ * maximum replication lag, and from the primary otherwise.
+ * <p>
+ * The lag of every replica is measured in the background, replicas start out unused until their first measurement.
+ * A replica that refuses a connection is skipped until the next measurement finds it healthy again. Requests that
+ * must read their own writes, see {@link ReadYourWrites}, always use the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final Duration maximumLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, String lagQuery,
+            Duration maximumLag) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream().map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.lagQuery = lagQuery;
+        this.maximumLag = maximumLag;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReadYourWrites.isRequired()) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (replica.available) {
+                    try {
+                        return replica.dataSource.getConnection();
+                    } catch (SQLException ex) {
+                        replica.markUnavailable("refused a connection", ex);
+                    }
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Credentials are configured per database");
+    }
+
+    @Scheduled(fixedDelayString = "${store.datasource.lag-check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            Double lagSeconds;
+            try {
+                lagSeconds = new JdbcTemplate(replica.dataSource).queryForObject(lagQuery, Double.class);
+            } catch (DataAccessException ex) {
+                replica.markUnavailable("cannot be checked", ex);
+                continue;
+            }
+
+            Duration lag = Duration.ofMillis(lagSeconds == null ? 0 : (long) (lagSeconds * 1000));
+            if (lag.compareTo(maximumLag) > 0) {
+                replica.markUnavailable(String.format("lags %d ms behind", lag.toMillis()), null);
+            } else if (!replica.available) {
+                log.info("Replica '{}' is {} ms behind, using it for reads", replica.name, lag.toMillis());
+                replica.available = true;
+            }
+        }
+    }
+
+    boolean isAvailable(String replicaName) {
+        return replicas.stream().anyMatch(replica -> replica.name.equals(replicaName) && replica.available);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        void markUnavailable(String reason, Exception ex) {
+            if (available) {
+                log.warn("Replica '{}' {}, reading from the primary until it recovers", name, reason, ex);
+                available = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookCursorPage implements Serializable {
+    private List<BookDto> content;
+    /**
+     * Opaque token to pass as {@code cursor} to fetch the next page, {@code null} on the last page.
+     */
+    private String nextCursor;
+}
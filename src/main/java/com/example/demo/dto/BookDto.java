@@ -14,7 +14,7 @@ import java.io.Serializable;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class BookDto implements Serializable {
+public class BookDto implements Serializable, Versioned {
     @NotNull(message = "ISBN cannot be null")
     @Size(min = 10, max = 13, message = "ISBN must be between 10 and 13 characters")
     private String isbn;
@@ -26,4 +26,10 @@ public class BookDto implements Serializable {
     private long authorId;
 
     private String authorName;
+
+    private long version;
+
+    public BookDto(String isbn, String title, long authorId, String authorName) {
+        this(isbn, title, authorId, authorName, 0);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookImportErrorDto implements Serializable {
+    /**
+     * Line number in the imported file, starting at 1.
+     */
+    private long line;
+    private String isbn;
+    private String message;
+}
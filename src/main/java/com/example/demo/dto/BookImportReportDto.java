@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookImportReportDto implements Serializable {
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsFailed;
+    private long durationMillis;
+    private long rowsPerSecond;
+    /**
+     * The first failed rows, up to {@code store.bulk.import-maximum-reported-errors}.
+     */
+    private List<BookImportErrorDto> errors;
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CompletionDto implements Serializable {
+    private String text;
+    /**
+     * What the text completes to, {@code title} or {@code author}.
+     */
+    private String type;
+}
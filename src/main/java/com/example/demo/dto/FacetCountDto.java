@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FacetCountDto implements Serializable {
+    /**
+     * The attribute value, e.g. the author ID.
+     */
+    private String value;
+    /**
+     * Display name of the value, e.g. the author name.
+     */
+    private String label;
+    private long count;
+}
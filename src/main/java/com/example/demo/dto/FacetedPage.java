@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import lombok.Getter;
+
+/**
+ * A page of results with the number of matching books per value of the requested facets, e.g. per author.
+ */
+@Getter
+public class FacetedPage<T> extends PageImpl<T> {
+
+    private final transient Map<String, List<FacetCountDto>> facets;
+
+    public FacetedPage(Page<T> page, Map<String, List<FacetCountDto>> facets) {
+        super(page.getContent(), page.getPageable(), page.getTotalElements());
+        this.facets = facets;
+    }
+}
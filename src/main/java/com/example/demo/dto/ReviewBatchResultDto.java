@@ -0,0 +1,28 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ReviewBatchResultDto implements Serializable {
+    /**
+     * Position of the review in the submitted batch, starting at 0.
+     */
+    private int index;
+    /**
+     * HTTP status the review would have been answered with on its own, e.g. 201 or 404.
+     */
+    private int status;
+    /**
+     * The stored review, {@code null} unless it was stored.
+     */
+    private ReviewDto review;
+    private String error;
+}
@@ -12,11 +12,16 @@ import java.io.Serializable;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class ReviewDto implements Serializable {
+public class ReviewDto implements Serializable, Versioned {
     private int id;
     @NotBlank(message = "Reviewer name cannot be blank")
     private String reviewerName;
     @NotBlank(message = "Content cannot be blank")
     private String content;
     private String bookIsbn;
+    private long version;
+
+    public ReviewDto(int id, String reviewerName, String content, String bookIsbn) {
+        this(id, reviewerName, content, bookIsbn, 0);
+    }
 }
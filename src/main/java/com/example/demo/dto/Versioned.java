@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+/**
+ * A DTO of an entity with a version column. Every update increments the version, which is sent as the {@code ETag}
+ * and orders the writes to the caches.
+ */
+public interface Versioned {
+
+    long getVersion();
+}
@@ -1,5 +1,6 @@
 package com.example.demo.entity;
 
+import java.time.Instant;
 import java.util.List;
 
 import lombok.AllArgsConstructor;
@@ -7,6 +8,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import org.hibernate.annotations.SQLRestriction;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
@@ -14,6 +17,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
 @Data
@@ -21,6 +25,7 @@ import jakarta.persistence.Table;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "book", schema = "online_book_store")
+@SQLRestriction("deleted_at is null")
 public class Book {
     @Id
     private String isbn;
@@ -30,4 +35,10 @@ public class Book {
     private Author author;
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL)
     private List<Review> reviews;
+    @Version
+    private long version;
+    /**
+     * Set once the book is soft deleted, such books are left out of every query until they are purged.
+     */
+    private Instant deletedAt;
 }
\ No newline at end of file
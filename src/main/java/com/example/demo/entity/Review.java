@@ -9,6 +9,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Data
 @Entity
@@ -22,4 +23,6 @@ public class Review {
     private Book book;
     private String reviewerName;
     private String content;
+    @Version
+    private long version;
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.FacetCountDto;
+
+/**
+ * The in-memory structures of the {@link CatalogIndex}: the inverted index for search, the title and author name
+ * completions for autocomplete and the facet bitmaps, kept in step per book. Not thread safe.
+ */
+final class Catalog {
+
+    private final InvertedIndex words = new InvertedIndex();
+    private final CompletionIndex titles = new CompletionIndex("title");
+    private final CompletionIndex authors = new CompletionIndex("author");
+    private final FacetIndex authorFacet = new FacetIndex();
+    private final Map<String, FacetIndex> facets = Map.of("author", authorFacet);
+    private int[] titleCompletions = new int[16];
+    private int[] authorCompletions = new int[16];
+
+    /**
+     * Indexes the book, replacing its previous version. The popularity adds to the weight of its title and author
+     * completions.
+     */
+    void add(BookDto book, double popularity) {
+        remove(book.getIsbn());
+        int ordinal = words.add(book);
+        if (ordinal >= titleCompletions.length) {
+            titleCompletions = Arrays.copyOf(titleCompletions, ordinal + (ordinal >> 1) + 1);
+            authorCompletions = Arrays.copyOf(authorCompletions, titleCompletions.length);
+        }
+        titleCompletions[ordinal] = titles.add(book.getTitle(), popularity);
+        authorCompletions[ordinal] = authors.add(book.getAuthorName(), popularity);
+        authorFacet.add(ordinal, String.valueOf(book.getAuthorId()), book.getAuthorName());
+    }
+
+    void remove(String isbn) {
+        int ordinal = words.remove(isbn);
+        if (ordinal >= 0) {
+            titles.release(titleCompletions[ordinal]);
+            authors.release(authorCompletions[ordinal]);
+            facets.values().forEach(facet -> facet.remove(ordinal));
+        }
+    }
+
+    /**
+     * Compacts the structures once the bulk of the books has been added.
+     */
+    void freeze() {
+        words.trim();
+        int[] newTitleIds = titles.freeze();
+        int[] newAuthorIds = authors.freeze();
+        int books = words.ordinalCount();
+        titleCompletions = Arrays.copyOf(titleCompletions, books);
+        authorCompletions = Arrays.copyOf(authorCompletions, books);
+        facets.values().forEach(facet -> facet.trim(books));
+        for (int ordinal = 0; ordinal < books; ordinal++) {
+            titleCompletions[ordinal] = newTitleIds[titleCompletions[ordinal]];
+            authorCompletions[ordinal] = newAuthorIds[authorCompletions[ordinal]];
+        }
+    }
+
+    SearchHits search(List<List<String>> disjunction, long offset, int limit, Set<String> facetNames,
+            int facetLimit) {
+        CompactBitmap matched = facetNames.isEmpty() ? null : new CompactBitmap();
+        SearchHits hits = words.search(disjunction, offset, limit, matched);
+        return new SearchHits(hits.isbns(), hits.totalHits(), countFacets(matched, facetNames, facetLimit));
+    }
+
+    SearchHits searchSimilar(List<String> titleWords, List<String> authorWords, int maxEdits, long deadlineNanos,
+            long offset, int limit, Set<String> facetNames, int facetLimit) {
+        CompactBitmap matched = facetNames.isEmpty() ? null : new CompactBitmap();
+        SearchHits hits = words.searchSimilar(titleWords, authorWords, maxEdits, deadlineNanos, offset, limit,
+                matched);
+        return new SearchHits(hits.isbns(), hits.totalHits(), countFacets(matched, facetNames, facetLimit));
+    }
+
+    /**
+     * @return the {@code limit} values with the most books per facet, among the matched books or among all books if
+     *         {@code matched} is {@code null}
+     */
+    Map<String, List<FacetCountDto>> countFacets(CompactBitmap matched, Set<String> facetNames, int limit) {
+        Map<String, List<FacetCountDto>> counts = new HashMap<>();
+        for (String facetName : facetNames) {
+            counts.put(facetName, facets.get(facetName).count(matched, limit));
+        }
+        return counts;
+    }
+
+    /**
+     * @return the most popular title and author name completions of the prefix, most popular first
+     */
+    List<CompletionIndex.Completion> complete(String prefix, int limit) {
+        List<CompletionIndex.Completion> completions = new ArrayList<>(titles.complete(prefix, limit));
+        completions.addAll(authors.complete(prefix, limit));
+        completions.sort(Comparator.comparingDouble(CompletionIndex.Completion::weight).reversed());
+        return completions.size() > limit ? List.copyOf(completions.subList(0, limit)) : completions;
+    }
+
+    int size() {
+        return words.size();
+    }
+
+    /**
+     * Whether enough books were replaced or added since the last rebuild that the structures should be rebuilt.
+     */
+    boolean isDegraded(double maximumChangedRatio) {
+        return words.deletedRatio() > maximumChangedRatio
+                || titles.overlaySize() + authors.overlaySize() > size() * maximumChangedRatio;
+    }
+}
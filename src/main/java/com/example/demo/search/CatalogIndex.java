@@ -0,0 +1,319 @@
+package com.example.demo.search;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.example.demo.cache.CacheInvalidationBus;
+import com.example.demo.cache.HotKeyTracker;
+import com.example.demo.dao.BookRepository;
+import com.example.demo.datasource.ReadYourWrites;
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.CompletionDto;
+import com.example.demo.dto.FacetCountDto;
+import com.example.demo.entity.QBook;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory full-text index, autocomplete and facet counts over the titles and author names of the whole catalog.
+ * <p>
+ * The index is built from Postgres on startup and kept up to date by {@link #index(BookDto)} and
+ * {@link #remove(String)}. Changes are broadcast over the {@link CacheInvalidationBus}, other nodes re-read the
+ * affected book. Queries run under a read lock and may run concurrently; changes take the write lock for the few
+ * microseconds needed to update the posting lists. Until the index has been built, {@link #search} returns nothing
+ * and callers fall back to Postgres.
+ */
+@Slf4j
+@Component
+public class CatalogIndex {
+
+    /**
+     * Attributes the matching books can be counted by.
+     */
+    public static final Set<String> FACETS = Set.of("author");
+    /**
+     * Number of values with the most books reported per facet.
+     */
+    public static final int FACET_SIZE = 10;
+    static final String CHANNEL_NAME = "catalog-index";
+    private static final String BOOK_CACHE_NAME = "book";
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CacheInvalidationBus invalidationBus;
+    private final HotKeyTracker hotKeyTracker;
+    private final SearchProperties.Index properties;
+    private final SearchProperties.Fuzzy fuzzyProperties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Catalog index;
+    private Instant lastBuilt = Instant.EPOCH;
+    private Map<String, BookDto> changedDuringRebuild;
+
+    public CatalogIndex(BookRepository bookRepository, PlatformTransactionManager transactionManager,
+            CacheInvalidationBus invalidationBus, HotKeyTracker hotKeyTracker, SearchProperties searchProperties) {
+        this.bookRepository = bookRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.invalidationBus = invalidationBus;
+        this.hotKeyTracker = hotKeyTracker;
+        this.properties = searchProperties.getIndex();
+        this.fuzzyProperties = searchProperties.getFuzzy();
+        invalidationBus.register(CHANNEL_NAME, this::reload);
+    }
+
+    /**
+     * Searches for books whose title or author name contains all words of the query. Groups of words separated by
+     * {@code OR} are alternatives, e.g. "lord rings OR hobbit". The matching books are also counted by each of the
+     * {@code facets}.
+     *
+     * @return empty while the index is not available
+     */
+    public Optional<SearchHits> search(String query, long offset, int limit, Set<String> facets) {
+        List<List<String>> disjunction = Arrays.stream(query.trim().split("\\s+OR\\s+")).map(Tokenizer::tokenize)
+                .filter(terms -> !terms.isEmpty()).toList();
+        lock.readLock().lock();
+        try {
+            return index == null
+                    ? Optional.empty()
+                    : Optional.of(index.search(disjunction, offset, limit, facets, FACET_SIZE));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Typo-tolerant title and author filter: finds books whose title contains words similar to those of
+     * {@code title} and whose author name contains words similar to those of {@code author}, either may be
+     * {@code null}. Similar words are found within the configured edit distance and time budget. The matching books
+     * are also counted by each of the {@code facets}.
+     *
+     * @return empty while the index is not available
+     */
+    public Optional<SearchHits> searchSimilar(String title, String author, long offset, int limit,
+            Set<String> facets) {
+        long deadlineNanos = System.nanoTime() + fuzzyProperties.getTimeBudget().toNanos();
+        List<String> titleWords = title != null ? Tokenizer.tokenize(title) : List.of();
+        List<String> authorWords = author != null ? Tokenizer.tokenize(author) : List.of();
+        lock.readLock().lock();
+        try {
+            return index == null
+                    ? Optional.empty()
+                    : Optional.of(index.searchSimilar(titleWords, authorWords, fuzzyProperties.getMaxEdits(),
+                            deadlineNanos, offset, limit, facets, FACET_SIZE));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the whole catalog by each of the {@code facets} from the facet bitmaps.
+     *
+     * @return empty while the index is not available
+     */
+    public Optional<Map<String, List<FacetCountDto>>> countFacets(Set<String> facets) {
+        lock.readLock().lock();
+        try {
+            return index == null ? Optional.empty() : Optional.of(index.countFacets(null, facets, FACET_SIZE));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Completes a prefix to the most popular book titles and author names starting with it. Popularity is the number
+     * of requests for the books as tracked for the cache warm-up, as of the last rebuild.
+     *
+     * @return empty while the index is not available
+     */
+    public Optional<List<CompletionDto>> complete(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return index == null
+                    ? Optional.empty()
+                    : Optional.of(index.complete(prefix, limit).stream()
+                            .map(completion -> new CompletionDto(completion.text(), completion.kind())).toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(BookDto book) {
+        apply(book.getIsbn(), book);
+        invalidationBus.publish(CHANNEL_NAME, book.getIsbn());
+    }
+
+    /**
+     * Indexes many books under one write lock and with a single broadcast, used by bulk imports.
+     */
+    public void indexAll(List<BookDto> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            books.forEach(book -> apply(book.getIsbn(), book));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        invalidationBus.publish(CHANNEL_NAME, new ArrayList<>(books.stream().map(BookDto::getIsbn).toList()));
+    }
+
+    public void remove(String isbn) {
+        apply(isbn, null);
+        invalidationBus.publish(CHANNEL_NAME, isbn);
+    }
+
+    /**
+     * Re-indexes the books of an author after the author's name changed.
+     */
+    public void reindexAuthor(long authorId) {
+        indexAll(bookRepository.findAllAsDto(QBook.book.author.id.eq((int) authorId), Pageable.unpaged())
+                .getContent());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${store.search.index.check-interval:PT1M}",
+            fixedDelayString = "${store.search.index.check-interval:PT1M}")
+    public void rebuildIfDegraded() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        boolean rebuild;
+        lock.readLock().lock();
+        try {
+            rebuild = index == null || index.isDegraded(properties.getMaximumChangedRatio())
+                    || Instant.now().isAfter(lastBuilt.plus(properties.getRebuildInterval()));
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (rebuild) {
+            rebuild();
+        }
+    }
+
+    void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                return;
+            }
+            changedDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Catalog rebuiltIndex = new Catalog();
+        boolean built = false;
+        try {
+            Map<String, Double> popularity = popularity();
+            ReadYourWrites.fromPrimary(() -> readOnlyTransaction.execute(status -> {
+                try (Stream<BookDto> books = bookRepository.streamAllAsDto()) {
+                    books.forEach(book -> rebuiltIndex.add(book, popularity.getOrDefault(book.getIsbn(), 1.0)));
+                }
+                return null;
+            }));
+            rebuiltIndex.freeze();
+            built = true;
+        } catch (RuntimeException ex) {
+            log.warn("Unable to build the catalog index", ex);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (built) {
+                    changedDuringRebuild.forEach((isbn, book) -> apply(rebuiltIndex, isbn, book));
+                    index = rebuiltIndex;
+                    lastBuilt = Instant.now();
+                    log.info("Catalog index built with {} books", rebuiltIndex.size());
+                }
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Weighs each book by one plus its request count, the books are usually not tracked beyond the most requested
+     * thousand.
+     */
+    private Map<String, Double> popularity() {
+        try {
+            Map<String, Double> popularity = new HashMap<>();
+            hotKeyTracker.topKeysWithScores(BOOK_CACHE_NAME, Integer.MAX_VALUE)
+                    .forEach((isbn, requests) -> popularity.put(isbn, 1 + requests));
+            return popularity;
+        } catch (RuntimeException ex) {
+            log.warn("Unable to read the popularity of books, completions are ranked by number of books", ex);
+            return Map.of();
+        }
+    }
+
+    /**
+     * Re-reads the books changed on another node, the key is an ISBN or a list of ISBNs.
+     */
+    private void reload(Object key) {
+        if (key instanceof Collection<?> keys) {
+            List<String> isbns = keys.stream().map(String.class::cast).toList();
+            Map<String, BookDto> books = bookRepository.findAllAsDto(QBook.book.isbn.in(isbns), Pageable.unpaged())
+                    .stream().collect(Collectors.toMap(BookDto::getIsbn, Function.identity()));
+            isbns.forEach(isbn -> apply(isbn, books.get(isbn)));
+        } else {
+            String isbn = (String) key;
+            apply(isbn, bookRepository.findDtoByIsbn(isbn).orElse(null));
+        }
+    }
+
+    /**
+     * Indexes the book, or removes the ISBN if {@code book} is {@code null}.
+     */
+    private void apply(String isbn, BookDto book) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                apply(index, isbn, book);
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(isbn, book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Catalog index, String isbn, BookDto book) {
+        if (book != null) {
+            index.add(book, 1);
+        } else {
+            index.remove(isbn);
+        }
+    }
+}
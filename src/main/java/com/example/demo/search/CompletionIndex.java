@@ -0,0 +1,230 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Weighted completions of one kind, e.g. titles, answering the most popular completions for a prefix.
+ * <p>
+ * Completions are kept in sorted arrays, so all completions of a prefix form one contiguous range found by binary
+ * search, and a max segment tree over the weights yields the best completions of that range in
+ * {@code O(limit * log n)} without visiting the rest of it. Each completion counts the books it stands for and is
+ * hidden once none is left. Completions that did not exist when the arrays were frozen go to a small sorted overlay
+ * until the next rebuild. Not thread safe, {@link CatalogIndex} guards it with a read-write lock.
+ */
+final class CompletionIndex {
+
+    private final String kind;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] keys = new String[0];
+    private String[] texts = new String[0];
+    private double[] weights = new double[0];
+    private int[] books = new int[0];
+    private int frozenSize;
+    private int size;
+    private double[] tree = new double[0];
+    private final TreeMap<String, Integer> overlay = new TreeMap<>();
+
+    CompletionIndex(String kind) {
+        this.kind = kind;
+    }
+
+    /**
+     * Adds a book to the completion of its text and returns the completion id, creating the completion if needed.
+     */
+    int add(String text, double weight) {
+        String key = key(text);
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = size++;
+            ensureCapacity(size);
+            keys[id] = key;
+            texts[id] = text.trim();
+            ids.put(key, id);
+            overlay.put(key, id);
+        }
+        weights[id] += weight;
+        books[id]++;
+        update(id);
+        return id;
+    }
+
+    /**
+     * Removes a book from a completion previously returned by {@link #add}.
+     */
+    void release(int id) {
+        if (books[id] > 0) {
+            books[id]--;
+            update(id);
+        }
+    }
+
+    /**
+     * Sorts all completions added so far into the arrays and builds the segment tree, called once after the bulk
+     * load. Ids returned before are invalidated, the returned array maps them to the new ids.
+     */
+    int[] freeze() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> keys[i]));
+
+        int[] newIds = new int[size];
+        String[] sortedKeys = new String[size];
+        String[] sortedTexts = new String[size];
+        double[] sortedWeights = new double[size];
+        int[] sortedBooks = new int[size];
+        for (int i = 0; i < size; i++) {
+            int id = order[i];
+            newIds[id] = i;
+            sortedKeys[i] = keys[id];
+            sortedTexts[i] = texts[id];
+            sortedWeights[i] = weights[id];
+            sortedBooks[i] = books[id];
+            ids.put(keys[id], i);
+        }
+        keys = sortedKeys;
+        texts = sortedTexts;
+        weights = sortedWeights;
+        books = sortedBooks;
+        frozenSize = size;
+        overlay.clear();
+
+        tree = new double[2 * Math.max(1, frozenSize)];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < frozenSize; i++) {
+            tree[frozenSize + i] = books[i] > 0 ? weights[i] : -1;
+        }
+        for (int node = frozenSize - 1; node > 0; node--) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+        return newIds;
+    }
+
+    int overlaySize() {
+        return overlay.size();
+    }
+
+    int size() {
+        return frozenSize;
+    }
+
+    /**
+     * @return up to {@code limit} completions starting with the prefix, most popular first
+     */
+    List<Completion> complete(String prefix, int limit) {
+        String from = key(prefix);
+        String to = from + Character.MAX_VALUE;
+        int low = lowerBound(from);
+        int high = lowerBound(to);
+
+        List<Completion> completions = new ArrayList<>(limit);
+        PriorityQueue<int[]> ranges = new PriorityQueue<>(
+                Comparator.comparingDouble((int[] range) -> weights[range[2]]).reversed());
+        offerRange(ranges, low, high);
+        while (!ranges.isEmpty() && completions.size() < limit) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            completions.add(new Completion(texts[best], kind, weights[best]));
+            offerRange(ranges, range[0], best);
+            offerRange(ranges, best + 1, range[1]);
+        }
+
+        for (int id : overlay.subMap(from, to).values()) {
+            if (books[id] > 0) {
+                completions.add(new Completion(texts[id], kind, weights[id]));
+            }
+        }
+        completions.sort(Comparator.comparingDouble(Completion::weight).reversed());
+        return completions.size() > limit ? List.copyOf(completions.subList(0, limit)) : completions;
+    }
+
+    static String key(String text) {
+        return String.join(" ", Tokenizer.tokenize(text));
+    }
+
+    private void offerRange(PriorityQueue<int[]> ranges, int low, int high) {
+        int best = maxIndex(low, high);
+        if (best >= 0) {
+            ranges.add(new int[] {low, high, best});
+        }
+    }
+
+    /**
+     * @return the index of the heaviest visible completion in {@code [low, high)}, -1 if there is none
+     */
+    private int maxIndex(int low, int high) {
+        double max = -1;
+        int node = -1;
+        for (int left = low + frozenSize, right = high + frozenSize; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                if (tree[left] > max) {
+                    max = tree[left];
+                    node = left;
+                }
+                left++;
+            }
+            if ((right & 1) == 1) {
+                right--;
+                if (tree[right] > max) {
+                    max = tree[right];
+                    node = right;
+                }
+            }
+        }
+        if (node < 0) {
+            return -1;
+        }
+
+        while (node < frozenSize) {
+            node = tree[2 * node] == tree[node] ? 2 * node : 2 * node + 1;
+        }
+        return node - frozenSize;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = frozenSize;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void update(int id) {
+        if (id >= frozenSize) {
+            return;
+        }
+
+        int node = frozenSize + id;
+        tree[node] = books[id] > 0 ? weights[id] : -1;
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newLength = Math.max(capacity, keys.length + (keys.length >> 1) + 16);
+            keys = Arrays.copyOf(keys, newLength);
+            texts = Arrays.copyOf(texts, newLength);
+            weights = Arrays.copyOf(weights, newLength);
+            books = Arrays.copyOf(books, newLength);
+        }
+    }
+
+    record Completion(String text, String kind, double weight) {
+    }
+}
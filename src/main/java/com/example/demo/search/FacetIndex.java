@@ -0,0 +1,63 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.dto.FacetCountDto;
+
+/**
+ * Maps each value of one book attribute, e.g. the author, to the bitmap of the ordinals of its books. The number of
+ * matching books per value is the cardinality of the intersection of its bitmap with the bitmap of the matches.
+ * Replaced and removed books are taken out of the bitmaps right away. Not thread safe, {@link CatalogIndex} guards it
+ * with a read-write lock.
+ */
+final class FacetIndex {
+
+    private final Map<String, CompactBitmap> books = new HashMap<>();
+    private final Map<String, String> labels = new HashMap<>();
+    private String[] values = new String[16];
+
+    void add(int ordinal, String value, String label) {
+        if (ordinal >= values.length) {
+            values = Arrays.copyOf(values, ordinal + (ordinal >> 1) + 1);
+        }
+        values[ordinal] = value;
+        books.computeIfAbsent(value, key -> new CompactBitmap()).add(ordinal);
+        labels.put(value, label);
+    }
+
+    void remove(int ordinal) {
+        String value = values[ordinal];
+        CompactBitmap bitmap = books.get(value);
+        bitmap.remove(ordinal);
+        if (bitmap.cardinality() == 0) {
+            books.remove(value);
+            labels.remove(value);
+        }
+    }
+
+    void trim(int ordinalCount) {
+        values = Arrays.copyOf(values, ordinalCount);
+    }
+
+    /**
+     * @return the {@code limit} values with the most books among the matches, all books if {@code matches} is
+     *         {@code null}
+     */
+    List<FacetCountDto> count(CompactBitmap matches, int limit) {
+        List<FacetCountDto> counts = new ArrayList<>();
+        books.forEach((value, bitmap) -> {
+            long count = matches == null ? bitmap.cardinality() : bitmap.andCardinality(matches);
+            if (count > 0) {
+                counts.add(new FacetCountDto(value, labels.get(value), count));
+            }
+        });
+        counts.sort(Comparator.comparingLong(FacetCountDto::getCount).reversed()
+                .thenComparing(FacetCountDto::getLabel, Comparator.nullsLast(Comparator.naturalOrder())));
+        return counts.size() > limit ? List.copyOf(counts.subList(0, limit)) : counts;
+    }
+}
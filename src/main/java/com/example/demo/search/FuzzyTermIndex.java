@@ -0,0 +1,119 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the indexed terms within a bounded edit distance of a misspelled word.
+ * <p>
+ * Every term is indexed under the bigrams of its padded form, {@code "$tolkien$"}. A single edit changes at most two
+ * bigrams, so a term within {@code k} edits shares at least {@code bigrams - 2k} of them with the word. Only terms
+ * reaching that count and of a similar length are verified with a banded Levenshtein distance. Not thread safe.
+ */
+final class FuzzyTermIndex {
+
+    private static final char PADDING = '$';
+
+    private final List<String> terms = new ArrayList<>();
+    private final Map<String, PostingList> bigrams = new HashMap<>();
+
+    void add(String term) {
+        int id = terms.size();
+        terms.add(term);
+        for (String bigram : bigramsOf(term)) {
+            bigrams.computeIfAbsent(bigram, key -> new PostingList()).add(id);
+        }
+    }
+
+    void trim() {
+        bigrams.values().forEach(PostingList::trim);
+    }
+
+    /**
+     * @return the terms within {@code maxEdits} of the word with their distance, found before the deadline
+     */
+    Map<String, Integer> similarTerms(String word, int maxEdits, long deadlineNanos) {
+        List<String> wordBigrams = bigramsOf(word);
+        int minimumShared = wordBigrams.size() - 2 * maxEdits;
+        Map<String, Integer> similar = new LinkedHashMap<>();
+        if (minimumShared < 1) {
+            return similar;
+        }
+
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String bigram : wordBigrams) {
+            PostingList postings = bigrams.get(bigram);
+            for (int i = 0; postings != null && i < postings.size(); i++) {
+                shared.merge(postings.get(i), 1, Integer::sum);
+            }
+            if (System.nanoTime() > deadlineNanos) {
+                break;
+            }
+        }
+
+        for (Map.Entry<Integer, Integer> candidate : shared.entrySet()) {
+            String term = terms.get(candidate.getKey());
+            if (candidate.getValue() >= minimumShared && Math.abs(term.length() - word.length()) <= maxEdits) {
+                int distance = distance(word, term, maxEdits);
+                if (distance <= maxEdits) {
+                    similar.put(term, distance);
+                }
+            }
+        }
+        return similar;
+    }
+
+    /**
+     * Levenshtein distance computed only within the diagonal band of width {@code 2 * maxEdits + 1}.
+     *
+     * @return the distance, or {@code maxEdits + 1} if it exceeds {@code maxEdits}
+     */
+    static int distance(String left, String right, int maxEdits) {
+        int outOfBand = maxEdits + 1;
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++) {
+            previous[j] = j <= maxEdits ? j : outOfBand;
+        }
+
+        for (int i = 1; i <= left.length(); i++) {
+            int from = Math.max(1, i - maxEdits);
+            int to = Math.min(right.length(), i + maxEdits);
+            current[0] = i <= maxEdits ? i : outOfBand;
+            if (from > 1) {
+                current[from - 1] = outOfBand;
+            }
+            int rowMinimum = current[0];
+            for (int j = from; j <= to; j++) {
+                int substitution = previous[j - 1] + (left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1);
+                int deletion = previous[j] + 1;
+                int insertion = current[j - 1] + 1;
+                current[j] = Math.min(outOfBand, Math.min(substitution, Math.min(deletion, insertion)));
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (to < right.length()) {
+                current[to + 1] = outOfBand;
+            }
+            if (rowMinimum > maxEdits) {
+                return outOfBand;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[right.length()], outOfBand);
+    }
+
+    private static List<String> bigramsOf(String term) {
+        String padded = PADDING + term + PADDING;
+        List<String> result = new ArrayList<>(padded.length() - 1);
+        for (int i = 0; i < padded.length() - 1; i++) {
+            result.add(padded.substring(i, i + 2));
+        }
+        return result;
+    }
+}
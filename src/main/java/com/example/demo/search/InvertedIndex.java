@@ -0,0 +1,290 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.example.demo.dto.BookDto;
+
+/**
+ * Inverted index from title and author name words to book ordinals.
+ * <p>
+ * Every indexed version of a book gets the next ordinal, so posting lists stay sorted by construction. Replaced and
+ * removed books are only marked as deleted and skipped when evaluating queries until the index is rebuilt. Not thread
+ * safe, {@link CatalogIndex} guards it with a read-write lock.
+ */
+final class InvertedIndex {
+
+    private static final float TITLE_WEIGHT = 2;
+    private static final float AUTHOR_WEIGHT = 1;
+
+    private final Map<String, PostingList> titleTerms = new HashMap<>();
+    private final Map<String, PostingList> authorTerms = new HashMap<>();
+    private final FuzzyTermIndex similarTitleTerms = new FuzzyTermIndex();
+    private final FuzzyTermIndex similarAuthorTerms = new FuzzyTermIndex();
+    private final List<String> isbns = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    /**
+     * Indexes the book under a new ordinal, replacing its previous version.
+     *
+     * @return the ordinal of the book
+     */
+    int add(BookDto book) {
+        remove(book.getIsbn());
+        int ordinal = isbns.size();
+        isbns.add(book.getIsbn());
+        ordinals.put(book.getIsbn(), ordinal);
+        for (String term : Tokenizer.tokenize(book.getTitle())) {
+            titleTerms.computeIfAbsent(term, key -> newTerm(similarTitleTerms, key)).add(ordinal);
+        }
+        for (String term : Tokenizer.tokenize(book.getAuthorName())) {
+            authorTerms.computeIfAbsent(term, key -> newTerm(similarAuthorTerms, key)).add(ordinal);
+        }
+        return ordinal;
+    }
+
+    /**
+     * @return the ordinal the book was indexed under, -1 if it was not indexed
+     */
+    int remove(String isbn) {
+        Integer ordinal = ordinals.remove(isbn);
+        if (ordinal == null) {
+            return -1;
+        }
+
+        deleted.set(ordinal);
+        return ordinal;
+    }
+
+    /**
+     * Releases the spare capacity of the posting lists once the bulk of the books has been added.
+     */
+    void trim() {
+        titleTerms.values().forEach(PostingList::trim);
+        authorTerms.values().forEach(PostingList::trim);
+        similarTitleTerms.trim();
+        similarAuthorTerms.trim();
+    }
+
+    int size() {
+        return ordinals.size();
+    }
+
+    /**
+     * @return the number of ordinals handed out, including those of replaced and removed books
+     */
+    int ordinalCount() {
+        return isbns.size();
+    }
+
+    double deletedRatio() {
+        return isbns.isEmpty() ? 0 : deleted.cardinality() / (double) isbns.size();
+    }
+
+    /**
+     * Evaluates a disjunction of conjunctions of terms, e.g. {@code [[lord, rings], [hobbit]]} for "lord rings OR
+     * hobbit". A term matches a book if it occurs in its title or author name. Books are scored by the inverse
+     * document frequency of the matched terms, title matches counting double, and the best {@code limit} books after
+     * skipping {@code offset} are returned.
+     */
+    SearchHits search(List<List<String>> disjunction, long offset, int limit) {
+        return search(disjunction, offset, limit, null);
+    }
+
+    /**
+     * Same as {@link #search(List, long, int)}, also adding the ordinals of all matching books to {@code matched}
+     * unless it is {@code null}.
+     */
+    SearchHits search(List<List<String>> disjunction, long offset, int limit, CompactBitmap matched) {
+        Matches matches = null;
+        for (List<String> conjunction : disjunction) {
+            Matches conjunctionMatches = null;
+            for (String term : conjunction) {
+                Matches termMatches = matchesOf(term);
+                conjunctionMatches = conjunctionMatches == null ? termMatches : conjunctionMatches.and(termMatches);
+                if (conjunctionMatches.size == 0) {
+                    break;
+                }
+            }
+            if (conjunctionMatches != null) {
+                matches = matches == null ? conjunctionMatches : matches.or(conjunctionMatches);
+            }
+        }
+        return matches == null ? new SearchHits(List.of(), 0) : topHits(matches, offset, limit, matched);
+    }
+
+    /**
+     * Typo-tolerant variant of a title and author filter: finds the books whose title contains a word similar to each
+     * of {@code titleWords} and whose author name contains a word similar to each of {@code authorWords}. Words of up
+     * to two letters must match exactly, words of up to five letters may be one edit away and longer words
+     * {@code maxEdits}. Matches are scored by inverse document frequency, divided by one plus the edit distance so
+     * exact matches rank first. Similar words are looked up until the deadline, words not reached by then only match
+     * exactly.
+     */
+    SearchHits searchSimilar(List<String> titleWords, List<String> authorWords, int maxEdits, long deadlineNanos,
+            long offset, int limit) {
+        return searchSimilar(titleWords, authorWords, maxEdits, deadlineNanos, offset, limit, null);
+    }
+
+    SearchHits searchSimilar(List<String> titleWords, List<String> authorWords, int maxEdits, long deadlineNanos,
+            long offset, int limit, CompactBitmap matched) {
+        Matches matches = null;
+        for (String word : titleWords) {
+            Matches wordMatches = similarMatchesOf(word, titleTerms, similarTitleTerms, TITLE_WEIGHT, maxEdits,
+                    deadlineNanos);
+            matches = matches == null ? wordMatches : matches.and(wordMatches);
+        }
+        for (String word : authorWords) {
+            Matches wordMatches = similarMatchesOf(word, authorTerms, similarAuthorTerms, AUTHOR_WEIGHT, maxEdits,
+                    deadlineNanos);
+            matches = matches == null ? wordMatches : matches.and(wordMatches);
+        }
+        return matches == null ? new SearchHits(List.of(), 0) : topHits(matches, offset, limit, matched);
+    }
+
+    private Matches similarMatchesOf(String word, Map<String, PostingList> terms, FuzzyTermIndex similarTerms,
+            float weight, int maxEdits, long deadlineNanos) {
+        int allowedEdits = word.length() <= 2 ? 0 : word.length() <= 5 ? Math.min(1, maxEdits) : maxEdits;
+        Map<String, Integer> similar = allowedEdits > 0 && System.nanoTime() < deadlineNanos
+                ? similarTerms.similarTerms(word, allowedEdits, deadlineNanos)
+                : Map.of(word, 0);
+
+        Matches matches = Matches.EMPTY;
+        for (Map.Entry<String, Integer> term : similar.entrySet()) {
+            PostingList postings = terms.get(term.getKey());
+            if (postings != null) {
+                float idf = (float) Math.log(1 + (double) isbns.size() / postings.size());
+                matches = matches.or(Matches.of(postings, weight * idf / (1 + term.getValue())));
+            }
+        }
+        return matches;
+    }
+
+    private static PostingList newTerm(FuzzyTermIndex similarTerms, String term) {
+        similarTerms.add(term);
+        return new PostingList();
+    }
+
+    private Matches matchesOf(String term) {
+        PostingList titlePostings = titleTerms.get(term);
+        PostingList authorPostings = authorTerms.get(term);
+        int documentFrequency = (titlePostings != null ? titlePostings.size() : 0)
+                + (authorPostings != null ? authorPostings.size() : 0);
+        if (documentFrequency == 0) {
+            return Matches.EMPTY;
+        }
+
+        float idf = (float) Math.log(1 + (double) isbns.size() / documentFrequency);
+        return Matches.of(titlePostings, TITLE_WEIGHT * idf).or(Matches.of(authorPostings, AUTHOR_WEIGHT * idf));
+    }
+
+    private SearchHits topHits(Matches matches, long offset, int limit, CompactBitmap matched) {
+        long wanted = offset + limit;
+        PriorityQueue<Integer> best = new PriorityQueue<>((left, right) -> {
+            int byScore = Float.compare(matches.scores[left], matches.scores[right]);
+            return byScore != 0 ? byScore : Integer.compare(matches.ordinals[right], matches.ordinals[left]);
+        });
+
+        long totalHits = 0;
+        for (int i = 0; i < matches.size; i++) {
+            if (deleted.get(matches.ordinals[i])) {
+                continue;
+            }
+
+            totalHits++;
+            if (matched != null) {
+                matched.add(matches.ordinals[i]);
+            }
+            if (best.size() < wanted) {
+                best.add(i);
+            } else if (best.comparator().compare(i, best.peek()) > 0) {
+                best.poll();
+                best.add(i);
+            }
+        }
+
+        List<String> hits = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            hits.add(isbns.get(matches.ordinals[best.poll()]));
+        }
+        Collections.reverse(hits);
+        int from = (int) Math.min(offset, hits.size());
+        return new SearchHits(List.copyOf(hits.subList(from, hits.size())), totalHits);
+    }
+
+    /**
+     * Ascending ordinals with their accumulated scores.
+     */
+    private static final class Matches {
+
+        static final Matches EMPTY = new Matches(new int[0], new float[0], 0);
+
+        final int[] ordinals;
+        final float[] scores;
+        final int size;
+
+        Matches(int[] ordinals, float[] scores, int size) {
+            this.ordinals = ordinals;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        static Matches of(PostingList postings, float score) {
+            if (postings == null) {
+                return EMPTY;
+            }
+
+            int[] ordinals = new int[postings.size()];
+            float[] scores = new float[postings.size()];
+            for (int i = 0; i < ordinals.length; i++) {
+                ordinals[i] = postings.get(i);
+                scores[i] = score;
+            }
+            return new Matches(ordinals, scores, ordinals.length);
+        }
+
+        Matches and(Matches other) {
+            int[] resultOrdinals = new int[Math.min(size, other.size)];
+            float[] resultScores = new float[resultOrdinals.length];
+            int count = 0;
+            for (int i = 0, j = 0; i < size && j < other.size;) {
+                if (ordinals[i] < other.ordinals[j]) {
+                    i++;
+                } else if (ordinals[i] > other.ordinals[j]) {
+                    j++;
+                } else {
+                    resultOrdinals[count] = ordinals[i];
+                    resultScores[count++] = scores[i++] + other.scores[j++];
+                }
+            }
+            return new Matches(resultOrdinals, resultScores, count);
+        }
+
+        Matches or(Matches other) {
+            int[] resultOrdinals = new int[size + other.size];
+            float[] resultScores = new float[resultOrdinals.length];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || i < size && ordinals[i] < other.ordinals[j]) {
+                    resultOrdinals[count] = ordinals[i];
+                    resultScores[count++] = scores[i++];
+                } else if (i == size || ordinals[i] > other.ordinals[j]) {
+                    resultOrdinals[count] = other.ordinals[j];
+                    resultScores[count++] = other.scores[j++];
+                } else {
+                    resultOrdinals[count] = ordinals[i];
+                    resultScores[count++] = scores[i++] + other.scores[j++];
+                }
+            }
+            return new Matches(resultOrdinals, resultScores, count);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.search;
+
+import java.util.Arrays;
+
+/**
+ * Ascending book ordinals containing a term, kept in a primitive array. Ordinals are only ever appended as new books
+ * get higher ordinals than all existing ones.
+ */
+final class PostingList {
+
+    private int[] ordinals = new int[1];
+    private int size;
+
+    void add(int ordinal) {
+        if (size > 0 && ordinals[size - 1] == ordinal) {
+            return;
+        }
+
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size + (size >> 1) + 1);
+        }
+        ordinals[size++] = ordinal;
+    }
+
+    int get(int index) {
+        return ordinals[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void trim() {
+        if (ordinals.length > size) {
+            ordinals = Arrays.copyOf(ordinals, size);
+        }
+    }
+}
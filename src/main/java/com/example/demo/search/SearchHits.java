@@ -0,0 +1,17 @@
+package com.example.demo.search;
+
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.dto.FacetCountDto;
+
+/**
+ * ISBNs of one page of search results, most relevant first, the number of books matching in total and, for each
+ * requested facet, the number of matching books per value.
+ */
+public record SearchHits(List<String> isbns, long totalHits, Map<String, List<FacetCountDto>> facets) {
+
+    public SearchHits(List<String> isbns, long totalHits) {
+        this(isbns, totalHits, Map.of());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.search;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "store.search")
+public class SearchProperties {
+
+    private Index index = new Index();
+    private Fuzzy fuzzy = new Fuzzy();
+
+    @Data
+    public static class Index {
+        /**
+         * Whether {@code search} queries are answered from the in-memory catalog index, Postgres is used otherwise.
+         */
+        private boolean enabled = true;
+        /**
+         * Share of replaced or removed books left in the index as tombstones, or of completions added since the last
+         * rebuild, before the index is rebuilt.
+         */
+        private double maximumChangedRatio = 0.2;
+        /**
+         * How often the index is rebuilt regardless, which also refreshes the popularity autocomplete ranks by.
+         */
+        private Duration rebuildInterval = Duration.ofHours(1);
+        private Duration checkInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Fuzzy {
+        /**
+         * Edits (insertions, deletions, substitutions) a word of six letters or more may be away from a title or author
+         * name word in {@code fuzzy} mode, shorter words allow at most one.
+         */
+        private int maxEdits = 2;
+        /**
+         * Time spent looking up similar words per query, words not reached within it only match exactly.
+         */
+        private Duration timeBudget = Duration.ofMillis(50);
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.demo.service;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import com.example.demo.cache.AuthorBookIndex;
+import com.example.demo.cache.BookSearchCache;
 import com.example.demo.dao.AuthorRepository;
+import com.example.demo.datasource.ReadYourWrites;
 import com.example.demo.dto.AuthorDto;
 import com.example.demo.entity.Author;
 import com.example.demo.exception.OnlineBookStoreException;
+import com.example.demo.search.CatalogIndex;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -17,21 +25,56 @@ import lombok.extern.slf4j.Slf4j;
 public class AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final AuthorBookIndex authorBookIndex;
+    private final BookSearchCache bookSearchCache;
+    private final CatalogIndex catalogIndex;
 
-    public AuthorService(AuthorRepository authorRepository) {
+    public AuthorService(AuthorRepository authorRepository, AuthorBookIndex authorBookIndex,
+            BookSearchCache bookSearchCache, CatalogIndex catalogIndex) {
         this.authorRepository = authorRepository;
+        this.authorBookIndex = authorBookIndex;
+        this.bookSearchCache = bookSearchCache;
+        this.catalogIndex = catalogIndex;
     }
 
-    @Cacheable(value = "author", key = "#authorId")
+    /**
+     * The author is read from the primary, as it is cached for everyone and a lagging replica could still return the
+     * name from before a change.
+     */
+    @Cacheable(value = "author", key = "#authorId", sync = true)
+    @Transactional(readOnly = true)
     public AuthorDto findAuthorById(Long authorId) {
         log.info("Entering findAuthorById()");
-        Author author = fetchAuthorById(authorId)
+        Author author = ReadYourWrites.fromPrimary(() -> fetchAuthorById(authorId))
                 .orElseThrow(() -> new OnlineBookStoreException(String.format("Author not found for ID: %d", authorId),
                         HttpStatus.NOT_FOUND));
         log.info("Leaving findAuthorById()");
         return convertToDto(author);
     }
 
+    /**
+     * Cached books and search pages embed the author's name, so the books of the author are evicted and the search
+     * pages invalidated once the change is saved.
+     */
+    @CachePut(value = "author", key = "#authorId")
+    public AuthorDto modifyAuthorById(Long authorId, AuthorDto authorDto) {
+        log.info("Entering modifyAuthorById()");
+        if (authorDto.getName() == null || authorDto.getName().isBlank()) {
+            throw new OnlineBookStoreException("Author name cannot be null or empty", HttpStatus.BAD_REQUEST);
+        }
+
+        Author author = fetchAuthorById(authorId)
+                .orElseThrow(() -> new OnlineBookStoreException(String.format("Author not found for ID: %d", authorId),
+                        HttpStatus.NOT_FOUND));
+        author.setName(authorDto.getName());
+        Author updatedAuthor = authorRepository.save(author);
+        authorBookIndex.evictBooksOf(authorId);
+        bookSearchCache.invalidateAll();
+        catalogIndex.reindexAuthor(authorId);
+        log.info("Leaving modifyAuthorById()");
+        return convertToDto(updatedAuthor);
+    }
+
     public Optional<Author> fetchAuthorById(Long authorId) {
         log.info("Entering fetchAuthorById()");
         Optional<Author> author = authorRepository.findById(authorId);
@@ -39,6 +82,16 @@ public class AuthorService {
         return author;
     }
 
+    /**
+     * Loads the authors in one query, used to warm up the {@code author} cache.
+     */
+    public List<AuthorDto> fetchAuthorsByIds(Collection<Long> authorIds) {
+        log.info("Entering fetchAuthorsByIds()");
+        List<AuthorDto> authorDtos = authorRepository.findAllById(authorIds).stream().map(this::convertToDto).toList();
+        log.info("Leaving fetchAuthorsByIds()");
+        return authorDtos;
+    }
+
     private AuthorDto convertToDto(Author author) {
         log.info("Entering convertToDto()");
         AuthorDto authorDto = new AuthorDto();
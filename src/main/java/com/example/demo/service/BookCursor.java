@@ -0,0 +1,38 @@
+package com.example.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.example.demo.dto.BookDto;
+import com.example.demo.exception.OnlineBookStoreException;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Position of the last book of a cursor page, encoded as an opaque URL safe token for the client to send back.
+ */
+record BookCursor(String title, String isbn) {
+
+    private static final char SEPARATOR = '\0';
+
+    static BookCursor after(BookDto book) {
+        return new BookCursor(book.getTitle(), book.getIsbn());
+    }
+
+    static BookCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing separator");
+            }
+            return new BookCursor(decoded.substring(separator + 1), decoded.substring(0, separator));
+        } catch (IllegalArgumentException ex) {
+            throw new OnlineBookStoreException(String.format("Invalid cursor '%s'", token), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((isbn + SEPARATOR + title).getBytes(StandardCharsets.UTF_8));
+    }
+}
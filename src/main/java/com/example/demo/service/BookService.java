@@ -1,22 +1,48 @@
 package com.example.demo.service;
 
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import com.example.demo.bulk.BookPurger;
+import com.example.demo.bulk.BulkProperties;
+import com.example.demo.cache.AuthorBookIndex;
+import com.example.demo.cache.BookSearchCache;
+import com.example.demo.cache.IsbnFilter;
+import com.example.demo.cache.ReviewListCache;
+import com.example.demo.dao.BookBatchRepository;
 import com.example.demo.dao.BookRepository;
+import com.example.demo.datasource.ReadYourWrites;
+import com.example.demo.dto.BookCursorPage;
 import com.example.demo.dto.BookDto;
-import com.example.demo.entity.Author;
+import com.example.demo.dto.CompletionDto;
+import com.example.demo.dto.FacetCountDto;
+import com.example.demo.dto.FacetedPage;
 import com.example.demo.entity.Book;
 import com.example.demo.entity.QBook;
 import com.example.demo.exception.OnlineBookStoreException;
+import com.example.demo.search.CatalogIndex;
+import com.example.demo.search.SearchHits;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.MultiValueMap;
 import com.querydsl.core.BooleanBuilder;
 
@@ -25,82 +51,148 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 @Slf4j
 public class BookService {
+    private static final int MAXIMUM_COMPLETIONS = 20;
+
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+
     private final BookRepository bookRepository;
-    private final AuthorService authorService;
+    private final BookBatchRepository bookBatchRepository;
+    private final BookSearchCache bookSearchCache;
+    private final IsbnFilter isbnFilter;
+    private final AuthorBookIndex authorBookIndex;
+    private final CatalogIndex catalogIndex;
+    private final ReviewListCache reviewListCache;
+    private final BookPurger bookPurger;
+    private final BulkProperties bulkProperties;
 
-    public BookService(BookRepository bookRepository, AuthorService authorService) {
+    public BookService(BookRepository bookRepository, BookBatchRepository bookBatchRepository,
+            BookSearchCache bookSearchCache, IsbnFilter isbnFilter, AuthorBookIndex authorBookIndex,
+            CatalogIndex catalogIndex, ReviewListCache reviewListCache, BookPurger bookPurger,
+            BulkProperties bulkProperties) {
         this.bookRepository = bookRepository;
-        this.authorService = authorService;
+        this.bookBatchRepository = bookBatchRepository;
+        this.bookSearchCache = bookSearchCache;
+        this.isbnFilter = isbnFilter;
+        this.authorBookIndex = authorBookIndex;
+        this.catalogIndex = catalogIndex;
+        this.reviewListCache = reviewListCache;
+        this.bookPurger = bookPurger;
+        this.bulkProperties = bulkProperties;
     }
 
+    /**
+     * Inserts the book with a single statement, which skips an existing ISBN and relies on the foreign key to reject
+     * an unknown author.
+     */
     public BookDto addNewBook(BookDto bookDto) {
         log.info("Entering addNewBook()");
-        String isbn = bookDto.getIsbn();
-        if (doesBookExist(isbn)) {
-            throw new OnlineBookStoreException("Book with ISBN already exists", HttpStatus.CONFLICT);
-        }
-
-        Book book = convertFromDtoToBook(bookDto);
-        Book savedBook = bookRepository.save(book);
+        validateIsbn(bookDto.getIsbn());
+        BookDto savedBookDto = write(bookDto, () -> bookBatchRepository.insertBookIfAbsent(bookDto))
+                .orElseThrow(() -> new OnlineBookStoreException("Book with ISBN already exists", HttpStatus.CONFLICT));
+        isbnFilter.add(savedBookDto.getIsbn());
+        bookSearchCache.invalidateAll();
+        catalogIndex.index(savedBookDto);
         log.info("Leaving addNewBook()");
-        return convertFromBookToDto(savedBook);
+        return savedBookDto;
     }
 
-    private boolean doesBookExist(String isbn) {
-        log.info("Entering doesBookExist()");
+    private static void validateIsbn(String isbn) {
         if (isbn == null || isbn.isEmpty() || isbn.isBlank()) {
             throw new OnlineBookStoreException("ISBN cannot be null or empty", HttpStatus.BAD_REQUEST);
         }
-
-        log.info("Leaving doesBookExist()");
-        return bookRepository.existsById(isbn);
     }
 
-    Book convertFromDtoToBook(BookDto bookDto) {
-        log.info("Entering convertFromDtoToBook()");
-        Book book = new Book();
-        book.setIsbn(bookDto.getIsbn());
-        book.setTitle(bookDto.getTitle());
-        Author author = authorService.fetchAuthorById(bookDto.getAuthorId())
-                .orElseThrow(() -> new OnlineBookStoreException(
+    /**
+     * Runs a single statement write, turning a violated author foreign key into a 404.
+     */
+    private static Optional<BookDto> write(BookDto bookDto, Supplier<Optional<BookDto>> statement) {
+        try {
+            return statement.get();
+        } catch (DataIntegrityViolationException ex) {
+            if (ex.getMostSpecificCause() instanceof SQLException sqlException
+                    && FOREIGN_KEY_VIOLATION.equals(sqlException.getSQLState())) {
+                throw new OnlineBookStoreException(
                         String.format("Author not found for the given ID: %s", bookDto.getAuthorId()),
-                        HttpStatus.NOT_FOUND));
-        book.setAuthor(author);
-        log.info("Leaving convertFromDtoToBook()");
-        return book;
+                        HttpStatus.NOT_FOUND);
+            }
+            throw ex;
+        }
     }
 
-    @Cacheable(value = "book", key = "#isbn")
+    /**
+     * The book is read from the primary, as it is cached for everyone and a lagging replica could still return a book
+     * that was just changed or deleted. Callers must not have read in a transaction of their own before, whose
+     * connection the read would otherwise reuse.
+     */
+    @Cacheable(value = "book", key = "#isbn", condition = "@isbnFilter.mightContain(#isbn)", sync = true)
+    @Transactional(readOnly = true)
     public BookDto fetchBookByIsbn(String isbn) {
         log.info("Entering fetchBookByIsbn()");
         if (Objects.isNull(isbn) || isbn.isEmpty() || isbn.isBlank()) {
             throw new OnlineBookStoreException("ISBN cannot be null or empty", HttpStatus.BAD_REQUEST);
         }
 
-        Book book = findBookByIsbn(isbn);
+        verifyBookMayExist(isbn);
+        BookDto bookDto = ReadYourWrites.fromPrimary(() -> bookRepository.findDtoByIsbn(isbn)).orElseThrow(
+                () -> new OnlineBookStoreException("Book not found for the given ISBN", HttpStatus.NOT_FOUND));
+        authorBookIndex.register(bookDto.getAuthorId(), isbn);
         log.info("Leaving fetchBookByIsbn()");
-        return convertFromBookToDto(book);
+        return bookDto;
+    }
+
+    /**
+     * Loads the books in one query, used to warm up the {@code book} cache.
+     */
+    public List<BookDto> fetchBooksByIsbns(Collection<String> isbns) {
+        log.info("Entering fetchBooksByIsbns()");
+        List<BookDto> bookDtos = bookRepository.findAllWithAuthorByIsbnIn(isbns).stream().map(book -> {
+            authorBookIndex.register(book.getAuthor().getId(), book.getIsbn());
+            return convertFromBookToDto(book);
+        }).toList();
+        log.info("Leaving fetchBooksByIsbns()");
+        return bookDtos;
     }
 
     public Book findBookByIsbn(String isbn) {
         log.info("Entering findBookByIsbn()");
+        verifyBookMayExist(isbn);
         return bookRepository.findById(isbn).orElseThrow(
                 () -> new OnlineBookStoreException("Book not found for the given ISBN", HttpStatus.NOT_FOUND));
     }
 
+    public void verifyBookMayExist(String isbn) {
+        if (!isbnFilter.mightContain(isbn)) {
+            throw new OnlineBookStoreException("Book not found for the given ISBN", HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Updates the book with a single statement, which finds no row for an unknown ISBN and relies on the foreign key
+     * to reject an unknown author. With an expected version, typically from {@code If-Match}, the statement also finds
+     * no row once the book has been updated by someone else, which is told apart from an unknown ISBN afterwards.
+     */
     @CachePut(value = "book", key = "#isbn")
-    public BookDto modifyBookByIsbn(String isbn, BookDto bookDto) {
+    public BookDto modifyBookByIsbn(String isbn, BookDto bookDto, Long expectedVersion) {
         log.info("Entering modifyBookByIsbn()");
-        if (!doesBookExist(isbn)) {
-            throw new OnlineBookStoreException(String.format("Book with the given ISBN - %s not found", isbn),
-                    HttpStatus.NOT_FOUND);
+        validateIsbn(isbn);
+        Supplier<OnlineBookStoreException> notFound = () -> new OnlineBookStoreException(
+                String.format("Book with the given ISBN - %s not found", isbn), HttpStatus.NOT_FOUND);
+        if (!isbnFilter.mightContain(isbn)) {
+            throw notFound.get();
         }
 
-        Book book = convertFromDtoToBook(bookDto);
-        book.setIsbn(isbn);
-        Book updatedBookEntity = bookRepository.save(book);
+        BookDto book = new BookDto(isbn, bookDto.getTitle(), bookDto.getAuthorId(), null);
+        BookDto updatedBookDto = write(book, () -> bookBatchRepository.updateBook(book, expectedVersion))
+                .orElseThrow(() -> expectedVersion != null && bookRepository.existsById(isbn)
+                        ? new OnlineBookStoreException(String.format(
+                                "Book with the given ISBN - %s has been modified, its version is no longer %d", isbn,
+                                expectedVersion), HttpStatus.PRECONDITION_FAILED)
+                        : notFound.get());
+        authorBookIndex.register(updatedBookDto.getAuthorId(), isbn);
+        bookSearchCache.invalidateAll();
+        catalogIndex.index(updatedBookDto);
         log.info("Leaving modifyBookByIsbn()");
-        return convertFromBookToDto(updatedBookEntity);
+        return updatedBookDto;
     }
 
     private BookDto convertFromBookToDto(Book book) {
@@ -110,36 +202,246 @@ public class BookService {
         bookDto.setTitle(book.getTitle());
         bookDto.setAuthorId(book.getAuthor().getId());
         bookDto.setAuthorName(book.getAuthor().getName());
+        bookDto.setVersion(book.getVersion());
         log.info("Leaving convertFromBookToDto");
         return bookDto;
     }
 
+    /**
+     * Deletes the book and its reviews with bulk statements rather than entity by entity. With
+     * {@code store.bulk.soft-delete} the book is only marked as deleted, which hides it at once, and the
+     * {@link BookPurger} removes it with its reviews in the background. The cached book and its cached reviews are
+     * evicted together.
+     */
     @CacheEvict(value = "book", key = "#isbn")
     public void removeBookByIsbn(String isbn) {
         log.info("Entering removeBookByIsbn()");
-        if (!doesBookExist(isbn)) {
+        validateIsbn(isbn);
+        boolean softDelete = bulkProperties.isSoftDelete();
+        boolean removed = isbnFilter.mightContain(isbn) && (softDelete
+                ? bookBatchRepository.softDeleteBook(isbn)
+                : bookBatchRepository.deleteBookWithReviews(isbn));
+        if (!removed) {
             throw new OnlineBookStoreException(String.format("Book with the given ISBN - %s not found", isbn),
                     HttpStatus.NOT_FOUND);
         }
 
-        bookRepository.deleteById(isbn);
+        reviewListCache.evict(isbn);
+        if (softDelete) {
+            bookPurger.purgeLater(isbn);
+        }
+        isbnFilter.remove(isbn);
+        bookSearchCache.invalidateAll();
+        catalogIndex.remove(isbn);
         log.info("Leaving removeBookByIsbn()");
     }
 
+    /**
+     * Lists the books matching the {@code isbn}, {@code author} and {@code title} filters. With {@code search}, the
+     * books are found by full-text and trigram search over titles and author names instead and ordered by relevance.
+     * With {@code fuzzy=true}, the {@code author} and {@code title} filters tolerate typos and match whole words within
+     * a small edit distance, ordered by relevance. With {@code facets=author}, the matching books are also counted
+     * per author, from the in-memory facet bitmaps when the catalog index answers the query and by Postgres otherwise.
+     */
+    @Transactional(readOnly = true)
     public Page<BookDto> getAllBooks(MultiValueMap<String, String> searchOrFilterParameters, Pageable pageable) {
         log.info("Entering getAllBooks()");
         validateParameters(searchOrFilterParameters.keySet());
         validateSortCriteria(searchOrFilterParameters.getFirst("sort"));
-        BooleanBuilder booleanBuilder = buildSearchOrFilterPredicate(searchOrFilterParameters);
-        Page<Book> books = bookRepository.findAll(booleanBuilder, pageable);
-        Page<BookDto> bookDtos = books.map(this::convertFromBookToDto);
+        String searchTerms = searchOrFilterParameters.getFirst("search");
+        boolean fuzzy = Boolean.parseBoolean(searchOrFilterParameters.getFirst("fuzzy"));
+        Set<String> facets = parseFacets(searchOrFilterParameters.get("facets"));
+        boolean searched = searchTerms != null && !searchTerms.isBlank();
+        Page<BookDto> bookDtos;
+        if (fuzzy && searchOrFilterParameters.containsKey("search")) {
+            throw new OnlineBookStoreException("Parameter fuzzy applies to the author and title filters only",
+                    HttpStatus.BAD_REQUEST);
+        }
+        if (searched) {
+            if (searchOrFilterParameters.containsKey("sort")) {
+                throw new OnlineBookStoreException("Search results are ordered by relevance and cannot be sorted",
+                        HttpStatus.BAD_REQUEST);
+            }
+            boolean filtered = Stream.of("isbn", "author", "title").anyMatch(searchOrFilterParameters::containsKey);
+            Optional<Page<BookDto>> indexedBooks =
+                    filtered ? Optional.empty() : searchCatalogIndex(searchTerms, pageable, facets);
+            bookDtos = indexedBooks.orElseGet(() -> getCachedPage(searchOrFilterParameters, pageable,
+                    () -> bookRepository.searchAsDto(searchTerms.trim(), searchOrFilterParameters.getFirst("isbn"),
+                            searchOrFilterParameters.getFirst("author"), searchOrFilterParameters.getFirst("title"),
+                            pageable)));
+        } else if (fuzzy && Stream.of("author", "title").map(searchOrFilterParameters::getFirst)
+                .anyMatch(filter -> filter != null && !filter.isBlank())) {
+            bookDtos = getBooksBySimilarAuthorOrTitle(searchOrFilterParameters, pageable, facets);
+        } else {
+            bookDtos = getCachedPage(searchOrFilterParameters, pageable,
+                    () -> bookRepository.findAllAsDto(buildSearchOrFilterPredicate(searchOrFilterParameters),
+                            pageable));
+        }
+        if (!facets.isEmpty() && !(bookDtos instanceof FacetedPage)) {
+            bookDtos = new FacetedPage<>(bookDtos, searched
+                    ? countSearchFacets(searchTerms.trim(), searchOrFilterParameters)
+                    : countFacets(searchOrFilterParameters, facets));
+        }
         log.info("Leaving getAllBooks()");
         return bookDtos;
     }
 
+    /**
+     * Matches the {@code author} and {@code title} filters against similar words in the in-memory catalog index. The
+     * {@code isbn} filter is not supported by the index, with it or while the index is not available the filters match
+     * exact substrings in Postgres.
+     */
+    private Page<BookDto> getBooksBySimilarAuthorOrTitle(MultiValueMap<String, String> searchOrFilterParameters,
+            Pageable pageable, Set<String> facets) {
+        if (searchOrFilterParameters.containsKey("sort")) {
+            throw new OnlineBookStoreException("Fuzzy matches are ordered by relevance and cannot be sorted",
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        Optional<SearchHits> hits = searchOrFilterParameters.containsKey("isbn")
+                ? Optional.empty()
+                : catalogIndex.searchSimilar(searchOrFilterParameters.getFirst("title"),
+                        searchOrFilterParameters.getFirst("author"), pageable.getOffset(), pageable.getPageSize(),
+                        facets);
+        return toPage(hits, pageable).orElseGet(() -> getCachedPage(searchOrFilterParameters, pageable,
+                () -> bookRepository.findAllAsDto(buildSearchOrFilterPredicate(searchOrFilterParameters), pageable)));
+    }
+
+    /**
+     * Cached pages are shared with every client under the current catalog version, so they are read from the primary.
+     * A lagging replica could still return the catalog from before the version changed.
+     */
+    private Page<BookDto> getCachedPage(MultiValueMap<String, String> searchOrFilterParameters, Pageable pageable,
+            Supplier<Page<BookDto>> loader) {
+        return bookSearchCache.get(searchOrFilterParameters, pageable, () -> ReadYourWrites.fromPrimary(loader));
+    }
+
+    /**
+     * Counts the books matching the filters per facet value. Without filters the counts come from the in-memory facet
+     * bitmaps, with the substring filters only Postgres knows the matching books and groups them.
+     */
+    private Map<String, List<FacetCountDto>> countFacets(MultiValueMap<String, String> searchOrFilterParameters,
+            Set<String> facets) {
+        boolean filtered = Stream.of("isbn", "author", "title").map(searchOrFilterParameters::getFirst)
+                .anyMatch(filter -> filter != null && !filter.isBlank());
+        Optional<Map<String, List<FacetCountDto>>> indexedCounts =
+                filtered ? Optional.empty() : catalogIndex.countFacets(facets);
+        return indexedCounts.orElseGet(() -> Map.of("author", bookRepository
+                .countByAuthor(buildSearchOrFilterPredicate(searchOrFilterParameters), CatalogIndex.FACET_SIZE)));
+    }
+
+    /**
+     * Counts the books of a search per author in Postgres, for searches the catalog index could not answer.
+     */
+    private Map<String, List<FacetCountDto>> countSearchFacets(String searchTerms,
+            MultiValueMap<String, String> searchOrFilterParameters) {
+        return Map.of("author", bookRepository.countSearchByAuthor(searchTerms,
+                searchOrFilterParameters.getFirst("isbn"), searchOrFilterParameters.getFirst("author"),
+                searchOrFilterParameters.getFirst("title"), CatalogIndex.FACET_SIZE));
+    }
+
+    private Set<String> parseFacets(List<String> facetParameters) {
+        if (facetParameters == null) {
+            return Set.of();
+        }
+
+        Set<String> facets = facetParameters.stream().flatMap(facet -> Arrays.stream(facet.split(",")))
+                .map(String::trim).filter(facet -> !facet.isEmpty()).collect(Collectors.toSet());
+        List<String> unknownFacets = facets.stream().filter(facet -> !CatalogIndex.FACETS.contains(facet)).toList();
+        if (!unknownFacets.isEmpty()) {
+            throw new OnlineBookStoreException(String.format("Unknown facet(s) %s, supported facets are %s",
+                    unknownFacets, CatalogIndex.FACETS), HttpStatus.BAD_REQUEST);
+        }
+        return facets;
+    }
+
+    /**
+     * Keyset pagination: returns the books ordered by title and ISBN after the position encoded in the cursor, an
+     * empty cursor starting at the first book. Runs a single index range scan per page and no count query, so deep
+     * pages cost the same as the first one.
+     */
+    @Transactional(readOnly = true)
+    public BookCursorPage getBooksByCursor(MultiValueMap<String, String> searchOrFilterParameters, int pageSize) {
+        log.info("Entering getBooksByCursor()");
+        validateParameters(searchOrFilterParameters.keySet());
+        List<String> unsupportedParameters = Stream.of("page-no", "sort", "search", "fuzzy", "facets")
+                .filter(searchOrFilterParameters::containsKey).toList();
+        if (!unsupportedParameters.isEmpty()) {
+            throw new OnlineBookStoreException(
+                    String.format("Parameter(s) %s cannot be combined with cursor", unsupportedParameters),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        String token = searchOrFilterParameters.getFirst("cursor");
+        BookCursor cursor = token == null || token.isBlank() ? null : BookCursor.decode(token);
+        List<BookDto> books = bookRepository.findAllAsDtoAfter(buildSearchOrFilterPredicate(searchOrFilterParameters),
+                cursor != null ? cursor.title() : null, cursor != null ? cursor.isbn() : null, pageSize + 1);
+        BookCursorPage page;
+        if (books.size() > pageSize) {
+            List<BookDto> content = List.copyOf(books.subList(0, pageSize));
+            page = new BookCursorPage(content, BookCursor.after(content.get(pageSize - 1)).encode());
+        } else {
+            page = new BookCursorPage(books, null);
+        }
+        log.info("Leaving getBooksByCursor()");
+        return page;
+    }
+
+    /**
+     * Answers a search from the in-memory catalog index, or returns empty while the index is not available.
+     */
+    private Optional<Page<BookDto>> searchCatalogIndex(String searchTerms, Pageable pageable, Set<String> facets) {
+        return toPage(catalogIndex.search(searchTerms, pageable.getOffset(), pageable.getPageSize(), facets),
+                pageable);
+    }
+
+    /**
+     * Loads the books of the catalog index hits by primary key, keeping their order, along with their facet counts.
+     */
+    private Optional<Page<BookDto>> toPage(Optional<SearchHits> searchHits, Pageable pageable) {
+        return searchHits.map(hits -> {
+            Page<BookDto> page = loadHits(hits, pageable);
+            return hits.facets().isEmpty() ? page : new FacetedPage<>(page, hits.facets());
+        });
+    }
+
+    private Page<BookDto> loadHits(SearchHits hits, Pageable pageable) {
+        if (hits.isbns().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, hits.totalHits());
+        }
+
+        Map<String, BookDto> books = bookRepository
+                .findAllAsDto(QBook.book.isbn.in(hits.isbns()), Pageable.unpaged()).stream()
+                .collect(Collectors.toMap(BookDto::getIsbn, Function.identity()));
+        List<BookDto> content = hits.isbns().stream().map(books::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, hits.totalHits());
+    }
+
+    /**
+     * Completes a prefix to the most popular titles and author names, served from the in-memory catalog index. While
+     * the index is not available titles are looked up in Postgres.
+     */
+    public List<CompletionDto> autocomplete(String prefix, int limit) {
+        log.info("Entering autocomplete()");
+        if (prefix == null || prefix.isBlank()) {
+            throw new OnlineBookStoreException("Prefix cannot be null or empty", HttpStatus.BAD_REQUEST);
+        }
+        if (limit < 1 || limit > MAXIMUM_COMPLETIONS) {
+            throw new OnlineBookStoreException(
+                    String.format("Limit must be between 1 and %d", MAXIMUM_COMPLETIONS), HttpStatus.BAD_REQUEST);
+        }
+
+        List<CompletionDto> completions = catalogIndex.complete(prefix, limit).orElseGet(() -> bookRepository
+                .findAllAsDto(QBook.book.title.startsWithIgnoreCase(prefix.trim()), PageRequest.of(0, limit))
+                .stream().map(book -> new CompletionDto(book.getTitle(), "title")).toList());
+        log.info("Leaving autocomplete()");
+        return completions;
+    }
+
     void validateParameters(Set<String> actualParameters) {
         log.info("Entering validateParameters()");
-        Set<String> validParameters = Set.of("page-no", "page-size", "sort", "search", "author", "isbn", "title");
+        Set<String> validParameters = Set.of("page-no", "page-size", "sort", "search", "author", "isbn", "title",
+                "cursor", "fuzzy", "facets");
         List<String> invalidParameters =
                 actualParameters.stream().filter(param -> !validParameters.contains(param)).toList();
         if (!invalidParameters.isEmpty()) {
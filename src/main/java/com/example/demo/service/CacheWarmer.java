@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import com.example.demo.cache.HotKeyTracker;
+import com.example.demo.cache.LocalCacheSnapshot;
+import com.example.demo.cache.ReviewListCache;
+import com.example.demo.cache.StoreCacheProperties;
+import com.example.demo.datasource.ReadYourWrites;
+import com.example.demo.dto.AuthorDto;
+import com.example.demo.dto.BookDto;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Warms the caches up before the application reports itself ready.
+ * <p>
+ * The local tier is restored from its snapshot first. Then the most requested books, authors and review lists are
+ * preloaded in batches: entries still held by Redis are only promoted into the local tier, the others are loaded with
+ * one query per batch. Application runners complete before the readiness state flips to accepting traffic, so
+ * {@code /actuator/health} reports the node out of service until the warm-up is done or its time budget is used up.
+ */
+@Slf4j
+@Component
+public class CacheWarmer implements ApplicationRunner {
+
+    private final CacheManager cacheManager;
+    private final HotKeyTracker hotKeyTracker;
+    private final LocalCacheSnapshot localCacheSnapshot;
+    private final ReviewListCache reviewListCache;
+    private final BookService bookService;
+    private final AuthorService authorService;
+    private final ReviewService reviewService;
+    private final StoreCacheProperties.WarmUp properties;
+
+    public CacheWarmer(CacheManager cacheManager, HotKeyTracker hotKeyTracker, LocalCacheSnapshot localCacheSnapshot,
+            ReviewListCache reviewListCache, BookService bookService, AuthorService authorService,
+            ReviewService reviewService, StoreCacheProperties storeCacheProperties) {
+        this.cacheManager = cacheManager;
+        this.hotKeyTracker = hotKeyTracker;
+        this.localCacheSnapshot = localCacheSnapshot;
+        this.reviewListCache = reviewListCache;
+        this.bookService = bookService;
+        this.authorService = authorService;
+        this.reviewService = reviewService;
+        this.properties = storeCacheProperties.getWarmUp();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int restored = localCacheSnapshot.restore();
+        if (restored > 0) {
+            log.info("Restored {} local cache entries from the snapshot", restored);
+        }
+
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        Instant start = Instant.now();
+        Instant deadline = start.plus(properties.getTimeBudget());
+        Cache bookCache = cacheManager.getCache("book");
+        Cache authorCache = cacheManager.getCache("author");
+
+        int books = warmUp("book", deadline, isbn -> bookCache.get(isbn) != null, isbns -> {
+            List<BookDto> bookDtos = bookService.fetchBooksByIsbns(isbns);
+            bookDtos.forEach(bookDto -> bookCache.putIfAbsent(bookDto.getIsbn(), bookDto));
+            return bookDtos.size();
+        });
+        int authors = warmUp("author", deadline, authorId -> authorCache.get(Long.valueOf(authorId)) != null,
+                authorIds -> {
+                    List<AuthorDto> authorDtos =
+                            authorService.fetchAuthorsByIds(authorIds.stream().map(Long::valueOf).toList());
+                    authorDtos.forEach(authorDto -> authorCache.putIfAbsent((long) authorDto.getId(), authorDto));
+                    return authorDtos.size();
+                });
+        int reviewLists = warmUp("review", deadline, reviewListCache::isCached,
+                isbns -> reviewListCache.loadAll(isbns, reviewService::fetchReviewsByIsbns).size());
+
+        log.info("Cache warm-up loaded {} books, {} authors and {} review lists in {} ms", books, authors, reviewLists,
+                Instant.now().toEpochMilli() - start.toEpochMilli());
+    }
+
+    /**
+     * Batches are read from the primary, as a lagging replica would fill the shared caches with outdated entries.
+     */
+    private int warmUp(String cacheName, Instant deadline, Predicate<String> isCached,
+            ToIntFunction<List<String>> batchLoader) {
+        int loaded = 0;
+        try {
+            List<String> keys = hotKeyTracker.topKeys(cacheName, properties.getLimit());
+            for (int from = 0; from < keys.size(); from += properties.getBatchSize()) {
+                if (Instant.now().isAfter(deadline)) {
+                    log.warn("Cache warm-up of '{}' stopped after {} entries as the time budget is used up",
+                            cacheName, loaded);
+                    break;
+                }
+
+                List<String> batch = keys.subList(from, Math.min(from + properties.getBatchSize(), keys.size()))
+                        .stream().filter(isCached.negate()).toList();
+                if (!batch.isEmpty()) {
+                    loaded += ReadYourWrites.fromPrimary(() -> batchLoader.applyAsInt(batch));
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Cache warm-up of '{}' failed after {} entries", cacheName, loaded, ex);
+        }
+        return loaded;
+    }
+}
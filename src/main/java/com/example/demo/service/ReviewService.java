@@ -1,15 +1,29 @@
 package com.example.demo.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import com.example.demo.cache.ReviewListCache;
+import com.example.demo.dao.BookBatchRepository;
+import com.example.demo.dao.ReviewBatchRepository;
 import com.example.demo.dao.ReviewRepository;
+import com.example.demo.dto.ReviewBatchResultDto;
+import com.example.demo.dto.ReviewCursorPage;
 import com.example.demo.dto.ReviewDto;
 import com.example.demo.entity.Book;
 import com.example.demo.entity.Review;
 import com.example.demo.exception.OnlineBookStoreException;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 import lombok.extern.slf4j.Slf4j;
@@ -17,13 +31,22 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 @Slf4j
 public class ReviewService {
+    private static final int MAXIMUM_BATCH_SIZE = 1000;
 
     private final ReviewRepository reviewRepository;
     private final BookService bookService;
+    private final ReviewListCache reviewListCache;
+    private final ReviewBatchRepository reviewBatchRepository;
+    private final BookBatchRepository bookBatchRepository;
 
-    public ReviewService(ReviewRepository reviewRepository, BookService bookService) {
+    public ReviewService(ReviewRepository reviewRepository, BookService bookService,
+            ReviewListCache reviewListCache, ReviewBatchRepository reviewBatchRepository,
+            BookBatchRepository bookBatchRepository) {
         this.reviewRepository = reviewRepository;
         this.bookService = bookService;
+        this.reviewListCache = reviewListCache;
+        this.reviewBatchRepository = reviewBatchRepository;
+        this.bookBatchRepository = bookBatchRepository;
     }
 
     public ReviewDto submitReview(String isbn, ReviewDto reviewDto) {
@@ -36,37 +59,228 @@ public class ReviewService {
         review.setContent(reviewDto.getContent());
 
         Review savedReview = reviewRepository.save(review);
+        ReviewDto savedReviewDto = convertToDto(savedReview);
+        reviewListCache.patch(isbn, savedReviewDto);
         log.info("Leaving submitReview()");
-        return convertToDto(savedReview);
+        return savedReviewDto;
     }
 
-    @Cacheable(value = "review", key = "#isbn")
-    public List<ReviewDto> fetchReviewsByIsbn(String isbn) {
+    /**
+     * Submits reviews for any number of books at once. The books are looked up with one query and the reviews inserted
+     * with one JDBC batch, and the cached review lists of all touched books are patched in one pipelined Redis round
+     * trip. Each review gets its own result, so invalid reviews or unknown books do not fail the others.
+     */
+    public List<ReviewBatchResultDto> submitReviews(List<ReviewDto> reviewDtos) {
+        log.info("Entering submitReviews()");
+        if (reviewDtos == null || reviewDtos.isEmpty()) {
+            throw new OnlineBookStoreException("Reviews cannot be null or empty", HttpStatus.BAD_REQUEST);
+        }
+        if (reviewDtos.size() > MAXIMUM_BATCH_SIZE) {
+            throw new OnlineBookStoreException(
+                    String.format("At most %d reviews can be submitted at once", MAXIMUM_BATCH_SIZE),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        ReviewBatchResultDto[] results = new ReviewBatchResultDto[reviewDtos.size()];
+        for (int i = 0; i < reviewDtos.size(); i++) {
+            String error = validate(reviewDtos.get(i));
+            if (error != null) {
+                results[i] = new ReviewBatchResultDto(i, HttpStatus.BAD_REQUEST.value(), null, error);
+            }
+        }
+
+        Set<String> existingIsbns = bookBatchRepository.findLiveIsbns(reviewDtos.stream()
+                .filter(reviewDto -> validate(reviewDto) == null).map(ReviewDto::getBookIsbn).distinct().toList());
+        List<Integer> accepted = new ArrayList<>(reviewDtos.size());
+        for (int i = 0; i < reviewDtos.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            if (existingIsbns.contains(reviewDtos.get(i).getBookIsbn())) {
+                accepted.add(i);
+            } else {
+                results[i] = new ReviewBatchResultDto(i, HttpStatus.NOT_FOUND.value(), null,
+                        "Book not found for the given ISBN");
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            storeReviews(reviewDtos, accepted, results);
+        }
+        log.info("Leaving submitReviews()");
+        return List.of(results);
+    }
+
+    private void storeReviews(List<ReviewDto> reviewDtos, List<Integer> accepted, ReviewBatchResultDto[] results) {
+        List<ReviewDto> reviews = accepted.stream().map(reviewDtos::get)
+                .map(reviewDto -> new ReviewDto(0, reviewDto.getReviewerName(), reviewDto.getContent(),
+                        reviewDto.getBookIsbn()))
+                .toList();
+        List<Integer> ids;
+        try {
+            ids = reviewBatchRepository.insertReviews(reviews);
+        } catch (DataAccessException ex) {
+            log.warn("Unable to insert a batch of {} reviews", reviews.size(), ex);
+            accepted.forEach(i -> results[i] = new ReviewBatchResultDto(i, HttpStatus.SERVICE_UNAVAILABLE.value(),
+                    null, "Unable to store the review, retry"));
+            return;
+        }
+
+        for (int j = 0; j < accepted.size(); j++) {
+            ReviewDto review = reviews.get(j);
+            review.setId(ids.get(j));
+            results[accepted.get(j)] = new ReviewBatchResultDto(accepted.get(j), HttpStatus.CREATED.value(), review,
+                    null);
+        }
+        reviewListCache.patchAll(reviews.stream()
+                .collect(Collectors.groupingBy(ReviewDto::getBookIsbn, LinkedHashMap::new, Collectors.toList())));
+    }
+
+    private static String validate(ReviewDto reviewDto) {
+        if (reviewDto == null) {
+            return "Review cannot be null";
+        }
+        if (reviewDto.getBookIsbn() == null || reviewDto.getBookIsbn().isBlank()) {
+            return "ISBN cannot be null or empty";
+        }
+        if (reviewDto.getReviewerName() == null || reviewDto.getReviewerName().isBlank()) {
+            return "Reviewer name cannot be blank";
+        }
+        if (reviewDto.getContent() == null || reviewDto.getContent().isBlank()) {
+            return "Content cannot be blank";
+        }
+        return null;
+    }
+
+    /**
+     * Returns a page of the reviews of a book, oldest first unless {@code sort} is {@code newest}. Pages continue
+     * after the review id encoded in the cursor, so each page is an index range scan on {@code (book_isbn, id)} that
+     * does not load the book. The first page in the default order is served from the {@link ReviewListCache}.
+     * <p>
+     * Each query runs in a read-only transaction of its own rather than one around the method. The cache loaders then
+     * get a primary connection of their own, and checking the book of an empty page does not hold a replica connection
+     * while waiting for another one.
+     */
+    public ReviewCursorPage fetchReviewsByIsbn(String isbn, String cursor, String sort, int pageSize) {
         log.info("Entering fetchReviewsByIsbn()");
-        Book book = bookService.findBookByIsbn(isbn);
+        bookService.verifyBookMayExist(isbn);
+        boolean newestFirst = isNewestFirst(sort);
+        Integer lastId = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
 
-        List<Review> reviews = reviewRepository.findByBook(book);
+        List<ReviewDto> reviews;
+        if (lastId == null && !newestFirst && pageSize <= reviewListCache.getFirstPageSize()) {
+            reviews = reviewListCache.get(isbn, () -> reviewRepository.findDtosByBookIsbnAfter(isbn, 0,
+                    Limit.of(reviewListCache.getFirstPageSize() + 1)));
+            reviews = reviews.subList(0, Math.min(reviews.size(), pageSize + 1));
+        } else if (newestFirst) {
+            reviews = reviewRepository.findDtosByBookIsbnBefore(isbn, lastId != null ? lastId : Integer.MAX_VALUE,
+                    Limit.of(pageSize + 1));
+        } else {
+            reviews = reviewRepository.findDtosByBookIsbnAfter(isbn, lastId != null ? lastId : 0,
+                    Limit.of(pageSize + 1));
+        }
+        if (lastId == null) {
+            requireBookIfEmpty(isbn, reviews);
+        }
+
+        ReviewCursorPage page;
+        if (reviews.size() > pageSize) {
+            List<ReviewDto> content = List.copyOf(reviews.subList(0, pageSize));
+            page = new ReviewCursorPage(content, encodeCursor(content.get(pageSize - 1).getId()));
+        } else {
+            page = new ReviewCursorPage(List.copyOf(reviews), null);
+        }
         log.info("Leaving fetchReviewsByIsbn()");
-        return reviews.stream().map(this::convertToDto).toList();
+        return page;
+    }
+
+    private boolean isNewestFirst(String sort) {
+        if (sort == null || sort.isBlank() || "oldest".equalsIgnoreCase(sort)) {
+            return false;
+        }
+        if ("newest".equalsIgnoreCase(sort)) {
+            return true;
+        }
+        throw new OnlineBookStoreException(
+                String.format("Invalid sort '%s'. Allowed sorts are oldest,newest", sort), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * A book without reviews looks the same as an unknown book, so an empty first page is checked against the book,
+     * which is usually cached.
+     */
+    private void requireBookIfEmpty(String isbn, List<ReviewDto> reviews) {
+        if (reviews.isEmpty()) {
+            bookService.fetchBookByIsbn(isbn);
+        }
     }
 
-    @CachePut(value = "review", key = "#isbn")
-    public ReviewDto modifyReview(String isbn, long reviewId, ReviewDto reviewDto) {
+    private static String encodeCursor(int reviewId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Integer.toString(reviewId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String cursor) {
+        try {
+            return Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException ex) {
+            throw new OnlineBookStoreException(String.format("Invalid cursor '%s'", cursor), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Loads the reviews of the books in one query, used to warm up the review lists. Books without reviews are left
+     * out.
+     */
+    public Map<String, List<ReviewDto>> fetchReviewsByIsbns(Collection<String> isbns) {
+        log.info("Entering fetchReviewsByIsbns()");
+        Map<String, List<ReviewDto>> reviews = reviewRepository.findAllWithBookByBookIsbnIn(isbns).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.groupingBy(ReviewDto::getBookIsbn, LinkedHashMap::new, Collectors.toList()));
+        log.info("Leaving fetchReviewsByIsbns()");
+        return reviews;
+    }
+
+    /**
+     * Updates the review, whose version is checked and incremented by the update statement. A review updated by
+     * someone else since it was read fails with 412 when an expected version, typically from {@code If-Match}, is
+     * given, and with 409 otherwise.
+     */
+    public ReviewDto modifyReview(String isbn, long reviewId, ReviewDto reviewDto, Long expectedVersion) {
         log.info("Entering modifyReview()");
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new OnlineBookStoreException(String.format("Review not found for ID: %d", reviewId),
                         HttpStatus.NOT_FOUND));
 
-        if (!review.getBook().getIsbn().equals(isbn)) {
+        if (review.getBook() == null || !review.getBook().getIsbn().equals(isbn)) {
             throw new OnlineBookStoreException("Review does not belong to the specified book", HttpStatus.CONFLICT);
         }
+        if (expectedVersion != null && review.getVersion() != expectedVersion) {
+            throw reviewModified(reviewId, expectedVersion);
+        }
 
         review.setReviewerName(reviewDto.getReviewerName());
         review.setContent(reviewDto.getContent());
 
-        Review updatedReview = reviewRepository.save(review);
+        Review updatedReview;
+        try {
+            updatedReview = reviewRepository.saveAndFlush(review);
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            throw expectedVersion != null
+                    ? reviewModified(reviewId, expectedVersion)
+                    : new OnlineBookStoreException(String.format("Review with ID: %d was modified concurrently, retry",
+                            reviewId), HttpStatus.CONFLICT);
+        }
+        ReviewDto updatedReviewDto = convertToDto(updatedReview);
+        reviewListCache.patch(isbn, updatedReviewDto);
         log.info("Leaving modifyReview()");
-        return convertToDto(updatedReview);
+        return updatedReviewDto;
+    }
+
+    private static OnlineBookStoreException reviewModified(long reviewId, long expectedVersion) {
+        return new OnlineBookStoreException(String.format(
+                "Review with ID: %d has been modified, its version is no longer %d", reviewId, expectedVersion),
+                HttpStatus.PRECONDITION_FAILED);
     }
 
     private ReviewDto convertToDto(Review review) {
@@ -76,6 +290,7 @@ public class ReviewService {
         reviewDto.setReviewerName(review.getReviewerName());
         reviewDto.setContent(review.getContent());
         reviewDto.setBookIsbn(review.getBook().getIsbn());
+        reviewDto.setVersion(review.getVersion());
         log.info("Leaving convertToDto()");
         return reviewDto;
     }
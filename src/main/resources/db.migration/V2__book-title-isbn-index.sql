@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS book_title_isbn_idx ON online_book_store.book (title, isbn);
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS review_book_isbn_id_idx ON online_book_store.review (book_isbn, id);
@@ -0,0 +1,17 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Full-text search on titles (stemmed) and author names (exact words)
+CREATE INDEX IF NOT EXISTS book_title_fts_idx ON online_book_store.book
+    USING gin (to_tsvector('english', title));
+CREATE INDEX IF NOT EXISTS author_name_fts_idx ON online_book_store.author
+    USING gin (to_tsvector('simple', name));
+
+-- Trigram indexes serve the similarity operator and the case-insensitive substring filters (lower(x) LIKE '%v%')
+CREATE INDEX IF NOT EXISTS book_title_trgm_idx ON online_book_store.book
+    USING gin (lower(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS book_isbn_trgm_idx ON online_book_store.book
+    USING gin (lower(isbn) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS author_name_trgm_idx ON online_book_store.author
+    USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS book_author_id_idx ON online_book_store.book (author_id);
@@ -0,0 +1,3 @@
+-- Incremented by every update, compared against If-Match and used to order cache writes
+ALTER TABLE online_book_store.book ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE online_book_store.review ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
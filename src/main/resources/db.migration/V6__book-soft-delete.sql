@@ -0,0 +1,3 @@
+-- Set by a soft delete, the book and its reviews are purged in the background
+ALTER TABLE online_book_store.book ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP WITH TIME ZONE;
+CREATE INDEX IF NOT EXISTS book_deleted_at_idx ON online_book_store.book (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,121 @@
+package com.example.demo.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.demo.cache.BookSearchCache;
+import com.example.demo.cache.IsbnFilter;
+import com.example.demo.dao.BookBatchRepository;
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.BookImportErrorDto;
+import com.example.demo.dto.BookImportReportDto;
+import com.example.demo.exception.OnlineBookStoreException;
+import com.example.demo.search.CatalogIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+public class BookImporterTest {
+
+    @Mock
+    private BookBatchRepository bookBatchRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IsbnFilter isbnFilter;
+
+    @Mock
+    private BookSearchCache bookSearchCache;
+
+    @Mock
+    private CatalogIndex catalogIndex;
+
+    private BookImporter bookImporter;
+
+    @BeforeEach
+    void setUp() {
+        BulkProperties properties = new BulkProperties();
+        properties.setImportBatchSize(2);
+        bookImporter = new BookImporter(bookBatchRepository, transactionManager, isbnFilter, bookSearchCache,
+                catalogIndex, new ObjectMapper(), properties);
+    }
+
+    @Test
+    void importBooks_ImportsValidRowsAndReportsTheOthers() {
+        when(bookBatchRepository.findAuthorNamesByIds(anyCollection())).thenReturn(Map.of(1L, "Author One"));
+        when(bookBatchRepository.findExistingIsbns(anyCollection()))
+                .thenAnswer(invocation -> invocation.<Set<String>>getArgument(0).contains("9780000000033")
+                        ? Set.of("9780000000033")
+                        : Set.of());
+
+        BookImportReportDto report = bookImporter.importBooks(csv("""
+                title,isbn,authorId
+                "The Dream, Revisited",978-0-00-000001-9,1
+                Bad Checksum,9780000000018,1
+                Unknown Author,9780000000026,7
+                Existing,9780000000033,1
+                The Dream,9783161484100,1
+                """), "text/csv; charset=UTF-8");
+
+        assertEquals(5, report.getRowsRead());
+        assertEquals(2, report.getRowsImported());
+        assertEquals(3, report.getRowsFailed());
+        assertEquals(List.of(
+                new BookImportErrorDto(3, "9780000000018", "ISBN must be a valid ISBN-10 or ISBN-13"),
+                new BookImportErrorDto(4, "9780000000026", "Author not found for the given ID: 7"),
+                new BookImportErrorDto(5, "9780000000033", "Book with ISBN already exists")), report.getErrors());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BookDto>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bookBatchRepository, times(2)).insertBooks(inserted.capture());
+        assertEquals(List.of("The Dream, Revisited", "The Dream"),
+                inserted.getAllValues().stream().flatMap(List::stream).map(BookDto::getTitle).toList());
+        verify(isbnFilter).addAll(List.of("9780000000019"));
+        verify(catalogIndex).indexAll(List.of(new BookDto("9783161484100", "The Dream", 1L, "Author One")));
+        verify(bookSearchCache).invalidateAll();
+    }
+
+    @Test
+    void importBooks_MissingCsvColumns() {
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class,
+                () -> bookImporter.importBooks(csv("isbn,title\n9783161484100,The Dream\n"), "text/csv"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void isValid_ChecksIsbn10AndIsbn13CheckDigits() {
+        assertTrue(Isbns.isValid("0306406152"));
+        assertTrue(Isbns.isValid("080442957X"));
+        assertTrue(Isbns.isValid(Isbns.normalize("978-3-16-148410-0")));
+        assertFalse(Isbns.isValid("9783161484101"));
+        assertFalse(Isbns.isValid("03064061A2"));
+    }
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
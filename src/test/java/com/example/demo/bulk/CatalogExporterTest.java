@@ -0,0 +1,84 @@
+package com.example.demo.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.example.demo.dao.CatalogExportRepository;
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.ReviewDto;
+import com.example.demo.exception.OnlineBookStoreException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogExporterTest {
+
+    @Mock
+    private CatalogExportRepository catalogExportRepository;
+
+    private CatalogExporter catalogExporter;
+
+    @BeforeEach
+    void setUp() {
+        BulkProperties properties = new BulkProperties();
+        properties.setExportFetchSize(50);
+        catalogExporter = new CatalogExporter(catalogExportRepository, new ObjectMapper(), properties);
+    }
+
+    @Test
+    void exportBooks_WritesCsvThatCanBeImportedAgain() {
+        doAnswer(invocation -> {
+            Consumer<BookDto> consumer = invocation.getArgument(1);
+            consumer.accept(new BookDto("9783161484100", "The Dream, \"Revisited\"", 2, "Author Two"));
+            consumer.accept(new BookDto("9780000000019", "Plain", 1, "Author One"));
+            return null;
+        }).when(catalogExportRepository).forEachBook(eq(50), any());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        catalogExporter.exportBooks(output, "CSV");
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("isbn,title,authorId,authorName", lines[0]);
+        assertEquals("9783161484100,\"The Dream, \"\"Revisited\"\"\",2,Author Two", lines[1]);
+        assertEquals(List.of("9783161484100", "The Dream, \"Revisited\"", "2", "Author Two"),
+                CsvLine.split(lines[1]));
+        assertEquals(3, lines.length);
+    }
+
+    @Test
+    void exportReviews_WritesOneJsonObjectPerLine() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<ReviewDto>>getArgument(1)
+                    .accept(new ReviewDto(1, "John Doe", "Great\nbook!", "9783161484100", 2L));
+            return null;
+        }).when(catalogExportRepository).forEachReview(eq(50), any());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        catalogExporter.exportReviews(output, "ndjson");
+
+        assertEquals("{\"id\":1,\"reviewerName\":\"John Doe\",\"content\":\"Great\\nbook!\","
+                + "\"bookIsbn\":\"9783161484100\",\"version\":2}\n", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void contentType_RejectsUnknownFormat() {
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class,
+                () -> catalogExporter.contentType("xml"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+}
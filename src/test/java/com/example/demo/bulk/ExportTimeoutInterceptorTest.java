@@ -0,0 +1,69 @@
+package com.example.demo.bulk;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@ExtendWith(MockitoExtension.class)
+public class ExportTimeoutInterceptorTest {
+
+    @Mock
+    private AsyncWebRequest asyncWebRequest;
+
+    private final ExportTimeoutInterceptor interceptor = new ExportTimeoutInterceptor(bulkProperties());
+
+    @Test
+    void beforeConcurrentHandling_ExportGetsTheExportTimeout() throws Exception {
+        handledBy("export");
+
+        interceptor.beforeConcurrentHandling(asyncWebRequest, () -> null);
+
+        verify(asyncWebRequest, times(1)).setTimeout(Duration.ofMinutes(30).toMillis());
+    }
+
+    @Test
+    void beforeConcurrentHandling_OtherRequestsKeepTheDefaultTimeout() throws Exception {
+        handledBy("report");
+
+        interceptor.beforeConcurrentHandling(asyncWebRequest, () -> null);
+
+        verify(asyncWebRequest, never()).setTimeout(anyLong());
+    }
+
+    private void handledBy(String methodName) throws NoSuchMethodException {
+        when(asyncWebRequest.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST)).thenReturn(new HandlerMethod(new Handlers(), methodName));
+    }
+
+    private static BulkProperties bulkProperties() {
+        BulkProperties properties = new BulkProperties();
+        properties.setExportTimeout(Duration.ofMinutes(30));
+        return properties;
+    }
+
+    public static class Handlers {
+
+        public ResponseEntity<StreamingResponseBody> export() {
+            return ResponseEntity.ok(output -> { });
+        }
+
+        public ResponseEntity<String> report() {
+            return ResponseEntity.ok("report");
+        }
+    }
+}
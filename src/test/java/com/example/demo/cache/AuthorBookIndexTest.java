@@ -0,0 +1,107 @@
+package com.example.demo.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.TaskScheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthorBookIndexTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private TwoTierCache bookCache;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final Set<String> indexedIsbns = new LinkedHashSet<>();
+
+    private AuthorBookIndex authorBookIndex;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StoreCacheProperties storeCacheProperties = new StoreCacheProperties();
+        authorBookIndex = new AuthorBookIndex(redisTemplate, cacheManager,
+                new CachePolicies(storeCacheProperties, new CacheProperties()),
+                new CacheCircuitBreaker(storeCacheProperties.getCircuitBreaker(), new SimpleMeterRegistry()),
+                taskScheduler, storeCacheProperties);
+
+        lenient().when(cacheManager.getCache(AuthorBookIndex.BOOK_CACHE_NAME)).thenReturn(bookCache);
+
+        // Emulates the Redis set of author 1
+        lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        lenient().when(setOperations.members(AuthorBookIndex.KEY_PREFIX + 1))
+                .thenAnswer(invocation -> new LinkedHashSet<>(indexedIsbns));
+        lenient().when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    RedisScript<?> script = invocation.getArgument(0);
+                    if (script.getScriptAsString().contains("SADD")) {
+                        indexedIsbns.add(invocation.getArgument(3));
+                        return 1L;
+                    }
+                    List<String> isbns = new ArrayList<>(indexedIsbns);
+                    indexedIsbns.clear();
+                    return isbns;
+                });
+    }
+
+    @Test
+    void evictBooksOf_BookCachedByALoadThatRacedTheChangeIsEvictedAgain() {
+        authorBookIndex.register(1L, "1234567890");
+
+        assertEquals(List.of("1234567890"), authorBookIndex.evictBooksOf(1L));
+        verify(bookCache, times(1)).evictAll(List.of("1234567890"));
+
+        // A load that read the old name before the change registers and writes its entry after the eviction
+        authorBookIndex.register(1L, "0987654321");
+        ArgumentCaptor<Runnable> secondEviction = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, times(1)).schedule(secondEviction.capture(), any(Instant.class));
+        secondEviction.getValue().run();
+
+        verify(bookCache, times(1)).evictAll(List.of("1234567890", "0987654321"));
+        assertEquals(Set.of(), indexedIsbns);
+    }
+
+    @Test
+    void evictBooksOf_NothingCached() {
+        assertEquals(List.of(), authorBookIndex.evictBooksOf(1L));
+
+        verify(bookCache, never()).evictAll(anyList());
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    }
+}
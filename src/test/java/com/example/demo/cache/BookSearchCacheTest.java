@@ -0,0 +1,61 @@
+package com.example.demo.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+@ExtendWith(MockitoExtension.class)
+public class BookSearchCacheTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    private BookSearchCache bookSearchCache;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchCache = new BookSearchCache(cacheManager, catalogVersion);
+    }
+
+    @Test
+    void fingerprint_IgnoresParameterOrderCaseAndPagingParameters() {
+        when(catalogVersion.current()).thenReturn(3L);
+        MultiValueMap<String, String> first = new LinkedMultiValueMap<>();
+        first.add("title", " Dream ");
+        first.add("author", "Jane");
+        first.add("page-no", "1");
+        MultiValueMap<String, String> second = new LinkedMultiValueMap<>();
+        second.add("author", "jane");
+        second.add("title", "dream");
+        PageRequest pageable = PageRequest.of(1, 8, Sort.by("title"));
+
+        assertEquals(bookSearchCache.fingerprint(first, pageable), bookSearchCache.fingerprint(second, pageable));
+    }
+
+    @Test
+    void fingerprint_ChangesWithCatalogVersion() {
+        MultiValueMap<String, String> parameters = new LinkedMultiValueMap<>();
+        parameters.add("title", "dream");
+        PageRequest pageable = PageRequest.of(0, 8);
+
+        when(catalogVersion.current()).thenReturn(3L);
+        String before = bookSearchCache.fingerprint(parameters, pageable);
+        when(catalogVersion.current()).thenReturn(4L);
+
+        assertNotEquals(before, bookSearchCache.fingerprint(parameters, pageable));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheCircuitBreakerTest {
+
+    @Mock
+    private Cache redisCache;
+
+    @Mock
+    private RedisTemplate<Object, Object> redisTemplate;
+
+    private StoreCacheProperties.CircuitBreaker properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StoreCacheProperties.CircuitBreaker();
+        properties.setFailureThreshold(2);
+    }
+
+    @Test
+    void execute_OpensAfterConsecutiveFailuresAndShortCircuits() {
+        CacheCircuitBreaker circuitBreaker = new CacheCircuitBreaker(properties, new SimpleMeterRegistry());
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("fallback", circuitBreaker.execute(() -> {
+                calls.incrementAndGet();
+                throw new RedisConnectionFailureException("Redis is down");
+            }, () -> "fallback"));
+        }
+
+        assertEquals(2, calls.get());
+        assertEquals(CacheCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void execute_HalfOpenProbeClosesBreakerAndRunsRecoveryListeners() {
+        properties.setOpenDuration(Duration.ZERO);
+        CacheCircuitBreaker circuitBreaker = new CacheCircuitBreaker(properties, new SimpleMeterRegistry());
+        AtomicInteger recoveries = new AtomicInteger();
+        circuitBreaker.addRecoveryListener(recoveries::incrementAndGet);
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.execute(() -> {
+                throw new RedisConnectionFailureException("Redis is down");
+            }, () -> null);
+        }
+
+        assertEquals("value", circuitBreaker.execute(() -> "value", () -> "fallback"));
+        assertEquals(CacheCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1, recoveries.get());
+    }
+
+    @Test
+    void execute_ProbeFailingWithOtherExceptionReopensBreaker() {
+        properties.setOpenDuration(Duration.ZERO);
+        CacheCircuitBreaker circuitBreaker = new CacheCircuitBreaker(properties, new SimpleMeterRegistry());
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.execute(() -> {
+                throw new RedisConnectionFailureException("Redis is down");
+            }, () -> null);
+        }
+
+        assertThrows(SerializationException.class, () -> circuitBreaker.execute(() -> {
+            throw new SerializationException("Unknown format");
+        }, () -> "fallback"));
+        assertEquals(CacheCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        assertEquals("value", circuitBreaker.execute(() -> "value", () -> "fallback"));
+        assertEquals(CacheCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void circuitBreakingCache_ReplaysFailedWritesAsEvictions() {
+        properties.setOpenDuration(Duration.ZERO);
+        CacheCircuitBreaker circuitBreaker = new CacheCircuitBreaker(properties, new SimpleMeterRegistry());
+        CircuitBreakingCache cache = new CircuitBreakingCache(redisCache, circuitBreaker, 100);
+        doThrow(new RedisConnectionFailureException("Redis is down")).when(redisCache).put("1234567890", "value");
+        when(redisCache.get("1234567890")).thenThrow(new RedisConnectionFailureException("Redis is down"))
+                .thenReturn(null);
+
+        cache.put("1234567890", "value");
+        assertNull(cache.get("1234567890"));
+        verify(redisCache, never()).evict("1234567890");
+
+        assertNull(cache.get("1234567890"));
+        verify(redisCache, times(1)).evict("1234567890");
+    }
+
+    @Test
+    void circuitBreakingCache_ReplaysFailedBulkEvictions() {
+        properties.setOpenDuration(Duration.ZERO);
+        CacheCircuitBreaker circuitBreaker = new CacheCircuitBreaker(properties, new SimpleMeterRegistry());
+        CircuitBreakingCache cache = new CircuitBreakingCache(redisCache, circuitBreaker, 100);
+        doThrow(new RedisConnectionFailureException("Redis is down")).when(redisCache).evict("1234567890");
+        when(redisCache.get("1234567890")).thenThrow(new RedisConnectionFailureException("Redis is down"))
+                .thenReturn(null);
+
+        cache.evictAll(List.of("1234567890", "0987654321"));
+        assertNull(cache.get("1234567890"));
+        verify(redisCache, never()).evict("0987654321");
+
+        doNothing().when(redisCache).evict("1234567890");
+        assertNull(cache.get("1234567890"));
+        verify(redisCache, times(1)).evict("0987654321");
+    }
+
+    @Test
+    void invalidationBus_SkipsPublishesWhileOpen() {
+        properties.setOpenDuration(Duration.ofHours(1));
+        CacheCircuitBreaker circuitBreaker = new CacheCircuitBreaker(properties, new SimpleMeterRegistry());
+        CacheInvalidationBus invalidationBus = new CacheInvalidationBus(redisTemplate, "invalidation", circuitBreaker,
+                100);
+        doThrow(new RedisConnectionFailureException("Redis is down")).when(redisTemplate)
+                .convertAndSend(eq("invalidation"), any());
+
+        for (int i = 0; i < 4; i++) {
+            invalidationBus.publish("book", "1234567890");
+        }
+
+        verify(redisTemplate, times(2)).convertAndSend(eq("invalidation"), any());
+    }
+
+    @Test
+    void invalidationBus_ReplaysUnpublishedInvalidationsOnceRedisIsBack() {
+        properties.setOpenDuration(Duration.ZERO);
+        CacheCircuitBreaker circuitBreaker = new CacheCircuitBreaker(properties, new SimpleMeterRegistry());
+        CacheInvalidationBus invalidationBus = new CacheInvalidationBus(redisTemplate, "invalidation", circuitBreaker,
+                100);
+        doThrow(new RedisConnectionFailureException("Redis is down"))
+                .doThrow(new RedisConnectionFailureException("Redis is down")).doReturn(1L).when(redisTemplate)
+                .convertAndSend(eq("invalidation"), any());
+
+        invalidationBus.publish("book", "1234567890");
+        invalidationBus.publish("author", 1L);
+        invalidationBus.publish("book", "0987654321");
+
+        ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate, times(5)).convertAndSend(eq("invalidation"), published.capture());
+        assertEquals(Set.of("1234567890", 1L, "0987654321"), published.getAllValues().subList(2, 5).stream()
+                .map(invalidation -> ((CacheInvalidationMessage) invalidation).key()).collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.demo.dto.AuthorDto;
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.ReviewDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+public class CompactDtoRedisSerializerTest {
+
+    private final CompactDtoRedisSerializer serializer = new CompactDtoRedisSerializer(1024);
+
+    @Test
+    void roundTrip_Dtos() {
+        BookDto book = new BookDto("9783161484112", "The Dream", 2L, "Author Two", 3L);
+        AuthorDto author = new AuthorDto(2, "Author Two");
+        ReviewDto review = new ReviewDto(7, "John Doe", null, "9783161484112", 1L);
+
+        assertEquals(book, serializer.deserialize(serializer.serialize(book)));
+        assertEquals(author, serializer.deserialize(serializer.serialize(author)));
+        assertEquals(review, serializer.deserialize(serializer.serialize(review)));
+    }
+
+    @Test
+    void roundTrip_LargeListIsCompressed() {
+        List<ReviewDto> reviews = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            reviews.add(new ReviewDto(i, "Reviewer " + i, "A rather long review text that repeats itself", "123"));
+        }
+
+        byte[] bytes = serializer.serialize(new BookSearchResult(List.of(), 0));
+        byte[] compressed = serializer.serialize(reviews);
+
+        assertEquals(new BookSearchResult(List.of(), 0), serializer.deserialize(bytes));
+        assertEquals(reviews, serializer.deserialize(compressed));
+        assertTrue(compressed.length < serializer.getUncompressedBytesWritten() / 2);
+    }
+
+    @Test
+    void roundTrip_CacheEntries() {
+        CacheEntry entry = new CacheEntry(new AuthorDto(2, "Author Two"), 1_700_000_000_000L);
+        CacheEntry nullEntry = new CacheEntry(null, 1_700_000_000_000L);
+
+        assertEquals(entry, serializer.deserialize(serializer.serialize(entry)));
+        assertEquals(nullEntry, serializer.deserialize(serializer.serialize(nullEntry)));
+    }
+
+    @Test
+    void deserialize_ReadsUnversionedFormat() {
+        BookDto book = new BookDto("9783161484112", "The Dream", 2L, "Author Two");
+        byte[] bytes = serializer.serialize(book);
+        // Format version 1 lacks the trailing version, a single zero byte here
+        byte[] unversionedBytes = Arrays.copyOf(bytes, bytes.length - 1);
+        unversionedBytes[1] = 1;
+
+        assertEquals(book, serializer.deserialize(unversionedBytes));
+    }
+
+    @Test
+    void deserialize_ReadsJdkSerializedEntries() {
+        BookDto book = new BookDto("9783161484112", "The Dream", 2L, "Author Two");
+        byte[] jdkBytes = new JdkSerializationRedisSerializer().serialize(book);
+
+        assertEquals(book, serializer.deserialize(jdkBytes));
+        assertTrue(serializer.serialize(book).length * 4 < jdkBytes.length);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.example.demo.dao.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class IsbnFilterTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private IsbnFilter isbnFilter;
+
+    @BeforeEach
+    void setUp() {
+        StoreCacheProperties storeCacheProperties = new StoreCacheProperties();
+        storeCacheProperties.getIsbnFilter().setMinimumCapacity(10);
+        isbnFilter = new IsbnFilter(bookRepository, transactionManager, invalidationBus, redisTemplate,
+                new CacheCircuitBreaker(storeCacheProperties.getCircuitBreaker(), new SimpleMeterRegistry()),
+                storeCacheProperties, new SimpleMeterRegistry());
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(bookRepository.count()).thenReturn(2L);
+        when(bookRepository.streamAllIsbns()).thenReturn(Stream.of("9780000000019", "9780000000026"));
+        isbnFilter.rebuild();
+    }
+
+    @Test
+    void addAll_AddsTheIsbnsWithOneBroadcast() {
+        when(zSetOperations.score(IsbnFilter.RECENT_KEY, "9780000000033", IsbnFilter.LOST_ADDITIONS))
+                .thenReturn(Arrays.asList(null, null));
+        assertTrue(isbnFilter.mightContain("9780000000019"));
+        assertFalse(isbnFilter.mightContain("9780000000033"));
+
+        isbnFilter.addAll(List.of("9780000000033", "9780000000040"));
+
+        assertTrue(isbnFilter.mightContain("9780000000033"));
+        assertTrue(isbnFilter.mightContain("9780000000040"));
+        verify(invalidationBus, times(1)).publish(eq(IsbnFilter.CHANNEL_NAME), any());
+        verify(redisTemplate, times(1)).execute(any(), eq(List.of(IsbnFilter.RECENT_KEY)), any(Object[].class));
+    }
+
+    @Test
+    void mightContain_NegativeAnswerCheckedAgainstIsbnsAddedElsewhere() {
+        // Added on another node whose broadcast never arrived
+        when(zSetOperations.score(IsbnFilter.RECENT_KEY, "9780000000033", IsbnFilter.LOST_ADDITIONS))
+                .thenReturn(Arrays.asList((double) System.currentTimeMillis(), null));
+
+        assertTrue(isbnFilter.mightContain("9780000000033"));
+        assertTrue(isbnFilter.mightContain("9780000000033"));
+
+        verify(zSetOperations, times(1)).score(any(), any(Object[].class));
+    }
+
+    @Test
+    void mightContain_NegativeAnswerNotTrustedWhileRedisIsUnreachable() {
+        when(zSetOperations.score(IsbnFilter.RECENT_KEY, "9780000000033", IsbnFilter.LOST_ADDITIONS))
+                .thenThrow(new RedisConnectionFailureException("Redis is down"));
+
+        assertTrue(isbnFilter.mightContain("9780000000033"));
+    }
+
+    @Test
+    void mightContain_LostAdditionsDistrustNegativeAnswersUntilTheNextRebuild() {
+        when(zSetOperations.score(IsbnFilter.RECENT_KEY, "9780000000033", IsbnFilter.LOST_ADDITIONS))
+                .thenReturn(Arrays.asList(null, (double) System.currentTimeMillis() + 1));
+
+        assertTrue(isbnFilter.mightContain("9780000000033"));
+    }
+
+    @Test
+    void addAll_OverCapacityKeepsTheFilterUntilTheNextCheckRebuildsIt() {
+        List<String> imported = IntStream.range(0, 20).mapToObj(i -> String.format("979%010d", i)).toList();
+        isbnFilter.addAll(imported);
+
+        assertTrue(imported.stream().allMatch(isbnFilter::mightContain));
+
+        when(bookRepository.count()).thenReturn(22L);
+        when(bookRepository.streamAllIsbns()).thenReturn(Stream.concat(Stream.of("9780000000019", "9780000000026"),
+                imported.stream()));
+        isbnFilter.rebuildIfDegraded();
+
+        verify(bookRepository, times(2)).streamAllIsbns();
+        verify(zSetOperations, never()).score(any(), any(Object[].class));
+        assertTrue(imported.stream().allMatch(isbnFilter::mightContain));
+    }
+}
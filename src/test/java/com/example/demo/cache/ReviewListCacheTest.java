@@ -0,0 +1,137 @@
+package com.example.demo.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.example.demo.datasource.ReadYourWrites;
+import com.example.demo.dto.ReviewDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ReviewListCacheTest {
+
+    private static final String ISBN = "1234567890";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private SingleFlightLoader singleFlightLoader;
+
+    @Mock
+    private CacheRefresher cacheRefresher;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final List<String> writtenPages = new ArrayList<>();
+
+    private ReviewListCache reviewListCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StoreCacheProperties storeCacheProperties = new StoreCacheProperties();
+        reviewListCache = new ReviewListCache(redisTemplate,
+                new CacheSerializers(storeCacheProperties, new SimpleMeterRegistry()),
+                new CachePolicies(storeCacheProperties, new CacheProperties()), singleFlightLoader, cacheRefresher,
+                hotKeyTracker, new CacheCircuitBreaker(storeCacheProperties.getCircuitBreaker(),
+                        new SimpleMeterRegistry()), storeCacheProperties);
+
+        // Emulates the generation counter kept by the scripts, the page itself is never cached
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.get(ReviewListCache.GENERATION_PREFIX + ISBN))
+                .thenAnswer(invocation -> Long.toString(generation.get()));
+        lenient().when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(null);
+        lenient().when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(), any(List.class),
+                any(Object[].class))).thenAnswer(invocation -> {
+                    RedisScript<Long> script = invocation.getArgument(0);
+                    if (script == ReviewListCache.REPLACE_SCRIPT) {
+                        long expected = Long.parseLong(new String(
+                                (byte[]) invocation.getArgument(5), StandardCharsets.UTF_8));
+                        if (expected != generation.get()) {
+                            return 0L;
+                        }
+                        writtenPages.add(invocation.<List<String>>getArgument(3).get(0));
+                        return 1L;
+                    }
+                    generation.incrementAndGet();
+                    return 0L;
+                });
+        when(singleFlightLoader.load(anyString(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<ReviewDto>>>getArgument(2).get());
+    }
+
+    @Test
+    void get_LoadedPageIsCached() {
+        List<ReviewDto> reviews = List.of(new ReviewDto(1, "John Doe", "Great book!", ISBN));
+
+        assertEquals(reviews, reviewListCache.get(ISBN, () -> reviews));
+
+        assertEquals(List.of(ReviewListCache.KEY_PREFIX + ISBN), writtenPages);
+    }
+
+    @Test
+    void get_PageIsLoadedFromThePrimary() {
+        ReviewDto review = new ReviewDto(1, "John Doe", "Great book!", ISBN);
+
+        // A lagging replica does not return the review that was just submitted
+        List<ReviewDto> loaded = reviewListCache.get(ISBN,
+                () -> ReadYourWrites.isRequired() ? List.of(review) : List.of());
+
+        assertEquals(List.of(review), loaded);
+    }
+
+    @Test
+    void get_PageLoadedWhileAReviewWasSubmittedIsNotCached() {
+        ReviewDto oldReview = new ReviewDto(1, "John Doe", "Great book!", ISBN);
+        ReviewDto newReview = new ReviewDto(2, "Jane Doe", "Even better the second time", ISBN);
+
+        // The review is committed and patched after the loader read the reviews, but before the page is written
+        List<ReviewDto> loaded = reviewListCache.get(ISBN, () -> {
+            List<ReviewDto> reviews = List.of(oldReview);
+            reviewListCache.patch(ISBN, newReview);
+            return reviews;
+        });
+
+        assertEquals(List.of(oldReview), loaded);
+        assertEquals(List.of(), writtenPages);
+        assertEquals(1, generation.get());
+    }
+
+    @Test
+    void get_PageLoadedWhileTheReviewsWereEvictedIsNotCached() {
+        reviewListCache.get(ISBN, () -> {
+            reviewListCache.evict(ISBN);
+            return List.of(new ReviewDto(1, "John Doe", "Great book!", ISBN));
+        });
+
+        assertEquals(List.of(), writtenPages);
+    }
+}
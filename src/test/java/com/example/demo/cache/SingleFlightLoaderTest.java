@@ -0,0 +1,75 @@
+package com.example.demo.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightLoaderTest {
+
+    private final SingleFlightLoader singleFlightLoader =
+            new SingleFlightLoader(null, new StoreCacheProperties.SingleFlight());
+
+    @Test
+    void load_ConcurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlightLoader.load("book::1", () -> null, () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return "value";
+            })));
+            loaderStarted.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> singleFlightLoader.load("book::1", () -> null, () -> {
+                    loads.incrementAndGet();
+                    return "value";
+                })));
+            }
+
+            Thread.sleep(100);
+            releaseLoader.countDown();
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void load_FailureIsRethrownAndNotRemembered() {
+        IllegalStateException failure = new IllegalStateException("Database unavailable");
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> singleFlightLoader.load("book::1", () -> null, () -> {
+                    throw failure;
+                })));
+        assertEquals("value", singleFlightLoader.load("book::1", () -> null, () -> "value"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
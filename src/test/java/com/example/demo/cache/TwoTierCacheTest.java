@@ -0,0 +1,190 @@
+package com.example.demo.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import com.example.demo.dto.BookDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@ExtendWith(MockitoExtension.class)
+public class TwoTierCacheTest {
+
+    @Mock
+    private Cache remoteCache;
+
+    @Mock
+    private VersionedCache versionedRemoteCache;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    @Mock
+    private CacheRefresher cacheRefresher;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
+    private TwoTierCache twoTierCache;
+
+    @BeforeEach
+    void setUp() {
+        twoTierCache = createCache(new CachePolicy(Duration.ofMinutes(1), 0.8, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void get_RemoteHitIsPromotedToLocalTier() {
+        when(remoteCache.get("1234567890")).thenReturn(new SimpleValueWrapper("value"));
+
+        assertEquals("value", twoTierCache.get("1234567890").get());
+        assertEquals("value", twoTierCache.get("1234567890").get());
+
+        verify(remoteCache, times(1)).get("1234567890");
+        assertEquals(1, twoTierCache.getLocalHits());
+        assertEquals(1, twoTierCache.getRemoteHits());
+    }
+
+    @Test
+    void get_MissInBothTiers() {
+        when(remoteCache.get("1234567890")).thenReturn(null);
+
+        assertNull(twoTierCache.get("1234567890"));
+        assertEquals(1, twoTierCache.getMisses());
+    }
+
+    @Test
+    void put_WritesBothTiersAndBroadcasts() {
+        twoTierCache.put("1234567890", "value");
+
+        assertEquals("value", twoTierCache.get("1234567890").get());
+        verify(remoteCache, times(1)).put(eq("1234567890"), argThat(entry -> "value".equals(((CacheEntry) entry).value())));
+        verify(remoteCache, never()).get(any());
+        verify(invalidationBus, times(1)).publish("book", "1234567890");
+    }
+
+    @Test
+    void getWithLoader_LoadsOnceAndWritesBothTiers() {
+        when(remoteCache.get("1234567890")).thenReturn(null);
+
+        assertEquals("value", twoTierCache.get("1234567890", () -> "value"));
+        assertEquals("value", twoTierCache.get("1234567890", () -> "other"));
+
+        verify(remoteCache, times(1)).put(eq("1234567890"), any(CacheEntry.class));
+        verify(invalidationBus, never()).publish(anyString(), any());
+    }
+
+    @Test
+    void getWithLoader_RefreshesAheadOfExpiryInBackground() {
+        long writtenAt = System.currentTimeMillis() - Duration.ofSeconds(50).toMillis();
+        when(remoteCache.get("1234567890")).thenReturn(new SimpleValueWrapper(new CacheEntry("value", writtenAt)));
+
+        assertEquals("value", twoTierCache.get("1234567890", () -> "reloaded"));
+
+        verify(cacheRefresher, times(1)).refresh(eq("book::1234567890"), any());
+    }
+
+    @Test
+    void getWithLoader_ServesStaleEntryWhenReloadFails() {
+        long writtenAt = System.currentTimeMillis() - Duration.ofSeconds(90).toMillis();
+        when(remoteCache.get("1234567890")).thenReturn(new SimpleValueWrapper(new CacheEntry("value", writtenAt)));
+
+        assertNull(twoTierCache.get("1234567890"));
+        assertEquals("value", twoTierCache.get("1234567890", () -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+        assertEquals(1, twoTierCache.getStaleHits());
+    }
+
+    @Test
+    void getWithLoader_FailsWithoutStaleEntry() {
+        twoTierCache = createCache(new CachePolicy(Duration.ofMinutes(1), 0, Duration.ZERO));
+        when(remoteCache.get("1234567890")).thenReturn(null);
+
+        assertThrows(Cache.ValueRetrievalException.class, () -> twoTierCache.get("1234567890", () -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+    }
+
+    @Test
+    void putIfAbsent_KeepsExistingRemoteValueWithoutBroadcast() {
+        when(remoteCache.putIfAbsent(eq("1234567890"), any(CacheEntry.class)))
+                .thenReturn(new SimpleValueWrapper(CacheEntry.of("existing")));
+
+        assertEquals("existing", twoTierCache.putIfAbsent("1234567890", "value").get());
+        assertEquals("existing", twoTierCache.get("1234567890").get());
+        verify(invalidationBus, never()).publish(anyString(), any());
+    }
+
+    @Test
+    void evictLocal_DoesNotTouchRemoteTier() {
+        twoTierCache.put("1234567890", "value");
+        twoTierCache.evictLocal("1234567890");
+        when(remoteCache.get("1234567890")).thenReturn(null);
+
+        assertNull(twoTierCache.get("1234567890"));
+        verify(remoteCache, never()).evict(any());
+        verify(invalidationBus, times(1)).publish(anyString(), any());
+    }
+
+    @Test
+    void put_OlderVersionDoesNotReplaceNewerVersion() {
+        TwoTierCache cache = createCache(new CachePolicy(Duration.ofMinutes(1), 0.8, Duration.ofMinutes(1)),
+                versionedRemoteCache);
+        BookDto newer = new BookDto("1234567890", "Test Book 2", 1L, "Author Name", 2L);
+        BookDto older = new BookDto("1234567890", "Test Book", 1L, "Author Name", 1L);
+        when(versionedRemoteCache.putIfNewer(eq("1234567890"), any(CacheEntry.class), eq(2L))).thenReturn(true);
+        when(versionedRemoteCache.putIfNewer(eq("1234567890"), any(CacheEntry.class), eq(1L))).thenReturn(false);
+        when(versionedRemoteCache.get("1234567890")).thenReturn(new SimpleValueWrapper(CacheEntry.of(newer)));
+
+        cache.put("1234567890", newer);
+        cache.put("1234567890", older);
+
+        assertEquals(newer, cache.get("1234567890").get());
+        assertEquals(1, cache.getRemoteHits());
+        verify(versionedRemoteCache, never()).put(any(), any());
+        verify(invalidationBus, times(1)).publish("book", "1234567890");
+    }
+
+    @Test
+    void put_LocalTierKeepsNewerVersion() {
+        TwoTierCache cache = createCache(new CachePolicy(Duration.ofMinutes(1), 0.8, Duration.ofMinutes(1)),
+                versionedRemoteCache);
+        BookDto newer = new BookDto("1234567890", "Test Book 2", 1L, "Author Name", 2L);
+        when(versionedRemoteCache.putIfNewer(eq("1234567890"), any(CacheEntry.class), anyLong())).thenReturn(true);
+
+        cache.put("1234567890", newer);
+        cache.put("1234567890", new BookDto("1234567890", "Test Book", 1L, "Author Name", 1L));
+
+        assertEquals(newer, cache.get("1234567890").get());
+        verify(versionedRemoteCache, never()).get(any());
+    }
+
+    private TwoTierCache createCache(CachePolicy policy) {
+        return createCache(policy, remoteCache);
+    }
+
+    private TwoTierCache createCache(CachePolicy policy, Cache remoteCache) {
+        return new TwoTierCache("book", Caffeine.newBuilder().maximumSize(100).build(), remoteCache,
+                invalidationBus, new SingleFlightLoader(null, new StoreCacheProperties.SingleFlight()), policy,
+                cacheRefresher, hotKeyTracker);
+    }
+}
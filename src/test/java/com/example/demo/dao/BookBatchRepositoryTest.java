@@ -0,0 +1,113 @@
+package com.example.demo.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.demo.dto.BookDto;
+import com.example.demo.entity.Author;
+import com.example.demo.entity.Book;
+import com.example.demo.entity.Review;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true"
+})
+@Import(BookBatchRepository.class)
+public class BookBatchRepositoryTest {
+
+    @Autowired
+    private BookBatchRepository bookBatchRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        author = new Author();
+        author.setName("Author One");
+        entityManager.persist(author);
+        entityManager.persist(Book.builder().isbn("9780000000019").title("Existing").author(author).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void insertBooks_InsertsAllRowsOfTheBatch() {
+        bookBatchRepository.insertBooks(List.of(new BookDto("9780000000026", "Second", author.getId(), null),
+                new BookDto("9780000000033", "Third", author.getId(), null)));
+
+        assertEquals(3, bookRepository.count());
+        assertEquals("Author One", bookRepository.findDtoByIsbn("9780000000033").get().getAuthorName());
+    }
+
+    @Test
+    void lookups_ReturnOnlyExistingRows() {
+        assertEquals(Map.of((long) author.getId(), "Author One"),
+                bookBatchRepository.findAuthorNamesByIds(List.of((long) author.getId(), 999L)));
+        assertEquals(Set.of("9780000000019"),
+                bookBatchRepository.findExistingIsbns(List.of("9780000000019", "9780000000026")));
+    }
+
+    @Test
+    void deleteBookWithReviews_RemovesTheBookAndAllItsReviews() {
+        addReviews(3);
+
+        assertTrue(bookBatchRepository.deleteBookWithReviews("9780000000019"));
+
+        assertEquals(0, bookRepository.count());
+        assertEquals(0L, countReviews());
+        assertFalse(bookBatchRepository.deleteBookWithReviews("9780000000019"));
+    }
+
+    @Test
+    void softDeleteBook_HidesTheBookUntilItIsPurged() {
+        addReviews(3);
+
+        assertTrue(bookBatchRepository.softDeleteBook("9780000000019"));
+        assertFalse(bookBatchRepository.softDeleteBook("9780000000019"));
+        assertTrue(bookRepository.findDtoByIsbn("9780000000019").isEmpty());
+        assertTrue(bookRepository.findById("9780000000019").isEmpty());
+        assertEquals(Set.of(), bookBatchRepository.findLiveIsbns(List.of("9780000000019")));
+        assertEquals(List.of("9780000000019"), bookBatchRepository.findSoftDeletedIsbns(10));
+
+        assertEquals(2, bookBatchRepository.deleteReviews("9780000000019", 2));
+        // The last review stands for one submitted while the purge was running
+        assertTrue(bookBatchRepository.deleteSoftDeletedBook("9780000000019"));
+        assertEquals(0L, countReviews());
+        assertEquals(List.of(), bookBatchRepository.findSoftDeletedIsbns(10));
+    }
+
+    private void addReviews(int count) {
+        Book book = entityManager.find(Book.class, "9780000000019");
+        for (int i = 0; i < count; i++) {
+            Review review = new Review();
+            review.setBook(book);
+            review.setReviewerName("Reviewer " + i);
+            review.setContent("Review " + i);
+            entityManager.persist(review);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Long countReviews() {
+        return entityManager.getEntityManager().createQuery("SELECT COUNT(r) FROM Review r", Long.class)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.FacetCountDto;
+import com.example.demo.entity.Author;
+import com.example.demo.entity.Book;
+import com.example.demo.entity.QBook;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.querydsl.core.BooleanBuilder;
+
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class BookRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int a = 1; a <= 3; a++) {
+            Author author = new Author();
+            author.setName("Author " + a);
+            entityManager.persist(author);
+            for (int b = 1; b <= 4; b++) {
+                entityManager.persist(Book.builder().isbn("978000000" + a + b).title("Book " + a + b).author(author)
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllAsDto_LoadsPageWithTwoStatementsAndNoEntities() {
+        Page<BookDto> page = bookRepository.findAllAsDto(new BooleanBuilder(), PageRequest.of(1, 5, Sort.by("title")));
+
+        assertEquals(5, page.getContent().size());
+        assertEquals(12, page.getTotalElements());
+        assertEquals("Book 22", page.getContent().get(0).getTitle());
+        assertEquals("Author 2", page.getContent().get(0).getAuthorName());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findAllAsDto_FiltersByAuthorName() {
+        BooleanBuilder predicate = new BooleanBuilder(QBook.book.author.name.containsIgnoreCase("author 3"));
+
+        Page<BookDto> page = bookRepository.findAllAsDto(predicate, PageRequest.of(0, 8));
+
+        assertEquals(4, page.getTotalElements());
+        assertTrue(page.getContent().stream().allMatch(book -> "Author 3".equals(book.getAuthorName())));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void countByAuthor_GroupsMatchingBooksInOneStatement() {
+        BooleanBuilder predicate = new BooleanBuilder(QBook.book.title.in("Book 11", "Book 12", "Book 21"));
+
+        List<FacetCountDto> counts = bookRepository.countByAuthor(predicate, 10);
+
+        assertEquals(List.of("Author 1", "Author 2"), counts.stream().map(FacetCountDto::getLabel).toList());
+        assertEquals(List.of(2L, 1L), counts.stream().map(FacetCountDto::getCount).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findAllAsDtoAfter_SeeksPastCursorWithoutCount() {
+        List<BookDto> books = bookRepository.findAllAsDtoAfter(new BooleanBuilder(), "Book 21", "97800000021", 3);
+
+        assertEquals(List.of("Book 22", "Book 23", "Book 24"), books.stream().map(BookDto::getTitle).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findAllAsDtoAfter_BreaksTitleTiesByIsbn() {
+        long authorId = bookRepository.findDtoByIsbn("97800000011").get().getAuthorId();
+        Author author = entityManager.find(Author.class, authorId);
+        entityManager.persist(Book.builder().isbn("97800000010").title("Book 11").author(author).build());
+        entityManager.flush();
+
+        List<BookDto> books = bookRepository.findAllAsDtoAfter(new BooleanBuilder(), "Book 11", "97800000010", 2);
+
+        assertEquals(List.of("97800000011", "97800000012"), books.stream().map(BookDto::getIsbn).toList());
+    }
+
+    @Test
+    void findDtoByIsbn_LoadsBookWithOneStatement() {
+        Optional<BookDto> book = bookRepository.findDtoByIsbn("97800000012");
+
+        assertTrue(book.isPresent());
+        assertEquals("Author 1", book.get().getAuthorName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
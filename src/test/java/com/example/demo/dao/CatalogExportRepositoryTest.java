@@ -0,0 +1,56 @@
+package com.example.demo.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.ReviewDto;
+import com.example.demo.entity.Author;
+import com.example.demo.entity.Book;
+import com.example.demo.entity.Review;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true"
+})
+@Import(CatalogExportRepository.class)
+public class CatalogExportRepositoryTest {
+
+    @Autowired
+    private CatalogExportRepository catalogExportRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void forEach_StreamsEveryRowWithItsAuthor() {
+        Author author = new Author();
+        author.setName("Author One");
+        entityManager.persist(author);
+        Book book = Book.builder().isbn("9780000000026").title("Second").author(author).build();
+        entityManager.persist(book);
+        entityManager.persist(Book.builder().isbn("9780000000019").title("First").author(author).build());
+        Review review = new Review();
+        review.setBook(book);
+        review.setReviewerName("John Doe");
+        review.setContent("Great book!");
+        entityManager.persist(review);
+        entityManager.flush();
+
+        List<BookDto> books = new ArrayList<>();
+        catalogExportRepository.forEachBook(1, books::add);
+        List<ReviewDto> reviews = new ArrayList<>();
+        catalogExportRepository.forEachReview(1, reviews::add);
+
+        assertEquals(List.of(new BookDto("9780000000019", "First", author.getId(), "Author One"),
+                new BookDto("9780000000026", "Second", author.getId(), "Author One")), books);
+        assertEquals(List.of(new ReviewDto(review.getId(), "John Doe", "Great book!", "9780000000026")), reviews);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import com.example.demo.dto.ReviewDto;
+import com.example.demo.entity.Author;
+import com.example.demo.entity.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true"
+})
+@Import(ReviewBatchRepository.class)
+public class ReviewBatchRepositoryTest {
+
+    @Autowired
+    private ReviewBatchRepository reviewBatchRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void insertReviews_ReturnsGeneratedIdsInOrder() {
+        Author author = new Author();
+        author.setName("Author One");
+        entityManager.persist(author);
+        entityManager.persist(Book.builder().isbn("9780000000019").title("First").author(author).build());
+        entityManager.persist(Book.builder().isbn("9780000000026").title("Second").author(author).build());
+        entityManager.flush();
+
+        List<Integer> ids = reviewBatchRepository.insertReviews(List.of(
+                new ReviewDto(0, "John Doe", "Great book!", "9780000000019"),
+                new ReviewDto(0, "Jane Doe", "Good book!", "9780000000026"),
+                new ReviewDto(0, "Mr.X", "Nice Book", "9780000000019")));
+
+        assertEquals(3, ids.size());
+        assertEquals(List.of(ids.get(0), ids.get(2)), reviewRepository
+                .findDtosByBookIsbnAfter("9780000000019", 0, Limit.of(10)).stream().map(ReviewDto::getId).toList());
+        assertEquals("Jane Doe", reviewRepository.findDtosByBookIsbnAfter("9780000000026", 0, Limit.of(10)).get(0)
+                .getReviewerName());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import com.example.demo.dto.ReviewDto;
+import com.example.demo.entity.Author;
+import com.example.demo.entity.Book;
+import com.example.demo.entity.Review;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class ReviewRepositoryTest {
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private List<Integer> reviewIds;
+
+    @BeforeEach
+    void setUp() {
+        Author author = new Author();
+        author.setName("Author 1");
+        entityManager.persist(author);
+        Book book = entityManager.persist(Book.builder().isbn("97800000011").title("Book 11").author(author).build());
+        Book otherBook =
+                entityManager.persist(Book.builder().isbn("97800000012").title("Book 12").author(author).build());
+        for (int i = 1; i <= 5; i++) {
+            entityManager.persist(review(book, "Review " + i));
+            entityManager.persist(review(otherBook, "Other review " + i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        reviewIds = reviewRepository.findDtosByBookIsbnAfter("97800000011", 0, Limit.unlimited()).stream()
+                .map(ReviewDto::getId).toList();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findDtosByBookIsbnAfter_SeeksPastCursorWithoutLoadingEntities() {
+        List<ReviewDto> reviews = reviewRepository.findDtosByBookIsbnAfter("97800000011", reviewIds.get(1),
+                Limit.of(2));
+
+        assertEquals(List.of("Review 3", "Review 4"), reviews.stream().map(ReviewDto::getContent).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findDtosByBookIsbnBefore_ReturnsNewestFirst() {
+        List<ReviewDto> reviews = reviewRepository.findDtosByBookIsbnBefore("97800000011", reviewIds.get(4),
+                Limit.of(2));
+
+        assertEquals(List.of("Review 4", "Review 3"), reviews.stream().map(ReviewDto::getContent).toList());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findDtosByBookIsbnAfter_LeavesOutReviewsOfDeletedBooks() {
+        entityManager.getEntityManager().createNativeQuery(
+                "UPDATE online_book_store.book SET deleted_at = CURRENT_TIMESTAMP WHERE isbn = '97800000012'")
+                .executeUpdate();
+
+        assertEquals(List.of(), reviewRepository.findDtosByBookIsbnAfter("97800000012", 0, Limit.unlimited()));
+        assertEquals(5, reviewRepository.findDtosByBookIsbnAfter("97800000011", 0, Limit.unlimited()).size());
+    }
+
+    private static Review review(Book book, String content) {
+        Review review = new Review();
+        review.setBook(book);
+        review.setReviewerName("Reviewer");
+        review.setContent(content);
+        return review;
+    }
+}
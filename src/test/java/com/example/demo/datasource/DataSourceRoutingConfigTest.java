@@ -0,0 +1,26 @@
+package com.example.demo.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+public class DataSourceRoutingConfigTest {
+
+    private final DataSourceRoutingConfig config = new DataSourceRoutingConfig();
+
+    @Test
+    void readYourWritesFilter_DefaultWindowCoversTheMaximumLag() {
+        assertNotNull(config.readYourWritesFilter(new DataSourceRoutingProperties()));
+    }
+
+    @Test
+    void readYourWritesFilter_WindowShorterThanTheMaximumLagIsRejected() {
+        DataSourceRoutingProperties properties = new DataSourceRoutingProperties();
+        properties.setReadYourWritesWindow(Duration.ofSeconds(5));
+
+        assertThrows(IllegalStateException.class, () -> config.readYourWritesFilter(properties));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class CompactBitmapTest {
+
+    @Test
+    void andCardinality_CountsAcrossSparseAndDensePartitions() {
+        CompactBitmap evens = new CompactBitmap();
+        CompactBitmap thirds = new CompactBitmap();
+        for (int ordinal = 0; ordinal < 200_000; ordinal++) {
+            if (ordinal % 2 == 0) {
+                evens.add(ordinal);
+            }
+            if (ordinal % 3 == 0) {
+                thirds.add(ordinal);
+            }
+        }
+        thirds.add(1 << 20);
+
+        assertEquals(100_000, evens.cardinality());
+        assertEquals(33_334, evens.andCardinality(thirds));
+        assertEquals(33_334, thirds.andCardinality(evens));
+    }
+
+    @Test
+    void remove_ShrinksDensePartitionsBackToArrays() {
+        CompactBitmap bitmap = new CompactBitmap();
+        for (int ordinal = 0; ordinal < 5000; ordinal++) {
+            bitmap.add(ordinal);
+        }
+        for (int ordinal = 0; ordinal < 4990; ordinal++) {
+            bitmap.remove(ordinal);
+        }
+
+        assertEquals(10, bitmap.cardinality());
+        assertTrue(bitmap.contains(4995));
+        assertFalse(bitmap.contains(42));
+    }
+}
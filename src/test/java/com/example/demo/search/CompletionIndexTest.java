@@ -0,0 +1,46 @@
+package com.example.demo.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CompletionIndexTest {
+
+    private CompletionIndex completions;
+    private int hobbitId;
+
+    @BeforeEach
+    void setUp() {
+        completions = new CompletionIndex("title");
+        completions.add("The Lord of the Rings", 5);
+        hobbitId = completions.add("The Hobbit", 10);
+        completions.add("The Two Towers", 1);
+        completions.add("Wuthering Heights", 50);
+        completions.add("The Lord of the Rings", 3);
+        hobbitId = completions.freeze()[hobbitId];
+    }
+
+    @Test
+    void complete_ReturnsMostPopularCompletionsOfPrefix() {
+        assertEquals(List.of("The Hobbit", "The Lord of the Rings"), texts(completions.complete("the", 2)));
+        assertEquals(List.of("The Lord of the Rings"), texts(completions.complete("  THE lord", 5)));
+        assertEquals(List.of(), texts(completions.complete("x", 5)));
+    }
+
+    @Test
+    void complete_HidesReleasedAndShowsAddedCompletions() {
+        completions.release(hobbitId);
+        completions.add("The Hobbit Companion", 20);
+
+        assertEquals(List.of("The Hobbit Companion", "The Lord of the Rings", "The Two Towers"),
+                texts(completions.complete("the", 5)));
+        assertEquals(1, completions.overlaySize());
+    }
+
+    private static List<String> texts(List<CompletionIndex.Completion> completions) {
+        return completions.stream().map(CompletionIndex.Completion::text).toList();
+    }
+}
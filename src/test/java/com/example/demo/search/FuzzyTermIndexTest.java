@@ -0,0 +1,30 @@
+package com.example.demo.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class FuzzyTermIndexTest {
+
+    @Test
+    void distance_StopsAtMaxEdits() {
+        assertEquals(0, FuzzyTermIndex.distance("tolkien", "tolkien", 2));
+        assertEquals(2, FuzzyTermIndex.distance("tolkein", "tolkien", 2));
+        assertEquals(1, FuzzyTermIndex.distance("hobit", "hobbit", 2));
+        assertEquals(3, FuzzyTermIndex.distance("hobbit", "rings", 2));
+    }
+
+    @Test
+    void similarTerms_FindsTermsWithinMaxEdits() {
+        FuzzyTermIndex index = new FuzzyTermIndex();
+        index.add("tolkien");
+        index.add("token");
+        index.add("hobbit");
+        index.add("rabbit");
+
+        assertEquals(Map.of("tolkien", 2, "token", 2), index.similarTerms("tolkein", 2, Long.MAX_VALUE));
+        assertEquals(Map.of("hobbit", 1), index.similarTerms("hobit", 1, Long.MAX_VALUE));
+    }
+}
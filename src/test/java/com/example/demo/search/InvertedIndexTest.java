@@ -0,0 +1,65 @@
+package com.example.demo.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import com.example.demo.dto.BookDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.add(new BookDto("9780000000001", "The Lord of the Rings", 1L, "J. R. R. Tolkien"));
+        index.add(new BookDto("9780000000002", "The Hobbit", 1L, "J. R. R. Tolkien"));
+        index.add(new BookDto("9780000000003", "Wuthering Heights", 2L, "Emily Brontë"));
+        index.add(new BookDto("9780000000004", "The Two Towers", 3L, "Rings Historian"));
+    }
+
+    @Test
+    void search_AllTermsMustMatchTitleOrAuthor() {
+        SearchHits hits = index.search(List.of(List.of("tolkien", "rings")), 0, 10);
+
+        assertEquals(List.of("9780000000001"), hits.isbns());
+        assertEquals(1, hits.totalHits());
+    }
+
+    @Test
+    void search_OrGroupsRankTitleMatchesFirst() {
+        SearchHits hits = index.search(List.of(List.of("rings"), List.of("bronte")), 0, 10);
+
+        assertEquals(List.of("9780000000001", "9780000000003", "9780000000004"), hits.isbns());
+    }
+
+    @Test
+    void search_PagesThroughTopHits() {
+        SearchHits hits = index.search(List.of(List.of("the")), 1, 1);
+
+        assertEquals(List.of("9780000000002"), hits.isbns());
+        assertEquals(3, hits.totalHits());
+    }
+
+    @Test
+    void search_SkipsReplacedAndRemovedBooks() {
+        index.add(new BookDto("9780000000002", "There and Back Again", 1L, "J. R. R. Tolkien"));
+        index.remove("9780000000001");
+
+        SearchHits hits = index.search(List.of(List.of("tolkien")), 0, 10);
+
+        assertEquals(List.of("9780000000002"), hits.isbns());
+        assertEquals(0.4, index.deletedRatio(), 0.001);
+    }
+
+    @Test
+    void searchSimilar_ToleratesTyposPerField() {
+        SearchHits hits = index.searchSimilar(List.of("hobit"), List.of("tolkein"), 2, Long.MAX_VALUE, 0, 10);
+
+        assertEquals(List.of("9780000000002"), hits.isbns());
+        assertEquals(List.of(), index.searchSimilar(List.of("tolkein"), List.of(), 2, Long.MAX_VALUE, 0, 10).isbns());
+    }
+}
@@ -6,16 +6,21 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Optional;
 
+import com.example.demo.cache.AuthorBookIndex;
+import com.example.demo.cache.BookSearchCache;
 import com.example.demo.dao.AuthorRepository;
+import com.example.demo.datasource.ReadYourWrites;
 import com.example.demo.dto.AuthorDto;
 import com.example.demo.entity.Author;
 import com.example.demo.exception.OnlineBookStoreException;
+import com.example.demo.search.CatalogIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,6 +35,15 @@ public class AuthorServiceTest {
     @Mock
     private AuthorRepository authorRepository;
 
+    @Mock
+    private AuthorBookIndex authorBookIndex;
+
+    @Mock
+    private CatalogIndex catalogIndex;
+
+    @Mock
+    private BookSearchCache bookSearchCache;
+
     @InjectMocks
     private AuthorService authorService;
 
@@ -82,6 +96,19 @@ public class AuthorServiceTest {
         verify(authorRepository, times(1)).findById(anyLong());
     }
 
+    @Test
+    void findAuthorById_CachedAuthorIsReadFromThePrimary() {
+        // A lagging replica still returns the name from before the change
+        when(authorRepository.findById(1L)).thenAnswer(invocation -> {
+            author.setName(ReadYourWrites.isRequired() ? "New Name" : "Author Name");
+            return Optional.of(author);
+        });
+
+        AuthorDto result = authorService.findAuthorById(1L);
+
+        assertEquals("New Name", result.getName());
+    }
+
     @Test
     void fetchAuthorById_AuthorNotFound() {
         when(authorRepository.findById(anyLong())).thenReturn(Optional.empty());
@@ -92,4 +119,40 @@ public class AuthorServiceTest {
         verify(authorRepository, times(1)).findById(anyLong());
     }
 
-}
\ No newline at end of file
+    @Test
+    void modifyAuthorById_EvictsDependentBooks() {
+        authorDto.setName("New Name");
+        when(authorRepository.findById(anyLong())).thenReturn(Optional.of(author));
+        when(authorRepository.save(author)).thenReturn(author);
+
+        AuthorDto result = authorService.modifyAuthorById(1L, authorDto);
+
+        assertEquals("New Name", result.getName());
+        verify(authorBookIndex, times(1)).evictBooksOf(1L);
+        verify(bookSearchCache, times(1)).invalidateAll();
+    }
+
+    @Test
+    void modifyAuthorById_AuthorNotFound() {
+        when(authorRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
+            authorService.modifyAuthorById(1L, authorDto);
+        });
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        verify(authorBookIndex, never()).evictBooksOf(anyLong());
+    }
+
+    @Test
+    void modifyAuthorById_BlankName() {
+        authorDto.setName(" ");
+
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
+            authorService.modifyAuthorById(1L, authorDto);
+        });
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(authorRepository, never()).save(author);
+    }
+}
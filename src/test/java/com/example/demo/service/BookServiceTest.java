@@ -3,30 +3,53 @@ package com.example.demo.service;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-
+import java.util.function.Supplier;
+
+import com.example.demo.bulk.BookPurger;
+import com.example.demo.bulk.BulkProperties;
+import com.example.demo.cache.AuthorBookIndex;
+import com.example.demo.cache.BookSearchCache;
+import com.example.demo.cache.IsbnFilter;
+import com.example.demo.cache.ReviewListCache;
+import com.example.demo.dao.BookBatchRepository;
 import com.example.demo.dao.BookRepository;
+import com.example.demo.datasource.ReadYourWrites;
+import com.example.demo.dto.BookCursorPage;
 import com.example.demo.dto.BookDto;
+import com.example.demo.dto.CompletionDto;
+import com.example.demo.dto.FacetCountDto;
+import com.example.demo.dto.FacetedPage;
 import com.example.demo.entity.Author;
 import com.example.demo.entity.Book;
 import com.example.demo.exception.OnlineBookStoreException;
+import com.example.demo.search.CatalogIndex;
+import com.example.demo.search.SearchHits;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -36,6 +59,7 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
 
 @ExtendWith(MockitoExtension.class)
 public class BookServiceTest {
@@ -43,7 +67,28 @@ public class BookServiceTest {
     private BookRepository bookRepository;
 
     @Mock
-    private AuthorService authorService;
+    private BookBatchRepository bookBatchRepository;
+
+    @Mock
+    private BookSearchCache bookSearchCache;
+
+    @Mock
+    private IsbnFilter isbnFilter;
+
+    @Mock
+    private AuthorBookIndex authorBookIndex;
+
+    @Mock
+    private CatalogIndex catalogIndex;
+
+    @Mock
+    private ReviewListCache reviewListCache;
+
+    @Mock
+    private BookPurger bookPurger;
+
+    @Spy
+    private BulkProperties bulkProperties = new BulkProperties();
 
     @InjectMocks
     private BookService bookService;
@@ -67,121 +112,174 @@ public class BookServiceTest {
         book.setIsbn("1234567890");
         book.setTitle("Test Book");
         book.setAuthor(author);
+
+        lenient().when(isbnFilter.mightContain(anyString())).thenReturn(true);
     }
 
     @Test
     void addNewBook_Success() {
-        when(bookRepository.existsById(anyString())).thenReturn(false);
-        when(authorService.fetchAuthorById(anyLong())).thenReturn(Optional.of(author));
-        when(bookRepository.save(book)).thenReturn(book);
+        when(bookBatchRepository.insertBookIfAbsent(bookDto))
+                .thenReturn(Optional.of(new BookDto("1234567890", "Test Book", 1L, "Author Name")));
 
         BookDto result = bookService.addNewBook(bookDto);
 
         assertNotNull(result);
         assertEquals(bookDto.getIsbn(), result.getIsbn());
-        verify(bookRepository, times(1)).existsById(anyString());
-        verify(bookRepository, times(1)).save(book);
+        assertEquals("Author Name", result.getAuthorName());
+        verify(bookRepository, never()).existsById(anyString());
+        verify(bookSearchCache, times(1)).invalidateAll();
+        verify(isbnFilter, times(1)).add("1234567890");
     }
 
     @Test
     void addNewBook_BookAlreadyExists() {
-        when(bookRepository.existsById(anyString())).thenReturn(true);
+        when(bookBatchRepository.insertBookIfAbsent(bookDto)).thenReturn(Optional.empty());
 
         OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
             bookService.addNewBook(bookDto);
         });
 
         assertEquals(HttpStatus.CONFLICT, exception.getStatus());
-        verify(bookRepository, times(1)).existsById(anyString());
-        verify(bookRepository, times(0)).save(book);
+        verify(isbnFilter, never()).add(anyString());
     }
 
     @Test
     void addNewBook_AuthorNotFound() {
-        when(bookRepository.existsById(anyString())).thenReturn(false);
-        when(authorService.fetchAuthorById(anyLong())).thenReturn(Optional.empty());
+        when(bookBatchRepository.insertBookIfAbsent(bookDto)).thenThrow(new DataIntegrityViolationException(
+                "insert violates foreign key", new SQLException("fk_author", "23503")));
 
         OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
             bookService.addNewBook(bookDto);
         });
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
-        verify(bookRepository, times(1)).existsById(anyString());
-        verify(bookRepository, times(0)).save(book);
+        assertEquals("Author not found for the given ID: 1", exception.getMessage());
+        verify(isbnFilter, never()).add(anyString());
     }
 
     @Test
     void fetchBookByIsbn_Success() {
-        when(bookRepository.findById(anyString())).thenReturn(Optional.of(book));
+        when(bookRepository.findDtoByIsbn(anyString()))
+                .thenReturn(Optional.of(new BookDto("1234567890", "Test Book", 1L, "Author Name")));
 
         BookDto result = bookService.fetchBookByIsbn("1234567890");
 
         assertNotNull(result);
         assertEquals(book.getIsbn(), result.getIsbn());
-        verify(bookRepository, times(1)).findById(anyString());
+        verify(bookRepository, times(1)).findDtoByIsbn(anyString());
+        verify(authorBookIndex, times(1)).register(1L, "1234567890");
+    }
+
+    @Test
+    void fetchBookByIsbn_CachedBookIsReadFromThePrimary() {
+        // A lagging replica still returns the title from before the update
+        when(bookRepository.findDtoByIsbn("1234567890")).thenAnswer(invocation -> Optional.of(new BookDto(
+                "1234567890", ReadYourWrites.isRequired() ? "New Title" : "Old Title", 1L, "Author Name")));
+
+        BookDto result = bookService.fetchBookByIsbn("1234567890");
+
+        assertEquals("New Title", result.getTitle());
     }
 
     @Test
     void fetchBookByIsbn_BookNotFound() {
-        when(bookRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(bookRepository.findDtoByIsbn(anyString())).thenReturn(Optional.empty());
 
         OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
             bookService.fetchBookByIsbn("1234567890");
         });
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
-        verify(bookRepository, times(1)).findById(anyString());
+        verify(bookRepository, times(1)).findDtoByIsbn(anyString());
+    }
+
+    @Test
+    void fetchBookByIsbn_RejectedByIsbnFilter() {
+        when(isbnFilter.mightContain(anyString())).thenReturn(false);
+
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
+            bookService.fetchBookByIsbn("1234567890");
+        });
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        verify(bookRepository, times(0)).findDtoByIsbn(anyString());
     }
 
     @Test
     void modifyBookByIsbn_Success() {
-        when(bookRepository.existsById(anyString())).thenReturn(true);
-        when(authorService.fetchAuthorById(anyLong())).thenReturn(Optional.of(author));
-        when(bookRepository.save(book)).thenReturn(book);
+        when(bookBatchRepository.updateBook(new BookDto("1234567890", "Test Book", 1L, null), null))
+                .thenReturn(Optional.of(new BookDto("1234567890", "Test Book", 1L, "Author Name", 1L)));
 
-        BookDto result = bookService.modifyBookByIsbn("1234567890", bookDto);
+        BookDto result = bookService.modifyBookByIsbn("1234567890", bookDto, null);
 
         assertNotNull(result);
         assertEquals(bookDto.getIsbn(), result.getIsbn());
-        verify(bookRepository, times(1)).existsById(anyString());
-        verify(bookRepository, times(1)).save(book);
+        verify(authorBookIndex, times(1)).register(1L, "1234567890");
+        verify(catalogIndex, times(1)).index(result);
     }
 
     @Test
     void modifyBookByIsbn_BookNotFound() {
-        when(bookRepository.existsById(anyString())).thenReturn(false);
+        when(bookBatchRepository.updateBook(any(), any())).thenReturn(Optional.empty());
 
         OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
-            bookService.modifyBookByIsbn("1234567890", bookDto);
+            bookService.modifyBookByIsbn("1234567890", bookDto, null);
         });
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
-        verify(bookRepository, times(1)).existsById(anyString());
-        verify(bookRepository, times(0)).save(book);
+        verify(bookSearchCache, never()).invalidateAll();
+    }
+
+    @Test
+    void modifyBookByIsbn_VersionChanged() {
+        when(bookBatchRepository.updateBook(new BookDto("1234567890", "Test Book", 1L, null), 2L))
+                .thenReturn(Optional.empty());
+        when(bookRepository.existsById("1234567890")).thenReturn(true);
+
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
+            bookService.modifyBookByIsbn("1234567890", bookDto, 2L);
+        });
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatus());
+        verify(bookSearchCache, never()).invalidateAll();
     }
 
     @Test
     void removeBookByIsbn_Success() {
-        when(bookRepository.existsById(anyString())).thenReturn(true);
-        doNothing().when(bookRepository).deleteById(anyString());
+        when(bookBatchRepository.deleteBookWithReviews("1234567890")).thenReturn(true);
 
         assertDoesNotThrow(() -> bookService.removeBookByIsbn("1234567890"));
 
-        verify(bookRepository, times(1)).existsById(anyString());
-        verify(bookRepository, times(1)).deleteById(anyString());
+        verify(bookRepository, never()).deleteById(anyString());
+        verify(reviewListCache, times(1)).evict("1234567890");
+        verify(bookSearchCache, times(1)).invalidateAll();
+        verify(catalogIndex, times(1)).remove("1234567890");
+        verify(bookPurger, never()).purgeLater(anyString());
+    }
+
+    @Test
+    void removeBookByIsbn_SoftDeleteQueuesPurge() {
+        bulkProperties.setSoftDelete(true);
+        when(bookBatchRepository.softDeleteBook("1234567890")).thenReturn(true);
+
+        assertDoesNotThrow(() -> bookService.removeBookByIsbn("1234567890"));
+
+        verify(bookBatchRepository, never()).deleteBookWithReviews(anyString());
+        verify(reviewListCache, times(1)).evict("1234567890");
+        verify(bookPurger, times(1)).purgeLater("1234567890");
     }
 
     @Test
     void removeBookByIsbn_BookNotFound() {
-        when(bookRepository.existsById(anyString())).thenReturn(false);
+        when(bookBatchRepository.deleteBookWithReviews("1234567890")).thenReturn(false);
 
         OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
             bookService.removeBookByIsbn("1234567890");
         });
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
-        verify(bookRepository, times(1)).existsById(anyString());
-        verify(bookRepository, times(0)).deleteById(anyString());
+        verify(reviewListCache, never()).evict(anyString());
+        verify(bookSearchCache, never()).invalidateAll();
     }
 
     @Test
@@ -190,14 +288,199 @@ public class BookServiceTest {
         searchParams.add("isbn", "1234567890");
         Pageable pageable = PageRequest.of(0, 10);
 
-        when(bookRepository.findAll(any(BooleanBuilder.class), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(book)));
+        when(bookSearchCache.get(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Page<BookDto>>>getArgument(2).get());
+        when(bookRepository.findAllAsDto(any(BooleanBuilder.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(bookDto)));
 
         Page<BookDto> result = bookService.getAllBooks(searchParams, pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(bookRepository, times(1)).findAll(any(BooleanBuilder.class), any(Pageable.class));
+        verify(bookRepository, times(1)).findAllAsDto(any(BooleanBuilder.class), any(Pageable.class));
+    }
+
+    @Test
+    void getAllBooks_CachedPageIsReadFromThePrimary() {
+        MultiValueMap<String, String> searchParams = new LinkedMultiValueMap<>();
+        searchParams.add("title", "new");
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(bookSearchCache.get(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Page<BookDto>>>getArgument(2).get());
+        // A lagging replica does not have the book that was just added yet
+        when(bookRepository.findAllAsDto(any(BooleanBuilder.class), any(Pageable.class))).thenAnswer(
+                invocation -> new PageImpl<>(ReadYourWrites.isRequired() ? List.of(bookDto) : List.of()));
+
+        Page<BookDto> result = bookService.getAllBooks(searchParams, pageable);
+
+        assertEquals(List.of(bookDto), result.getContent());
+    }
+
+    @Test
+    void getAllBooks_SearchUsesRankedSearch() {
+        MultiValueMap<String, String> searchParams = new LinkedMultiValueMap<>();
+        searchParams.add("search", " dream ");
+        searchParams.add("author", "smith");
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(bookSearchCache.get(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Page<BookDto>>>getArgument(2).get());
+        when(bookRepository.searchAsDto("dream", null, "smith", null, pageable))
+                .thenReturn(new PageImpl<>(List.of(bookDto)));
+
+        Page<BookDto> result = bookService.getAllBooks(searchParams, pageable);
+
+        assertEquals(List.of(bookDto), result.getContent());
+        verify(bookRepository, never()).findAllAsDto(any(BooleanBuilder.class), any(Pageable.class));
+    }
+
+    @Test
+    void getAllBooks_SearchServedFromCatalogIndex() {
+        MultiValueMap<String, String> searchParams = new LinkedMultiValueMap<>();
+        searchParams.add("search", "dream");
+        Pageable pageable = PageRequest.of(0, 10);
+        BookDto otherBook = new BookDto("1234567891", "The Dream", 1L, "Author Name");
+
+        when(catalogIndex.search("dream", 0, 10, Set.of()))
+                .thenReturn(Optional.of(new SearchHits(List.of("1234567891", "1234567890"), 2)));
+        when(bookRepository.findAllAsDto(any(Predicate.class), eq(Pageable.unpaged())))
+                .thenReturn(new PageImpl<>(List.of(bookDto, otherBook)));
+
+        Page<BookDto> result = bookService.getAllBooks(searchParams, pageable);
+
+        assertEquals(List.of(otherBook, bookDto), result.getContent());
+        assertEquals(2, result.getTotalElements());
+        verify(bookRepository, never()).searchAsDto(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getAllBooks_FuzzyFallsBackToSubstringFiltersWhileIndexUnavailable() {
+        MultiValueMap<String, String> searchParams = new LinkedMultiValueMap<>();
+        searchParams.add("title", "drem");
+        searchParams.add("fuzzy", "true");
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(catalogIndex.searchSimilar("drem", null, 0, 10, Set.of())).thenReturn(Optional.empty());
+        when(bookSearchCache.get(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Page<BookDto>>>getArgument(2).get());
+        when(bookRepository.findAllAsDto(any(Predicate.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        Page<BookDto> result = bookService.getAllBooks(searchParams, pageable);
+
+        assertEquals(0, result.getTotalElements());
+        verify(catalogIndex).searchSimilar("drem", null, 0, 10, Set.of());
+    }
+
+    @Test
+    void getAllBooks_FacetsCountedFromCatalogIndexWithoutFilters() {
+        MultiValueMap<String, String> searchParams = new LinkedMultiValueMap<>();
+        searchParams.add("facets", "author");
+        Pageable pageable = PageRequest.of(0, 10);
+        Map<String, List<FacetCountDto>> facets = Map.of("author", List.of(new FacetCountDto("1", "Author Name", 3)));
+
+        when(bookSearchCache.get(any(), any(), any())).thenReturn(new PageImpl<>(List.of(bookDto), pageable, 1));
+        when(catalogIndex.countFacets(Set.of("author"))).thenReturn(Optional.of(facets));
+
+        Page<BookDto> result = bookService.getAllBooks(searchParams, pageable);
+
+        assertEquals(facets, ((FacetedPage<BookDto>) result).getFacets());
+        verify(bookRepository, never()).countByAuthor(any(), anyInt());
+    }
+
+    @Test
+    void getAllBooks_SearchFacetsCountedByPostgresWhileIndexUnavailable() {
+        MultiValueMap<String, String> searchParams = new LinkedMultiValueMap<>();
+        searchParams.add("search", "dream");
+        searchParams.add("facets", "author");
+        Pageable pageable = PageRequest.of(0, 10);
+        List<FacetCountDto> counts = List.of(new FacetCountDto("1", "Author Name", 1));
+
+        when(catalogIndex.search("dream", 0, 10, Set.of("author"))).thenReturn(Optional.empty());
+        when(bookSearchCache.get(any(), any(), any())).thenReturn(new PageImpl<>(List.of(bookDto), pageable, 1));
+        when(bookRepository.countSearchByAuthor("dream", null, null, null, CatalogIndex.FACET_SIZE)).thenReturn(counts);
+
+        Page<BookDto> result = bookService.getAllBooks(searchParams, pageable);
+
+        assertEquals(Map.of("author", counts), ((FacetedPage<BookDto>) result).getFacets());
+        verify(catalogIndex, never()).countFacets(any());
+    }
+
+    @Test
+    void getAllBooks_UnknownFacet() {
+        MultiValueMap<String, String> searchParams = new LinkedMultiValueMap<>();
+        searchParams.add("facets", "author,publisher");
+
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class,
+                () -> bookService.getAllBooks(searchParams, PageRequest.of(0, 10)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void autocomplete_FallsBackToTitlesWhileIndexUnavailable() {
+        when(catalogIndex.complete("test", 5)).thenReturn(Optional.empty());
+        when(bookRepository.findAllAsDto(any(Predicate.class), eq(PageRequest.of(0, 5))))
+                .thenReturn(new PageImpl<>(List.of(bookDto)));
+
+        List<CompletionDto> result = bookService.autocomplete("test", 5);
+
+        assertEquals(List.of(new CompletionDto("Test Book", "title")), result);
+    }
+
+    @Test
+    void autocomplete_InvalidLimit() {
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class,
+                () -> bookService.autocomplete("test", 100));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void getAllBooks_SearchCannotBeSorted() {
+        MultiValueMap<String, String> searchParams = new LinkedMultiValueMap<>();
+        searchParams.add("search", "dream");
+        searchParams.add("sort", "title,asc");
+
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class,
+                () -> bookService.getAllBooks(searchParams, PageRequest.of(0, 10)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void getBooksByCursor_ReturnsNextCursorPointingAfterLastBook() {
+        MultiValueMap<String, String> searchParams = new LinkedMultiValueMap<>();
+        searchParams.add("cursor", "");
+        BookDto nextBook = new BookDto("1234567891", "Test Book 2", 1L, "Author Name");
+        when(bookRepository.findAllAsDtoAfter(any(BooleanBuilder.class), isNull(), isNull(), eq(2)))
+                .thenReturn(List.of(bookDto, nextBook));
+
+        BookCursorPage firstPage = bookService.getBooksByCursor(searchParams, 1);
+
+        assertEquals(List.of(bookDto), firstPage.getContent());
+        assertNotNull(firstPage.getNextCursor());
+
+        searchParams.set("cursor", firstPage.getNextCursor());
+        when(bookRepository.findAllAsDtoAfter(any(BooleanBuilder.class), eq(bookDto.getTitle()),
+                eq(bookDto.getIsbn()), eq(2))).thenReturn(List.of(nextBook));
+
+        BookCursorPage lastPage = bookService.getBooksByCursor(searchParams, 1);
+
+        assertEquals(List.of(nextBook), lastPage.getContent());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void getBooksByCursor_InvalidCursor() {
+        MultiValueMap<String, String> searchParams = new LinkedMultiValueMap<>();
+        searchParams.add("cursor", "not a cursor");
+
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class,
+                () -> bookService.getBooksByCursor(searchParams, 8));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
     }
 
     @Test
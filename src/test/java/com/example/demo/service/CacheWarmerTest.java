@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.example.demo.cache.HotKeyTracker;
+import com.example.demo.cache.LocalCacheSnapshot;
+import com.example.demo.cache.ReviewListCache;
+import com.example.demo.cache.StoreCacheProperties;
+import com.example.demo.dto.BookDto;
+import com.example.demo.dto.ReviewDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheWarmerTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache bookCache;
+
+    @Mock
+    private Cache authorCache;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
+    @Mock
+    private LocalCacheSnapshot localCacheSnapshot;
+
+    @Mock
+    private ReviewListCache reviewListCache;
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private AuthorService authorService;
+
+    @Mock
+    private ReviewService reviewService;
+
+    private StoreCacheProperties storeCacheProperties;
+
+    private CacheWarmer cacheWarmer;
+
+    @BeforeEach
+    void setUp() {
+        storeCacheProperties = new StoreCacheProperties();
+        storeCacheProperties.getWarmUp().setEnabled(true);
+        cacheWarmer = new CacheWarmer(cacheManager, hotKeyTracker, localCacheSnapshot, reviewListCache, bookService,
+                authorService, reviewService, storeCacheProperties);
+    }
+
+    @Test
+    void run_PreloadsOnlyUncachedHotKeys() {
+        BookDto bookDto = new BookDto("1234567890", "Test Book", 1L, "Author Name");
+        ReviewDto reviewDto = new ReviewDto(1, "John Doe", "Great book!", "1234567890");
+        when(cacheManager.getCache("book")).thenReturn(bookCache);
+        when(cacheManager.getCache("author")).thenReturn(authorCache);
+        when(hotKeyTracker.topKeys("book", 500)).thenReturn(List.of("1234567890", "0987654321"));
+        when(hotKeyTracker.topKeys("author", 500)).thenReturn(List.of());
+        when(hotKeyTracker.topKeys("review", 500)).thenReturn(List.of("1234567890"));
+        when(bookCache.get("1234567890")).thenReturn(null);
+        when(bookCache.get("0987654321")).thenReturn(new SimpleValueWrapper(bookDto));
+        when(bookService.fetchBooksByIsbns(List.of("1234567890"))).thenReturn(List.of(bookDto));
+        when(reviewService.fetchReviewsByIsbns(List.of("1234567890")))
+                .thenReturn(Map.of("1234567890", List.of(reviewDto)));
+        when(reviewListCache.loadAll(eq(List.of("1234567890")), any())).thenAnswer(invocation -> invocation
+                .<Function<Collection<String>, Map<String, List<ReviewDto>>>>getArgument(1)
+                .apply(invocation.getArgument(0)));
+
+        cacheWarmer.run(null);
+
+        verify(localCacheSnapshot, times(1)).restore();
+        verify(bookCache, times(1)).putIfAbsent("1234567890", bookDto);
+        verify(reviewService, times(1)).fetchReviewsByIsbns(List.of("1234567890"));
+    }
+
+    @Test
+    void run_Disabled() {
+        storeCacheProperties.getWarmUp().setEnabled(false);
+
+        cacheWarmer.run(null);
+
+        verify(localCacheSnapshot, times(1)).restore();
+        verify(hotKeyTracker, never()).topKeys(anyString(), anyInt());
+    }
+}
@@ -3,18 +3,30 @@ package com.example.demo.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
+import com.example.demo.cache.ReviewListCache;
+import com.example.demo.dao.BookBatchRepository;
+import com.example.demo.dao.ReviewBatchRepository;
 import com.example.demo.dao.ReviewRepository;
+import com.example.demo.dto.ReviewBatchResultDto;
+import com.example.demo.dto.ReviewCursorPage;
 import com.example.demo.dto.ReviewDto;
 import com.example.demo.entity.Book;
 import com.example.demo.entity.Review;
@@ -25,7 +37,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +51,15 @@ public class ReviewServiceTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private ReviewListCache reviewListCache;
+
+    @Mock
+    private ReviewBatchRepository reviewBatchRepository;
+
+    @Mock
+    private BookBatchRepository bookBatchRepository;
+
     @InjectMocks
     private ReviewService reviewService;
 
@@ -73,39 +96,114 @@ public class ReviewServiceTest {
         assertEquals(review.getContent(), result.getContent());
         verify(bookService, times(1)).findBookByIsbn(anyString());
         verify(reviewRepository, times(1)).save(any(Review.class));
+        verify(reviewListCache, times(1)).patch("1234567890", result);
+    }
+
+    @Test
+    void submitReviews_ReportsEachReview() {
+        List<ReviewDto> reviewDtos = List.of(new ReviewDto(0, "John Doe", "Great book!", "1234567890"),
+                new ReviewDto(0, "Jane Doe", " ", "1234567890"),
+                new ReviewDto(0, "Jane Doe", "Good book!", "0987654321"),
+                new ReviewDto(0, "Mr.X", "Nice Book", "1234567890"));
+        when(bookBatchRepository.findLiveIsbns(List.of("1234567890", "0987654321")))
+                .thenReturn(Set.of("1234567890"));
+        when(reviewBatchRepository.insertReviews(any())).thenReturn(List.of(7, 8));
+
+        List<ReviewBatchResultDto> results = reviewService.submitReviews(reviewDtos);
+
+        assertEquals(List.of(201, 400, 404, 201), results.stream().map(ReviewBatchResultDto::getStatus).toList());
+        assertEquals("Content cannot be blank", results.get(1).getError());
+        assertEquals(8, results.get(3).getReview().getId());
+        verify(reviewListCache, times(1)).patchAll(Map.of("1234567890",
+                List.of(results.get(0).getReview(), results.get(3).getReview())));
+    }
+
+    @Test
+    void submitReviews_RejectsOversizedBatch() {
+        List<ReviewDto> reviewDtos = Collections.nCopies(1001, reviewDto);
+
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class,
+                () -> reviewService.submitReviews(reviewDtos));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(reviewBatchRepository, never()).insertReviews(any());
     }
 
     @Test
     void fetchReviewsByIsbn_Success() {
-        when(bookService.findBookByIsbn(anyString())).thenReturn(book);
-        when(reviewRepository.findByBook(any(Book.class))).thenReturn(List.of(review));
+        when(reviewListCache.getFirstPageSize()).thenReturn(10);
+        when(reviewListCache.get(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<ReviewDto>>>getArgument(1).get());
+        when(reviewRepository.findDtosByBookIsbnAfter("1234567890", 0, Limit.of(11)))
+                .thenReturn(List.of(new ReviewDto(1, "John Doe", "Great book!", "1234567890")));
 
-        List<ReviewDto> result = reviewService.fetchReviewsByIsbn("1234567890");
+        ReviewCursorPage result = reviewService.fetchReviewsByIsbn("1234567890", null, null, 8);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(review.getReviewerName(), result.get(0).getReviewerName());
-        assertEquals(review.getContent(), result.get(0).getContent());
-        verify(bookService, times(1)).findBookByIsbn(anyString());
-        verify(reviewRepository, times(1)).findByBook(any(Book.class));
+        assertFalse(result.getContent().isEmpty());
+        assertEquals(review.getReviewerName(), result.getContent().get(0).getReviewerName());
+        assertEquals(review.getContent(), result.getContent().get(0).getContent());
+        assertNull(result.getNextCursor());
+        verify(bookService, never()).findBookByIsbn(anyString());
+    }
+
+    @Test
+    void fetchReviewsByIsbn_CacheHit() {
+        List<ReviewDto> cachedReviews = List.of(new ReviewDto(1, "John Doe", "Great book!", "1234567890"),
+                new ReviewDto(2, "Jane Doe", "Good book!", "1234567890"));
+        when(reviewListCache.getFirstPageSize()).thenReturn(10);
+        when(reviewListCache.get(anyString(), any())).thenReturn(cachedReviews);
+
+        ReviewCursorPage result = reviewService.fetchReviewsByIsbn("1234567890", null, null, 1);
+
+        assertEquals(List.of(cachedReviews.get(0)), result.getContent());
+        assertNotNull(result.getNextCursor());
+        verify(reviewRepository, never()).findDtosByBookIsbnAfter(anyString(), anyInt(), any());
+    }
+
+    @Test
+    void fetchReviewsByIsbn_NewestFirstContinuesBeforeCursor() {
+        ReviewDto newest = new ReviewDto(9, "John Doe", "Great book!", "1234567890");
+        ReviewDto older = new ReviewDto(7, "Jane Doe", "Good book!", "1234567890");
+        when(reviewRepository.findDtosByBookIsbnBefore("1234567890", Integer.MAX_VALUE, Limit.of(2)))
+                .thenReturn(List.of(newest, older));
+        when(reviewRepository.findDtosByBookIsbnBefore("1234567890", 9, Limit.of(2))).thenReturn(List.of(older));
+
+        ReviewCursorPage firstPage = reviewService.fetchReviewsByIsbn("1234567890", null, "newest", 1);
+        ReviewCursorPage lastPage =
+                reviewService.fetchReviewsByIsbn("1234567890", firstPage.getNextCursor(), "newest", 1);
+
+        assertEquals(List.of(newest), firstPage.getContent());
+        assertEquals(List.of(older), lastPage.getContent());
+        assertNull(lastPage.getNextCursor());
+        verify(reviewListCache, never()).get(anyString(), any());
+    }
+
+    @Test
+    void fetchReviewsByIsbn_InvalidSort() {
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class,
+                () -> reviewService.fetchReviewsByIsbn("1234567890", null, "rating", 8));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
     }
 
     @Test
     void modifyReview_Success() {
         when(reviewRepository.findById(anyLong())).thenReturn(Optional.of(review));
-        when(reviewRepository.save(any(Review.class))).thenReturn(review);
+        when(reviewRepository.saveAndFlush(any(Review.class))).thenReturn(review);
 
         ReviewDto updatedReviewDto = new ReviewDto();
         updatedReviewDto.setReviewerName("Jane Doe");
         updatedReviewDto.setContent("Updated review content");
 
-        ReviewDto result = reviewService.modifyReview("1234567890", 1L, updatedReviewDto);
+        ReviewDto result = reviewService.modifyReview("1234567890", 1L, updatedReviewDto, 0L);
 
         assertNotNull(result);
         assertEquals(updatedReviewDto.getReviewerName(), result.getReviewerName());
         assertEquals(updatedReviewDto.getContent(), result.getContent());
         verify(reviewRepository, times(1)).findById(anyLong());
-        verify(reviewRepository, times(1)).save(any(Review.class));
+        verify(reviewRepository, times(1)).saveAndFlush(any(Review.class));
+        verify(reviewListCache, times(1)).patch("1234567890", result);
     }
 
     @Test
@@ -113,7 +211,7 @@ public class ReviewServiceTest {
         when(reviewRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
-            reviewService.modifyReview("1234567890", 1L, reviewDto);
+            reviewService.modifyReview("1234567890", 1L, reviewDto, null);
         });
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
@@ -126,10 +224,38 @@ public class ReviewServiceTest {
         when(reviewRepository.findById(anyLong())).thenReturn(Optional.of(review));
 
         OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
-            reviewService.modifyReview("1234567890", 1L, reviewDto);
+            reviewService.modifyReview("1234567890", 1L, reviewDto, null);
         });
 
         assertEquals(HttpStatus.CONFLICT, exception.getStatus());
         verify(reviewRepository, times(1)).findById(anyLong());
     }
+
+    @Test
+    void modifyReview_VersionChanged() {
+        review.setVersion(3);
+        when(reviewRepository.findById(anyLong())).thenReturn(Optional.of(review));
+
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
+            reviewService.modifyReview("1234567890", 1L, reviewDto, 2L);
+        });
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatus());
+        verify(reviewRepository, never()).saveAndFlush(any(Review.class));
+        verify(reviewListCache, never()).patch(anyString(), any(ReviewDto.class));
+    }
+
+    @Test
+    void modifyReview_ConcurrentUpdateWithoutIfMatch() {
+        when(reviewRepository.findById(anyLong())).thenReturn(Optional.of(review));
+        when(reviewRepository.saveAndFlush(any(Review.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Review.class, 1));
+
+        OnlineBookStoreException exception = assertThrows(OnlineBookStoreException.class, () -> {
+            reviewService.modifyReview("1234567890", 1L, reviewDto, null);
+        });
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        verify(reviewListCache, never()).patch(anyString(), any(ReviewDto.class));
+    }
 }
\ No newline at end of file